@@ -30,17 +30,23 @@
 package org.n52.io.handler;
 
 import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.Deflater;
 
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.n52.io.IoParseException;
 import org.n52.io.request.IoParameters;
 import org.n52.io.request.Parameters;
@@ -52,11 +58,33 @@ import org.n52.io.response.dataset.DataCollection;
 import org.n52.io.response.dataset.DatasetOutput;
 import org.n52.io.response.dataset.DatasetParameters;
 import org.n52.io.response.dataset.TimeseriesMetadataOutput;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.series.spi.srv.DataBatch;
+import org.n52.series.spi.srv.DataCursor;
 
 public abstract class CsvIoHandler<T extends AbstractValue< ? >> extends IoHandler<Data<T>> {
 
     public static final Charset UTF8 = Charset.forName("UTF-8");
 
+    /**
+     * Config-key for the compression level of zipped output (<code>0-9</code>, or <code>-1</code> for the
+     * default level).
+     */
+    public static final String ZIP_COMPRESSION_LEVEL = "zip_compression_level";
+
+    /**
+     * Config-key for the maximum number of zip entry chunks compressed at the same time. Defaults to (and is
+     * capped by) the number of available processors, a value of <code>1</code> compresses sequentially.
+     */
+    public static final String ZIP_PARALLELISM = "zip_parallelism";
+
+    /**
+     * Config-key for the size (in bytes) below which zip entries are stored without compression.
+     */
+    public static final String ZIP_STORED_THRESHOLD = "zip_stored_threshold";
+
+    public static final int DEFAULT_ZIP_STORED_THRESHOLD = 1024;
+
     // needed by some clients to detect UTF-8 encoding (e.g. excel)
     private static final String UTF8_BYTE_ORDER_MARK = "\uFEFF";
 
@@ -68,6 +96,8 @@ public abstract class CsvIoHandler<T extends AbstractValue< ? >> extends IoHandl
 
     private boolean zipOutput;
 
+    private CsvWriter csvWriter;
+
     public CsvIoHandler(IoParameters parameters,
                         IoProcessChain<Data<T>> processChain,
                         List< ? extends DatasetOutput<T>> seriesMetadatas) {
@@ -108,24 +138,92 @@ public abstract class CsvIoHandler<T extends AbstractValue< ? >> extends IoHandl
         }
     }
 
-    protected void writeAsZipStream(DataCollection<Data<T>> data, OutputStream stream) throws IOException {
-        try (ZipOutputStream zipStream = new ZipOutputStream(stream)) {
-            for (DatasetOutput<T> dataset : seriesMetadatas) {
-                String filename = getFilenameFor(dataset) + ".csv";
+    @Override
+    protected void encodeAndWriteTo(DataCursor<Data<T>> data, OutputStream stream) throws IoParseException {
+        try {
+            if (zipOutput || seriesMetadatas.size() != 1) {
+                writeAsZipStream(data, stream);
+            } else {
+                writeAsSingleCsv(data, stream);
+            }
+        } catch (IOException e) {
+            throw new IoParseException("Could not write CSV to output stream.", e);
+        }
+    }
 
-                ZipEntry zipEntry = new ZipEntry(filename);
-                zipStream.putNextEntry(zipEntry);
+    /**
+     * Writes entries in the order of the dataset metadata. The dataset expected next is streamed directly,
+     * datasets delivered out of order are spilled to temporary files until their turn has come.
+     */
+    protected void writeAsZipStream(DataCursor<Data<T>> data, OutputStream stream) throws IOException {
+        Map<String, DatasetOutput<T>> datasets = new HashMap<>();
+        seriesMetadatas.forEach(dataset -> datasets.put(dataset.getId(), dataset));
+        try (ParallelZipWriter zipWriter = createZipWriter(stream);
+                EntryOrder entries = new EntryOrder(zipWriter)) {
+            DatasetOutput<T> current = null;
+            OutputStream entry = null;
+            while (data.hasNext()) {
+                DataBatch<Data<T>> batch = data.next();
+                DatasetOutput<T> dataset = datasets.get(batch.getDatasetId());
+                if (dataset == null) {
+                    continue;
+                }
+                if (dataset != current) {
+                    entries.closeEntry(current, entry);
+                    current = dataset;
+                    entry = entries.openEntry(dataset);
+                    writeHeader(dataset, entry);
+                }
+                writeData(dataset, batch.getData(), entry);
+            }
+            entries.closeEntry(current, entry);
+            entries.finish();
+        }
+    }
 
-                writeHeader(dataset, zipStream);
-                Data<T> series = data.getSeries(dataset.getId());
-                writeData(dataset, series, zipStream);
+    private void writeAsSingleCsv(DataCursor<Data<T>> data, OutputStream stream) throws IOException {
+        try (BufferedOutputStream bos = new BufferedOutputStream(stream)) {
+            DatasetOutput<T> metadata = seriesMetadatas.get(0);
+            writeHeader(metadata, bos);
+            while (data.hasNext()) {
+                DataBatch<Data<T>> batch = data.next();
+                if (metadata.getId()
+                            .equals(batch.getDatasetId())) {
+                    writeData(metadata, batch.getData(), bos);
+                }
+            }
+            bos.flush();
+        }
+    }
 
-                zipStream.closeEntry();
-                zipStream.flush();
+    protected void writeAsZipStream(DataCollection<Data<T>> data, OutputStream stream) throws IOException {
+        try (ParallelZipWriter zipWriter = createZipWriter(stream)) {
+            for (DatasetOutput<T> dataset : seriesMetadatas) {
+                zipWriter.putNextEntry(getFilenameFor(dataset) + ".csv");
+                writeHeader(dataset, zipWriter);
+                Data<T> series = data.getSeries(dataset.getId());
+                writeData(dataset, series, zipWriter);
+                zipWriter.closeEntry();
             }
         }
     }
 
+    private ParallelZipWriter createZipWriter(OutputStream stream) {
+        IoParameters parameters = getParameters();
+        int storedThreshold = parameters.getAsInteger(ZIP_STORED_THRESHOLD, DEFAULT_ZIP_STORED_THRESHOLD);
+        return new ParallelZipWriter(stream, getZipCompressionLevel(), getZipParallelism(), storedThreshold);
+    }
+
+    private int getZipCompressionLevel() {
+        return getParameters().getAsInteger(ZIP_COMPRESSION_LEVEL, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    private int getZipParallelism() {
+        int processors = Runtime.getRuntime()
+                                .availableProcessors();
+        return Math.min(getParameters().getAsInteger(ZIP_PARALLELISM, processors), processors);
+    }
+
     private void writeAsSingleCsv(DataCollection<Data<T>> data, OutputStream stream) throws IOException {
         try (BufferedOutputStream bos = new BufferedOutputStream(stream)) {
             if (data.size() == 1) {
@@ -147,6 +245,19 @@ public abstract class CsvIoHandler<T extends AbstractValue< ? >> extends IoHandl
         writeText(text, stream);
     }
 
+    /**
+     * @param stream
+     *        the stream to write to
+     * @return a writer reusing its buffer for all datasets written by this handler. Rows have to be
+     *         {@link CsvWriter#flush() flushed} before anything else is written to the stream.
+     */
+    protected CsvWriter getCsvWriter(OutputStream stream) {
+        if (csvWriter == null) {
+            csvWriter = new CsvWriter(tokenSeparator);
+        }
+        return csvWriter.setOutputStream(stream);
+    }
+
     protected void writeText(String text, OutputStream stream) throws IOException {
         stream.write(text.getBytes(UTF8));
     }
@@ -165,7 +276,7 @@ public abstract class CsvIoHandler<T extends AbstractValue< ? >> extends IoHandl
                      .concat("\n");
     }
 
-    protected String parseTime(T value) {
+    protected String parseTime(AbstractValue< ? > value) {
         TimeOutput timestart = value.getTimestart();
         TimeOutput timeend = value.getTimeend();
         TimeOutput timestamp = value.getTimestamp();
@@ -175,6 +286,14 @@ public abstract class CsvIoHandler<T extends AbstractValue< ? >> extends IoHandl
                            .toString();
     }
 
+    protected String parseTime(QuantityData data, int index) {
+        DateTimeZone timezone = data.getTimezone();
+        DateTime timestamp = new DateTime(data.getTimestamp(index), timezone);
+        return data.hasTimestart(index)
+                ? new DateTime(data.getTimestart(index), timezone) + "/" + timestamp
+                : timestamp.toString();
+    }
+
     public void setZipOutput(boolean zipOutput) {
         this.zipOutput = zipOutput;
     }
@@ -200,4 +319,107 @@ public abstract class CsvIoHandler<T extends AbstractValue< ? >> extends IoHandl
         return "trajectory".equalsIgnoreCase(datasetType);
     }
 
+    /**
+     * Keeps zip entries in the order of the dataset metadata, no matter in which order datasets are read.
+     * Datasets read out of order are spilled to temporary files, datasets not read at all get an entry
+     * containing the header only.
+     */
+    private final class EntryOrder implements Closeable {
+
+        private final Map<String, Path> spilled = new HashMap<>();
+
+        private final ParallelZipWriter zipWriter;
+
+        private Path spilling;
+
+        private OutputStream spillStream;
+
+        private int next;
+
+        EntryOrder(ParallelZipWriter zipWriter) {
+            this.zipWriter = zipWriter;
+        }
+
+        /**
+         * @return the stream to write the dataset's entry to
+         */
+        OutputStream openEntry(DatasetOutput<T> dataset) throws IOException {
+            if (next < seriesMetadatas.size() && getIdAt(next).equals(dataset.getId())) {
+                zipWriter.putNextEntry(getFilenameFor(dataset) + ".csv");
+                return zipWriter;
+            }
+            spilling = Files.createTempFile("csv-entry", ".csv");
+            spillStream = new BufferedOutputStream(Files.newOutputStream(spilling));
+            return spillStream;
+        }
+
+        void closeEntry(DatasetOutput<T> dataset, OutputStream entry) throws IOException {
+            if (dataset == null) {
+                return;
+            }
+            if (entry == zipWriter) {
+                zipWriter.closeEntry();
+                next++;
+            } else {
+                spillStream.close();
+                spilled.put(dataset.getId(), spilling);
+                spillStream = null;
+                spilling = null;
+            }
+            writeSpilledEntries();
+        }
+
+        void finish() throws IOException {
+            for (; next < seriesMetadatas.size(); next++) {
+                DatasetOutput<T> dataset = seriesMetadatas.get(next);
+                Path file = spilled.remove(dataset.getId());
+                zipWriter.putNextEntry(getFilenameFor(dataset) + ".csv");
+                if (file == null) {
+                    writeHeader(dataset, zipWriter);
+                } else {
+                    copy(file);
+                }
+                zipWriter.closeEntry();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // left over in case writing has been aborted
+            try {
+                if (spillStream != null) {
+                    spillStream.close();
+                    Files.deleteIfExists(spilling);
+                }
+            } finally {
+                for (Path file : spilled.values()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        private void writeSpilledEntries() throws IOException {
+            while (next < seriesMetadatas.size() && spilled.containsKey(getIdAt(next))) {
+                DatasetOutput<T> dataset = seriesMetadatas.get(next);
+                zipWriter.putNextEntry(getFilenameFor(dataset) + ".csv");
+                copy(spilled.remove(dataset.getId()));
+                zipWriter.closeEntry();
+                next++;
+            }
+        }
+
+        private void copy(Path file) throws IOException {
+            try {
+                Files.copy(file, zipWriter);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        private String getIdAt(int index) {
+            return seriesMetadatas.get(index)
+                                  .getId();
+        }
+    }
+
 }
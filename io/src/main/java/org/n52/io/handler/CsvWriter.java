@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.n52.io.response.IsoDateTimeEncoder;
+
+/**
+ * Buffered writer for CSV rows. Fields are encoded as UTF-8 bytes directly into a reusable buffer which is
+ * written to the output stream on {@link #flush()} or when full. Times and plain decimals are encoded without
+ * intermediate strings as long as the token separator cannot occur within them.
+ * <p>
+ * Fields containing the token separator are quoted, like {@link CsvIoHandler#csvEncode(String[])} does.
+ * Instances are not thread-safe.
+ */
+public class CsvWriter {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String TIME_CHARACTERS = "0123456789-:.+TZ/";
+
+    private static final String DECIMAL_CHARACTERS = "0123456789-.";
+
+    private static final byte[] ZERO = { '0', '.', '0' };
+
+    // room for a time interval which is never split across buffer flushes
+    private static final int MAX_TIME_INTERVAL_LENGTH = 64;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private final IsoDateTimeEncoder timeEncoder = new IsoDateTimeEncoder();
+
+    private final String tokenSeparator;
+
+    private final byte[] encodedSeparator;
+
+    private final boolean plainTimes;
+
+    private final boolean plainDecimals;
+
+    private final byte[] lastDecimal = new byte[32];
+
+    private int lastDecimalLength = -1;
+
+    private long lastDecimalBits;
+
+    private OutputStream stream;
+
+    private int position;
+
+    private boolean firstField = true;
+
+    public CsvWriter(String tokenSeparator) {
+        this.tokenSeparator = tokenSeparator;
+        this.encodedSeparator = tokenSeparator.getBytes(CsvIoHandler.UTF8);
+        this.plainTimes = !containsAny(tokenSeparator, TIME_CHARACTERS);
+        this.plainDecimals = !containsAny(tokenSeparator, DECIMAL_CHARACTERS);
+    }
+
+    /**
+     * Sets the stream to write to. Rows buffered so far have to be {@link #flush() flushed} before.
+     *
+     * @param outputStream
+     *        the stream to write to
+     * @return this instance
+     */
+    public CsvWriter setOutputStream(OutputStream outputStream) {
+        this.stream = outputStream;
+        return this;
+    }
+
+    public void writeField(String value) throws IOException {
+        startField();
+        writeValue(value);
+    }
+
+    /**
+     * Writes a time in the same format as {@link DateTime#toString()} does.
+     *
+     * @param millis
+     *        milliseconds since epoch
+     * @param timezone
+     *        the zone to write the time in, or <code>null</code> for the default zone
+     */
+    public void writeTime(long millis, DateTimeZone timezone) throws IOException {
+        DateTimeZone zone = getZone(timezone);
+        startField();
+        int length = plainTimes
+                ? timeEncoder.encode(millis, zone)
+                : -1;
+        if (length < 0) {
+            writeValue(new DateTime(millis, zone).toString());
+        } else {
+            ensureCapacity(length);
+            position = copyAscii(timeEncoder.getChars(), length, position);
+        }
+    }
+
+    /**
+     * Writes a time interval as <code>start/end</code>, both in the same format as {@link DateTime#toString()}
+     * does.
+     *
+     * @param start
+     *        milliseconds since epoch the interval starts
+     * @param end
+     *        milliseconds since epoch the interval ends
+     * @param timezone
+     *        the zone to write the times in, or <code>null</code> for the default zone
+     */
+    public void writeTimeInterval(long start, long end, DateTimeZone timezone) throws IOException {
+        DateTimeZone zone = getZone(timezone);
+        startField();
+        ensureCapacity(MAX_TIME_INTERVAL_LENGTH);
+        int startLength = plainTimes
+                ? timeEncoder.encode(start, zone)
+                : -1;
+        if (startLength >= 0) {
+            // position is moved only if both times could be encoded
+            int separatorPosition = copyAscii(timeEncoder.getChars(), startLength, position);
+            int endLength = timeEncoder.encode(end, zone);
+            if (endLength >= 0) {
+                buffer[separatorPosition] = '/';
+                position = copyAscii(timeEncoder.getChars(), endLength, separatorPosition + 1);
+                return;
+            }
+        }
+        writeValue(new DateTime(start, zone) + "/" + new DateTime(end, zone));
+    }
+
+    /**
+     * Writes a decimal like {@link BigDecimal#valueOf(double)} would be printed. No data values
+     * ({@link Double#NaN}) are written as empty field.
+     *
+     * @param value
+     *        the value to write
+     */
+    public void writeDecimal(double value) throws IOException {
+        if (Double.isNaN(value)) {
+            writeField(null);
+            return;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        if (lastDecimalLength < 0 || bits != lastDecimalBits) {
+            cacheDecimal(value, bits);
+        }
+        if (lastDecimalLength < 0) {
+            writeField(BigDecimal.valueOf(value)
+                                 .toString());
+        } else {
+            startField();
+            ensureCapacity(lastDecimalLength);
+            System.arraycopy(lastDecimal, 0, buffer, position, lastDecimalLength);
+            position += lastDecimalLength;
+        }
+    }
+
+    public void endRow() throws IOException {
+        writeByte('\n');
+        firstField = true;
+    }
+
+    /**
+     * Writes all buffered bytes to the output stream.
+     */
+    public void flush() throws IOException {
+        if (position > 0) {
+            stream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void writeValue(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.contains(tokenSeparator);
+        if (quote) {
+            writeByte('"');
+        }
+        writeUtf8(value);
+        if (quote) {
+            writeByte('"');
+        }
+    }
+
+    private void cacheDecimal(double value, long bits) {
+        lastDecimalBits = bits;
+        if (value == 0d) {
+            // BigDecimal has no negative zero
+            System.arraycopy(ZERO, 0, lastDecimal, 0, ZERO.length);
+            lastDecimalLength = ZERO.length;
+            return;
+        }
+        String decimal = Double.toString(value);
+        // scientific notation differs from BigDecimal's
+        if (!plainDecimals || decimal.indexOf('E') >= 0 || decimal.length() > lastDecimal.length) {
+            lastDecimalLength = -1;
+            return;
+        }
+        for (int i = 0; i < decimal.length(); i++) {
+            lastDecimal[i] = (byte) decimal.charAt(i);
+        }
+        lastDecimalLength = decimal.length();
+    }
+
+    private void startField() throws IOException {
+        if (firstField) {
+            firstField = false;
+            return;
+        }
+        ensureCapacity(encodedSeparator.length);
+        System.arraycopy(encodedSeparator, 0, buffer, position, encodedSeparator.length);
+        position += encodedSeparator.length;
+    }
+
+    private void writeUtf8(String value) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            ensureCapacity(4);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c)
+                    && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, replaced like String#getBytes does
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    private void writeByte(char c) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private int copyAscii(char[] chars, int length, int offset) {
+        for (int i = 0; i < length; i++) {
+            buffer[offset + i] = (byte) chars[i];
+        }
+        return offset + length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flush();
+        }
+    }
+
+    private static DateTimeZone getZone(DateTimeZone timezone) {
+        return timezone == null
+                ? DateTimeZone.getDefault()
+                : timezone;
+    }
+
+    private static boolean containsAny(String value, String characters) {
+        for (int i = 0; i < value.length(); i++) {
+            if (characters.indexOf(value.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -29,20 +29,19 @@
 
 package org.n52.io.handler;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
-import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64OutputStream;
 import org.n52.io.I18N;
 import org.n52.io.request.IoParameters;
 import org.n52.io.request.Parameters;
 import org.n52.io.response.dataset.AbstractValue;
 import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.DataCollection;
+import org.n52.series.spi.srv.DataCursor;
 
 // TODO actually this interface describes an prepares and writes an output only
-// TODO consider a plain JSON Writer to get rid of ModelAndView in controllers
 public abstract class IoHandler<T extends Data< ? extends AbstractValue< ? >>> {
 
     protected final I18N i18n;
@@ -71,16 +70,32 @@ public abstract class IoHandler<T extends Data< ? extends AbstractValue< ? >>> {
      */
     protected abstract void encodeAndWriteTo(DataCollection<T> data, OutputStream stream) throws IoHandlerException;
 
+    /**
+     * Encodes and writes data delivered incrementally to the given stream. Handlers able to write data
+     * batch by batch should override this method, the default collects all data and delegates to
+     * {@link #encodeAndWriteTo(DataCollection, OutputStream)}.
+     *
+     * @param data
+     *        the cursor delivering the data to create an output for.
+     * @param stream
+     *        the stream to write on the generated ouput.
+     * @throws IoHandlerException
+     *         if writing output to stream fails.
+     */
+    protected void encodeAndWriteTo(DataCursor<T> data, OutputStream stream) throws IoHandlerException {
+        encodeAndWriteTo(data.collect(), stream);
+    }
+
     public void writeBinary(OutputStream outputStream) throws IoHandlerException {
-        try (OutputStream stream = outputStream) {
+        try (OutputStream stream = outputStream;
+                DataCursor<T> data = processChain.getDataCursor()) {
             if (parameters.isBase64()) {
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                encodeAndWriteTo(processChain.getData(), baos);
-                byte[] data = baos.toByteArray();
-                byte[] encode = Base64.encodeBase64(data);
-                stream.write(encode);
+                // encodes while writing, without line breaks (like Base64#encodeBase64(byte[]))
+                try (OutputStream base64 = new Base64OutputStream(stream, true, 0, null)) {
+                    encodeAndWriteTo(data, base64);
+                }
             } else {
-                encodeAndWriteTo(processChain.getData(), stream);
+                encodeAndWriteTo(data, stream);
             }
         } catch (IOException e) {
             throw new IoHandlerException("Error handling output stream.", e);
@@ -91,4 +106,8 @@ public abstract class IoHandler<T extends Data< ? extends AbstractValue< ? >>> {
         return parameters;
     }
 
+    protected IoProcessChain<T> getProcessChain() {
+        return processChain;
+    }
+
 }
@@ -32,8 +32,11 @@ package org.n52.io.handler;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.joda.time.Interval;
+import org.joda.time.Period;
 import org.n52.io.Constants;
 import org.n52.io.IoStyleContext;
 import org.n52.io.format.ResultTimeFormatter;
@@ -44,11 +47,33 @@ import org.n52.io.response.dataset.AbstractValue;
 import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.DataCollection;
 import org.n52.io.response.dataset.DatasetOutput;
+import org.n52.series.spi.srv.DataCursor;
 import org.n52.series.spi.srv.DataService;
 import org.n52.series.spi.srv.ParameterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public abstract class IoHandlerFactory<P extends DatasetOutput<V>, V extends AbstractValue< ? >> {
 
+    /**
+     * Period (ISO8601, e.g. <code>P1D</code>) of the windows in which exports read data. Not set by default,
+     * i.e. all data of the requested timespan is read at once.
+     */
+    public static final String EXPORT_WINDOW = "export_window";
+
+    /**
+     * Whether exports read the next window in the background while the current one is being written.
+     */
+    public static final String EXPORT_PREFETCH = "export_prefetch";
+
+    /**
+     * Maximum amount of windows per dataset. Export windows splitting the requested timespan into more windows
+     * are rejected, so that a small window (e.g. <code>PT1S</code>) cannot flood the backend with requests.
+     */
+    public static final int MAX_EXPORT_WINDOWS = 10_000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IoHandlerFactory.class);
+
     private IoParameters parameters;
 
     private DataService<Data<V>> dataService;
@@ -76,9 +101,11 @@ public abstract class IoHandlerFactory<P extends DatasetOutput<V>, V extends Abs
 
     public IoHandler<Data<V>> createHandler(String outputMimeType) {
         Constants.MimeType mimeType = Constants.MimeType.toInstance(outputMimeType);
-        if (isCsvOutput(mimeType)) {
+        if (mimeType == Constants.MimeType.APPLICATION_JSON) {
+            return createJsonHandler();
+        } else if (isCsvOutput(mimeType)) {
             SimpleCsvIoHandler<V> handler = new SimpleCsvIoHandler<>(parameters,
-                                                                     createProcessChain(),
+                                                                     createExportProcessChain(),
                                                                      getMetadatas());
 
             boolean zipOutput = parameters.getAsBoolean(Parameters.ZIP, false);
@@ -100,15 +127,106 @@ public abstract class IoHandlerFactory<P extends DatasetOutput<V>, V extends Abs
             }
 
             @Override
-            public DataCollection< ? > getProcessedData() {
+            public DataCollection< ? > getProcessedData(DataCollection<Data<V>> data) {
                 return parameters.shallClassifyByResultTimes()
-                        ? new ResultTimeFormatter<Data<V>>().format(getData())
+                        ? new ResultTimeFormatter<Data<V>>().format(data)
                         // empty chain
-                        : getData();
+                        : data;
+            }
+
+            @Override
+            public DataCursor<Data<V>> getDataCursor() {
+                return getDataService().getDataCursor(parameters);
+            }
+
+            @Override
+            public boolean hasProcessingSteps() {
+                return parameters.shallClassifyByResultTimes();
+            }
+        };
+    }
+
+    /**
+     * Creates the process chain for exports of potentially long timespans. In case an {@link #EXPORT_WINDOW}
+     * is configured, data is read window by window via {@link DataCursor#ofWindows(DataService, IoParameters,
+     * Period, boolean)}. Generalized data still gets read at once as generalization needs the whole series.
+     *
+     * @return the process chain to use for exports
+     */
+    protected IoProcessChain<Data<V>> createExportProcessChain() {
+        IoProcessChain<Data<V>> processChain = createProcessChain();
+        Period window = getExportWindow();
+        if (window == null || parameters.isGeneralize()) {
+            return processChain;
+        }
+        boolean prefetch = parameters.getAsBoolean(EXPORT_PREFETCH, false);
+        return new IoProcessChain<Data<V>>() {
+
+            @Override
+            public DataCollection<Data<V>> getData() {
+                return processChain.getData();
+            }
+
+            @Override
+            public DataCollection< ? > getProcessedData(DataCollection<Data<V>> data) {
+                return processChain.getProcessedData(data);
+            }
+
+            @Override
+            public DataCursor<Data<V>> getDataCursor() {
+                return DataCursor.ofWindows(getDataService(), parameters, window, prefetch);
+            }
+
+            @Override
+            public boolean hasProcessingSteps() {
+                return processChain.hasProcessingSteps();
             }
         };
     }
 
+    private Period getExportWindow() {
+        if (!parameters.containsParameter(EXPORT_WINDOW)) {
+            return null;
+        }
+        String window = parameters.getAsString(EXPORT_WINDOW);
+        try {
+            Period period = Period.parse(window);
+            if (isPositive(period) && !exceedsMaxWindows(period)) {
+                return period;
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Invalid export window '{}'", window, e);
+        }
+        LOGGER.warn("Invalid parameter '{}': {}. Data is exported at once.", EXPORT_WINDOW, window);
+        return null;
+    }
+
+    private boolean exceedsMaxWindows(Period period) {
+        Interval timespan = parameters.getTimespan()
+                                      .toInterval();
+        // months and years have no standard duration, so estimate by the first window
+        long windowMillis = period.toDurationFrom(timespan.getStart())
+                                  .getMillis();
+        long windows = (timespan.toDurationMillis() + windowMillis - 1) / windowMillis;
+        if (windows > MAX_EXPORT_WINDOWS) {
+            LOGGER.debug("Export window '{}' exceeds {} windows per dataset", period, MAX_EXPORT_WINDOWS);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isPositive(Period period) {
+        // months and years have no standard duration, so check fields
+        return IntStream.of(period.getValues())
+                        .allMatch(value -> value >= 0)
+                && IntStream.of(period.getValues())
+                            .anyMatch(value -> value > 0);
+    }
+
+    public JsonIoHandler<Data<V>> createJsonHandler() {
+        return new JsonIoHandler<>(parameters, createProcessChain());
+    }
+
     boolean isAbleToCreateHandlerFor(String outputMimeType) {
         return Constants.MimeType.isKnownMimeType(outputMimeType)
                 && supportsMimeType(Constants.MimeType.toInstance(outputMimeType));
@@ -120,7 +238,8 @@ public abstract class IoHandlerFactory<P extends DatasetOutput<V>, V extends Abs
     }
 
     public Set<String> getSupportedMimeTypes() {
-        return Stream.of(Constants.MimeType.TEXT_CSV,
+        return Stream.of(Constants.MimeType.APPLICATION_JSON,
+                         Constants.MimeType.TEXT_CSV,
                          Constants.MimeType.APPLICATION_ZIP)
                      .map(Constants.MimeType::getMimeType)
                      .collect(Collectors.toSet());
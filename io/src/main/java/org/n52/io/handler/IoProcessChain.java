@@ -31,11 +31,44 @@ package org.n52.io.handler;
 import org.n52.io.response.dataset.AbstractValue;
 import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.DataCollection;
+import org.n52.series.spi.srv.DataCursor;
 
 public interface IoProcessChain<T extends Data<? extends AbstractValue<?>>> {
 
     DataCollection<T> getData();
 
-    DataCollection<?> getProcessedData();
+    /**
+     * @return the data with all processing steps (e.g. formatting) applied.
+     */
+    default DataCollection<?> getProcessedData() {
+        return getProcessedData(getData());
+    }
+
+    /**
+     * Applies the processing steps of {@link #getProcessedData()} to the given data, e.g. to a single
+     * dataset read from {@link #getDataCursor()}.
+     *
+     * @param data
+     *        the data to process
+     * @return the processed data
+     */
+    DataCollection<?> getProcessedData(DataCollection<T> data);
+
+    /**
+     * Delivers the same data as {@link #getData()}, but incrementally. The default materializes all data.
+     *
+     * @return a cursor over the data which has to be closed after use
+     */
+    default DataCursor<T> getDataCursor() {
+        return DataCursor.of(getData());
+    }
+
+    /**
+     * @return <code>true</code> if {@link #getProcessedData()} transforms the data, <code>false</code> if
+     *         it returns the data as is so that {@link #getDataCursor()} can be used instead.
+     */
+    default boolean hasProcessingSteps() {
+        return true;
+    }
 
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.series.spi.srv.DataBatch;
+import org.n52.series.spi.srv.DataCursor;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes data as JSON while reading it batch by batch from a {@link DataCursor}. The output equals the
+ * serialization of the materialized {@link Data} (or a map of dataset ids to {@link Data}), but only one
+ * batch is held in memory at a time.
+ */
+public class JsonDataWriter {
+
+    private static final String VALUES = "values";
+
+    private static final String EXTRA = "extra";
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter valueWriter;
+
+    private final ObjectWriter metadataWriter;
+
+    public JsonDataWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // values are serialized statically typed, see Data#getValues()
+        this.valueWriter = objectMapper.writerFor(AbstractValue.class)
+                                       .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.metadataWriter = objectMapper.writer()
+                                          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes all datasets as JSON object mapping dataset ids to their data.
+     *
+     * @param data
+     *        the data to write
+     * @param stream
+     *        the stream to write to
+     * @throws IOException
+     *         if writing fails
+     */
+    public void write(DataCursor< ? > data, OutputStream stream) throws IOException {
+        try (JsonGenerator generator = createGenerator(stream)) {
+            generator.writeStartObject();
+            DatasetWriter writer = new DatasetWriter(generator);
+            while (data.hasNext()) {
+                DataBatch< ? > batch = data.next();
+                if (!writer.isWriting(batch.getDatasetId())) {
+                    writer.end();
+                    generator.writeFieldName(batch.getDatasetId());
+                    writer.start(batch.getDatasetId());
+                }
+                writer.write(batch.getData());
+            }
+            writer.end();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the data of a single dataset as JSON object. Data of other datasets is skipped.
+     *
+     * @param data
+     *        the data to write
+     * @param datasetId
+     *        the dataset to write
+     * @param stream
+     *        the stream to write to
+     * @throws IOException
+     *         if writing fails
+     */
+    public void write(DataCursor< ? > data, String datasetId, OutputStream stream) throws IOException {
+        try (JsonGenerator generator = createGenerator(stream)) {
+            DatasetWriter writer = new DatasetWriter(generator);
+            while (data.hasNext()) {
+                DataBatch< ? > batch = data.next();
+                if (datasetId.equals(batch.getDatasetId())) {
+                    if (!writer.isWriting(datasetId)) {
+                        writer.start(datasetId);
+                    }
+                    writer.write(batch.getData());
+                }
+            }
+            if (writer.isWriting(datasetId)) {
+                writer.end();
+            } else {
+                generator.writeNull();
+            }
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream stream) throws IOException {
+        return objectMapper.getFactory()
+                           .createGenerator(stream, JsonEncoding.UTF8);
+    }
+
+    private final class DatasetWriter {
+
+        private final JsonGenerator generator;
+
+        private String datasetId;
+
+        private DatasetMetadata< ? > metadata;
+
+        private DatasetWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        boolean isWriting(String id) {
+            return id.equals(datasetId);
+        }
+
+        void start(String id) throws IOException {
+            datasetId = id;
+            metadata = null;
+            generator.writeStartObject();
+            generator.writeArrayFieldStart(VALUES);
+        }
+
+        void write(Data< ? > data) throws IOException {
+            if (metadata == null) {
+                metadata = data.getMetadata();
+            }
+            for (AbstractValue< ? > value : data.getValues()) {
+                valueWriter.writeValue(generator, value);
+            }
+        }
+
+        void end() throws IOException {
+            if (datasetId == null) {
+                return;
+            }
+            generator.writeEndArray();
+            if (metadata != null) {
+                generator.writeFieldName(EXTRA);
+                metadataWriter.writeValue(generator, metadata);
+            }
+            generator.writeEndObject();
+            datasetId = null;
+        }
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.series.spi.srv.DataBatch;
+import org.n52.series.spi.srv.DataCursor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes processed data as JSON. Datasets are read one after another from the process chain's
+ * {@link DataCursor}, processed and written to the stream, which is flushed after each dataset. So only one
+ * dataset is held in memory at a time and clients receive data while further datasets are retrieved.
+ * <p>
+ * The output is a JSON object mapping dataset ids to the processed data (depending on format or result time
+ * classification) unless a single dataset is requested via {@link #setDatasetId(String)}. In that case only
+ * its data is written. Processing can be switched off via {@link #setProcessing(boolean)} to write the data
+ * as retrieved.
+ * </p>
+ *
+ * @param <T>
+ *        the data type
+ */
+public class JsonIoHandler<T extends Data< ? extends AbstractValue< ? >>> extends IoHandler<T> {
+
+    private ObjectMapper objectMapper;
+
+    private String datasetId;
+
+    private boolean processing = true;
+
+    public JsonIoHandler(IoParameters parameters, IoProcessChain<T> processChain) {
+        super(parameters, processChain);
+        this.objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param datasetId
+     *        the dataset to write unwrapped, or <code>null</code> to write all datasets mapped by their ids
+     */
+    public void setDatasetId(String datasetId) {
+        this.datasetId = datasetId;
+    }
+
+    /**
+     * @param processing
+     *        <code>false</code> to write data as retrieved, even if the process chain has processing steps (e.g.
+     *        a <code>format</code> parameter). Defaults to <code>true</code>.
+     */
+    public void setProcessing(boolean processing) {
+        this.processing = processing;
+    }
+
+    @Override
+    public void writeBinary(OutputStream outputStream) throws IoHandlerException {
+        // base64 encoding applies to binary outputs only
+        try (OutputStream stream = outputStream;
+                DataCursor<T> data = getProcessChain().getDataCursor()) {
+            encodeAndWriteTo(data, stream);
+        } catch (IOException e) {
+            throw new IoHandlerException("Error handling output stream.", e);
+        }
+    }
+
+    @Override
+    protected void encodeAndWriteTo(DataCollection<T> data, OutputStream stream) throws IoHandlerException {
+        encodeAndWriteTo(DataCursor.of(data), stream);
+    }
+
+    @Override
+    protected void encodeAndWriteTo(DataCursor<T> data, OutputStream stream) throws IoHandlerException {
+        try {
+            if (!processing || !getProcessChain().hasProcessingSteps()) {
+                writeUnprocessed(data, stream);
+            } else if (datasetId == null) {
+                writeProcessed(data, stream);
+            } else {
+                writeProcessed(data, datasetId, stream);
+            }
+        } catch (IOException e) {
+            throw new IoHandlerException("Could not write data as JSON.", e);
+        }
+    }
+
+    private void writeUnprocessed(DataCursor<T> data, OutputStream stream) throws IOException {
+        JsonDataWriter writer = new JsonDataWriter(objectMapper);
+        if (datasetId == null) {
+            writer.write(data, stream);
+        } else {
+            writer.write(data, datasetId, stream);
+        }
+    }
+
+    private void writeProcessed(DataCursor<T> data, OutputStream stream) throws IOException {
+        ObjectWriter writer = createWriter();
+        try (JsonGenerator generator = createGenerator(stream)) {
+            generator.writeStartObject();
+            PeekingCursor batches = new PeekingCursor(data);
+            while (batches.hasNext()) {
+                DatasetCursor dataset = new DatasetCursor(batches);
+                for (Map.Entry<String, ? > processed : process(dataset).entrySet()) {
+                    generator.writeFieldName(processed.getKey());
+                    writer.writeValue(generator, processed.getValue());
+                }
+                generator.flush();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeProcessed(DataCursor<T> data, String id, OutputStream stream) throws IOException {
+        ObjectWriter writer = createWriter();
+        try (JsonGenerator generator = createGenerator(stream)) {
+            Object processedDataset = null;
+            PeekingCursor batches = new PeekingCursor(data);
+            while (batches.hasNext() && processedDataset == null) {
+                DatasetCursor dataset = new DatasetCursor(batches);
+                if (id.equals(dataset.getDatasetId())) {
+                    processedDataset = process(dataset).get(id);
+                } else {
+                    // skip without processing
+                    dataset.skip();
+                }
+            }
+            writer.writeValue(generator, processedDataset);
+        }
+    }
+
+    private Map<String, ? > process(DatasetCursor dataset) {
+        DataCollection<T> data = dataset.collect();
+        return getProcessChain().getProcessedData(data)
+                                .getAllSeries();
+    }
+
+    private ObjectWriter createWriter() {
+        return objectMapper.writer()
+                           .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private JsonGenerator createGenerator(OutputStream stream) throws IOException {
+        return objectMapper.getFactory()
+                           .createGenerator(stream, JsonEncoding.UTF8);
+    }
+
+    /**
+     * Allows to look at the next batch without consuming it.
+     */
+    private final class PeekingCursor {
+
+        private final DataCursor<T> cursor;
+
+        private DataBatch<T> next;
+
+        private PeekingCursor(DataCursor<T> cursor) {
+            this.cursor = cursor;
+        }
+
+        boolean hasNext() {
+            return next != null || cursor.hasNext();
+        }
+
+        DataBatch<T> peek() {
+            if (next == null) {
+                next = cursor.next();
+            }
+            return next;
+        }
+
+        DataBatch<T> next() {
+            DataBatch<T> batch = peek();
+            next = null;
+            return batch;
+        }
+    }
+
+    /**
+     * Delivers the consecutive batches of the next dataset.
+     */
+    private final class DatasetCursor implements DataCursor<T> {
+
+        private final PeekingCursor batches;
+
+        private final String id;
+
+        private DatasetCursor(PeekingCursor batches) {
+            this.batches = batches;
+            this.id = batches.peek()
+                             .getDatasetId();
+        }
+
+        String getDatasetId() {
+            return id;
+        }
+
+        void skip() {
+            while (hasNext()) {
+                next();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return batches.hasNext() && id.equals(batches.peek()
+                                                         .getDatasetId());
+        }
+
+        @Override
+        public DataBatch<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more batches available.");
+            }
+            return batches.next();
+        }
+
+        @Override
+        public void close() {
+            // underlying cursor is closed by the caller
+        }
+    }
+
+}
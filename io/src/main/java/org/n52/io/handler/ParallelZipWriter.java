@@ -0,0 +1,664 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a ZIP archive entry by entry like a {@link ZipOutputStream}, but compresses the content of an entry
+ * concurrently. The content is split into chunks of {@value #CHUNK_SIZE} bytes which get deflated on worker
+ * threads and are concatenated to a single deflate stream, each chunk using the end of the previous one as
+ * dictionary. At most <code>parallelism</code> chunks are held in memory at a time, no matter how large an
+ * entry is. A parallelism of <code>1</code> writes via {@link ZipOutputStream} on the calling thread.
+ * <p>
+ * Entries fitting into a single chunk carry CRC and sizes in their local header. They are stored uncompressed
+ * if smaller than the stored threshold or not getting smaller by compression. Larger entries are followed by
+ * a data descriptor. ZIP64 records are written in case sizes, offsets or the number of entries exceed the
+ * limits of the classic format.
+ */
+final class ParallelZipWriter extends OutputStream {
+
+    static final int CHUNK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int VERSION = 20;
+
+    private static final int VERSION_ZIP64 = 45;
+
+    // names are UTF-8 encoded
+    private static final int FLAG_UTF8 = 0x800;
+
+    // crc and sizes follow the content
+    private static final int FLAG_DATA_DESCRIPTOR = 0x8;
+
+    private static final int METHOD_STORED = 0;
+
+    private static final int METHOD_DEFLATED = 8;
+
+    private static final long MAX_UINT32 = 0xFFFFFFFFL;
+
+    private static final int MAX_UINT16 = 0xFFFF;
+
+    private final CountingOutputStream stream;
+
+    private final ZipOutputStream sequentialStream;
+
+    private final int compressionLevel;
+
+    private final int parallelism;
+
+    private final int storedThreshold;
+
+    private final Deque<PendingWrite> pending = new ArrayDeque<>();
+
+    private final List<EntryRecord> centralDirectory = new ArrayList<>();
+
+    private final Set<String> names = new HashSet<>();
+
+    private final int dosTime;
+
+    private final int dosDate;
+
+    private int compressing;
+
+    private OpenEntry entry;
+
+    private boolean closed;
+
+    /**
+     * @param stream
+     *        the stream to write the archive to
+     * @param compressionLevel
+     *        the compression level (<code>0-9</code> or {@link Deflater#DEFAULT_COMPRESSION})
+     * @param parallelism
+     *        the maximum number of chunks compressed at the same time
+     * @param storedThreshold
+     *        entries with less bytes are stored without compression, at most {@value #CHUNK_SIZE}
+     */
+    ParallelZipWriter(OutputStream stream, int compressionLevel, int parallelism, int storedThreshold) {
+        this.stream = new CountingOutputStream(new BufferedOutputStream(stream));
+        this.compressionLevel = compressionLevel;
+        this.parallelism = Math.max(1, parallelism);
+        this.storedThreshold = Math.min(storedThreshold, CHUNK_SIZE);
+        if (this.parallelism == 1) {
+            sequentialStream = new ZipOutputStream(this.stream);
+            sequentialStream.setLevel(compressionLevel);
+        } else {
+            sequentialStream = null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        this.dosTime = now.getHour() << 11 | now.getMinute() << 5 | now.getSecond() >> 1;
+        this.dosDate = Math.max(0, now.getYear() - 1980) << 9 | now.getMonthValue() << 5 | now.getDayOfMonth();
+    }
+
+    /**
+     * Begins writing a new entry, closing the current one if any. Content written to this stream until the
+     * next call of {@link #closeEntry()} belongs to the entry.
+     *
+     * @param name
+     *        the entry's name
+     * @throws IOException
+     *         if writing previous entries fails or the name is a duplicate
+     */
+    void putNextEntry(String name) throws IOException {
+        checkOpen();
+        closeEntry();
+        if (!names.add(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+        if (sequentialStream != null) {
+            sequentialStream.putNextEntry(new ZipEntry(name));
+        }
+        entry = new OpenEntry(new EntryRecord(name.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Closes the current entry. Its last chunk may still get compressed in the background.
+     *
+     * @throws IOException
+     *         if writing the archive fails
+     */
+    void closeEntry() throws IOException {
+        if (entry == null) {
+            return;
+        }
+        OpenEntry closing = entry;
+        entry = null;
+        if (sequentialStream != null) {
+            sequentialStream.closeEntry();
+            return;
+        }
+        EntryRecord record = closing.record;
+        record.crc = closing.crc.getValue();
+        record.size = closing.size;
+        if (closing.chunks == 0) {
+            addSingleChunkEntry(record,
+                                closing.buffer != null
+                                        ? closing.buffer
+                                        : new byte[0],
+                                closing.count);
+        } else {
+            submitChunk(closing, true);
+            enqueue(null, compressed -> writeDataDescriptor(record));
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {
+            (byte) b
+        }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkOpen();
+        if (entry == null) {
+            throw new ZipException("no current entry");
+        }
+        if (sequentialStream != null) {
+            sequentialStream.write(b, off, len);
+            return;
+        }
+        entry.crc.update(b, off, len);
+        entry.size += len;
+        if (entry.buffer == null) {
+            entry.buffer = new byte[CHUNK_SIZE];
+        }
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (entry.count == CHUNK_SIZE) {
+                submitChunk(entry, false);
+            }
+            int length = Math.min(remaining, CHUNK_SIZE - entry.count);
+            System.arraycopy(b, offset, entry.buffer, entry.count, length);
+            entry.count += length;
+            offset += length;
+            remaining -= length;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // chunks are written when compressed
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            closeEntry();
+            if (sequentialStream != null) {
+                sequentialStream.finish();
+            } else {
+                while (!pending.isEmpty()) {
+                    writeFirst();
+                }
+                writeCentralDirectory();
+            }
+            stream.flush();
+        } finally {
+            closed = true;
+            cancelPending();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Zip archive has been closed.");
+        }
+    }
+
+    private void addSingleChunkEntry(EntryRecord record, byte[] content, int size) throws IOException {
+        if (size < storedThreshold) {
+            enqueue(null, compressed -> writeEntry(record, METHOD_STORED, content, size));
+        } else {
+            submit(() -> deflate(content, size, null, true), compressed -> {
+                if (compressed.length < size) {
+                    writeEntry(record, METHOD_DEFLATED, compressed, compressed.length);
+                } else {
+                    // not worth compressing if it does not get smaller
+                    writeEntry(record, METHOD_STORED, content, size);
+                }
+            });
+        }
+    }
+
+    private void submitChunk(OpenEntry openEntry, boolean last) throws IOException {
+        EntryRecord record = openEntry.record;
+        if (openEntry.chunks == 0) {
+            record.method = METHOD_DEFLATED;
+            enqueue(null, compressed -> writeLocalHeader(record, FLAG_DATA_DESCRIPTOR));
+        }
+        byte[] content = openEntry.buffer;
+        int size = openEntry.count;
+        byte[] dictionary = openEntry.previous;
+        submit(() -> deflate(content, size, dictionary, last), compressed -> {
+            stream.write(compressed);
+            record.compressedSize += compressed.length;
+        });
+        openEntry.previous = content;
+        openEntry.chunks++;
+        if (!last) {
+            openEntry.buffer = new byte[CHUNK_SIZE];
+            openEntry.count = 0;
+        }
+    }
+
+    private byte[] deflate(byte[] content, int size, byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary, dictionary.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+            deflater.setInput(content, 0, size);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(size / 2 + 64);
+            byte[] buffer = new byte[16 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // ends on a byte boundary without final block, so the next chunk can be appended
+                int length;
+                do {
+                    length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, length);
+                } while (length == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void submit(Callable<byte[]> compression, ArchiveWrite write) throws IOException {
+        while (compressing >= parallelism) {
+            writeFirst();
+        }
+        compressing++;
+        enqueue(ZipPool.EXECUTOR.submit(compression), write);
+    }
+
+    private void enqueue(Future<byte[]> compression, ArchiveWrite write) throws IOException {
+        pending.addLast(new PendingWrite(compression, write));
+        while (!pending.isEmpty() && pending.peekFirst()
+                                            .isDone()) {
+            writeFirst();
+        }
+    }
+
+    private void writeFirst() throws IOException {
+        PendingWrite first = pending.removeFirst();
+        try {
+            byte[] compressed = null;
+            if (first.compression != null) {
+                compressing--;
+                compressed = getCompressed(first.compression);
+            }
+            first.write.writeTo(compressed);
+        } catch (IOException | RuntimeException e) {
+            // archive is broken, nothing left to write on close
+            closed = true;
+            cancelPending();
+            throw e;
+        }
+    }
+
+    private void cancelPending() {
+        pending.forEach(PendingWrite::cancel);
+        pending.clear();
+        compressing = 0;
+    }
+
+    private byte[] getCompressed(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new IOException("Interrupted while compressing zip entry.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not compress zip entry.", e.getCause());
+        }
+    }
+
+    private void writeEntry(EntryRecord record, int method, byte[] content, int size) throws IOException {
+        record.method = method;
+        record.compressedSize = size;
+        writeLocalHeader(record, 0);
+        stream.write(content, 0, size);
+    }
+
+    private void writeLocalHeader(EntryRecord record, int flags) throws IOException {
+        boolean descriptor = (flags & FLAG_DATA_DESCRIPTOR) != 0;
+        record.flags = flags;
+        record.offset = stream.getCount();
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(VERSION);
+        writeShort(FLAG_UTF8 | flags);
+        writeShort(record.method);
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt(descriptor
+                ? 0
+                : (int) record.crc);
+        writeInt(descriptor
+                ? 0
+                : (int) record.compressedSize);
+        writeInt(descriptor
+                ? 0
+                : (int) record.size);
+        writeShort(record.name.length);
+        writeShort(0);
+        stream.write(record.name);
+        centralDirectory.add(record);
+    }
+
+    private void writeDataDescriptor(EntryRecord record) throws IOException {
+        writeInt(DATA_DESCRIPTOR_SIGNATURE);
+        writeInt((int) record.crc);
+        if (record.hasZip64Sizes()) {
+            writeLong(record.compressedSize);
+            writeLong(record.size);
+        } else {
+            writeInt((int) record.compressedSize);
+            writeInt((int) record.size);
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long start = stream.getCount();
+        for (EntryRecord entry : centralDirectory) {
+            boolean zip64Sizes = entry.hasZip64Sizes();
+            boolean zip64Offset = entry.offset >= MAX_UINT32;
+            int extraLength = (zip64Sizes
+                    ? 16
+                    : 0)
+                    + (zip64Offset
+                            ? 8
+                            : 0);
+            boolean zip64 = extraLength > 0;
+            writeInt(CENTRAL_HEADER_SIGNATURE);
+            writeShort(zip64
+                    ? VERSION_ZIP64
+                    : VERSION);
+            writeShort(zip64
+                    ? VERSION_ZIP64
+                    : VERSION);
+            writeShort(FLAG_UTF8 | entry.flags);
+            writeShort(entry.method);
+            writeShort(dosTime);
+            writeShort(dosDate);
+            writeInt((int) entry.crc);
+            writeInt((int) (zip64Sizes
+                    ? MAX_UINT32
+                    : entry.compressedSize));
+            writeInt((int) (zip64Sizes
+                    ? MAX_UINT32
+                    : entry.size));
+            writeShort(entry.name.length);
+            writeShort(zip64
+                    ? 4 + extraLength
+                    : 0);
+            // comment length, disk number, internal and external attributes
+            writeShort(0);
+            writeShort(0);
+            writeShort(0);
+            writeInt(0);
+            writeInt((int) (zip64Offset
+                    ? MAX_UINT32
+                    : entry.offset));
+            stream.write(entry.name);
+            if (zip64) {
+                writeShort(0x0001);
+                writeShort(extraLength);
+                if (zip64Sizes) {
+                    writeLong(entry.size);
+                    writeLong(entry.compressedSize);
+                }
+                if (zip64Offset) {
+                    writeLong(entry.offset);
+                }
+            }
+        }
+        long end = stream.getCount();
+        long size = end - start;
+        int entries = centralDirectory.size();
+        if (entries >= MAX_UINT16 || start >= MAX_UINT32 || size >= MAX_UINT32) {
+            writeInt(ZIP64_END_SIGNATURE);
+            writeLong(44);
+            writeShort(VERSION_ZIP64);
+            writeShort(VERSION_ZIP64);
+            writeInt(0);
+            writeInt(0);
+            writeLong(entries);
+            writeLong(entries);
+            writeLong(size);
+            writeLong(start);
+            writeInt(ZIP64_LOCATOR_SIGNATURE);
+            writeInt(0);
+            writeLong(end);
+            writeInt(1);
+        }
+        writeInt(END_SIGNATURE);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(entries, MAX_UINT16));
+        writeShort(Math.min(entries, MAX_UINT16));
+        writeInt((int) Math.min(size, MAX_UINT32));
+        writeInt((int) Math.min(start, MAX_UINT32));
+        writeShort(0);
+    }
+
+    private void writeShort(int value) throws IOException {
+        stream.write(value & 0xFF);
+        stream.write(value >>> 8 & 0xFF);
+    }
+
+    private void writeInt(int value) throws IOException {
+        writeShort(value & 0xFFFF);
+        writeShort(value >>> 16);
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt((int) value);
+        writeInt((int) (value >>> 32));
+    }
+
+    /**
+     * Writes to the archive once the compression it waits for (if any) is done.
+     */
+    @FunctionalInterface
+    private interface ArchiveWrite {
+
+        void writeTo(byte[] compressed) throws IOException;
+    }
+
+    private static final class PendingWrite {
+
+        private final Future<byte[]> compression;
+
+        private final ArchiveWrite write;
+
+        PendingWrite(Future<byte[]> compression, ArchiveWrite write) {
+            this.compression = compression;
+            this.write = write;
+        }
+
+        boolean isDone() {
+            return compression == null || compression.isDone();
+        }
+
+        void cancel() {
+            if (compression != null) {
+                compression.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * The entry currently written, collecting content until a chunk is full.
+     */
+    private static final class OpenEntry {
+
+        private final EntryRecord record;
+
+        private final CRC32 crc = new CRC32();
+
+        private byte[] buffer;
+
+        private byte[] previous;
+
+        private int count;
+
+        private long size;
+
+        private int chunks;
+
+        OpenEntry(EntryRecord record) {
+            this.record = record;
+        }
+    }
+
+    private static final class EntryRecord {
+
+        private final byte[] name;
+
+        private int method;
+
+        private int flags;
+
+        private long crc;
+
+        private long size;
+
+        private long compressedSize;
+
+        private long offset;
+
+        EntryRecord(byte[] name) {
+            this.name = name;
+        }
+
+        boolean hasZip64Sizes() {
+            return size >= MAX_UINT32 || compressedSize >= MAX_UINT32;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+
+    /**
+     * Lazily creates the pool shared by all zip writers. Its size is bounded by the available processors.
+     */
+    private static final class ZipPool {
+
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Runtime.getRuntime()
+                                                                                            .availableProcessors(),
+                                                                                     ZipPool::createThread);
+
+        private static Thread createThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "zip-writer-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
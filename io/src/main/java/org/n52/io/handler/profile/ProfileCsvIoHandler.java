@@ -46,6 +46,7 @@ import org.n52.io.response.dataset.DatasetOutput;
 import org.n52.io.response.dataset.DatasetParameters;
 import org.n52.io.response.dataset.profile.ProfileDataItem;
 import org.n52.io.response.dataset.profile.ProfileValue;
+import org.n52.series.spi.srv.DataCursor;
 
 public class ProfileCsvIoHandler extends CsvIoHandler<ProfileValue< ? >> {
 
@@ -86,6 +87,13 @@ public class ProfileCsvIoHandler extends CsvIoHandler<ProfileValue< ? >> {
         }
     }
 
+    @Override
+    protected void encodeAndWriteTo(DataCursor<Data<ProfileValue< ? >>> data, OutputStream stream)
+            throws IoParseException {
+        // profiles are written as a whole
+        encodeAndWriteTo(data.collect(), stream);
+    }
+
     @Override
     protected String[] getHeader(DatasetOutput<ProfileValue< ? >> metadata) {
         StringBuilder metaHeader = new StringBuilder();
@@ -35,8 +35,10 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.joda.time.DateTimeZone;
 import org.locationtech.jts.geom.Geometry;
 import org.n52.io.handler.CsvIoHandler;
+import org.n52.io.handler.CsvWriter;
 import org.n52.io.handler.IoProcessChain;
 import org.n52.io.request.IoParameters;
 import org.n52.io.response.FeatureOutput;
@@ -44,6 +46,8 @@ import org.n52.io.response.dataset.AbstractValue;
 import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.DatasetOutput;
 import org.n52.io.response.dataset.DatasetParameters;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
 
 public class SimpleCsvIoHandler<T extends AbstractValue< ? >> extends CsvIoHandler<T> {
 
@@ -118,15 +122,46 @@ public class SimpleCsvIoHandler<T extends AbstractValue< ? >> extends CsvIoHandl
     @Override
     protected void writeData(DatasetOutput<T> metadata, Data<T> series, OutputStream stream)
             throws IOException {
-        int columnSize = getHeader(metadata).length;
-        String[] row = new String[columnSize];
-        for (T value : series.getValues()) {
-            row[0] = isTrajectory(metadata)
-                    ? value.getGeometry().toString()
-                    : "";
-            row[1] = parseTime(value);
-            row[2] = value.getFormattedValue();
-            writeText(csvEncode(row), stream);
+        CsvWriter writer = getCsvWriter(stream);
+        boolean trajectory = isTrajectory(metadata);
+        if (series instanceof QuantityData && !trajectory) {
+            writeColumnarData((QuantityData) series, writer);
+        } else {
+            for (T value : series.getValues()) {
+                writer.writeField(trajectory
+                        ? value.getGeometry().toString()
+                        : "");
+                writer.writeField(parseTime(value));
+                writer.writeField(value.getFormattedValue());
+                writer.endRow();
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeColumnarData(QuantityData series, CsvWriter writer) throws IOException {
+        DateTimeZone timezone = series.getTimezone();
+        boolean plainDecimals = series.getValueFormatter() == null;
+        int size = (int) series.size();
+        for (int i = 0; i < size; i++) {
+            writer.writeField("");
+            if (series.isObjectValue(i)) {
+                QuantityValue value = series.getValueAt(i);
+                writer.writeField(parseTime(value));
+                writer.writeField(value.getFormattedValue());
+            } else {
+                if (series.hasTimestart(i)) {
+                    writer.writeTimeInterval(series.getTimestart(i), series.getTimestamp(i), timezone);
+                } else {
+                    writer.writeTime(series.getTimestamp(i), timezone);
+                }
+                if (plainDecimals && !series.isScaledValue(i)) {
+                    writer.writeDecimal(series.getValue(i));
+                } else {
+                    writer.writeField(series.getFormattedValue(i));
+                }
+            }
+            writer.endRow();
         }
     }
 
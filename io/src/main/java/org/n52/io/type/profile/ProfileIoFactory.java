@@ -46,6 +46,7 @@ import org.n52.io.response.dataset.profile.ProfileValue;
 public class ProfileIoFactory extends IoHandlerFactory<ProfileDatasetOutput, ProfileValue< ? >> {
 
     private static final Constants.MimeType[] MIME_TYPES = new Constants.MimeType[] {
+        Constants.MimeType.APPLICATION_JSON,
         Constants.MimeType.TEXT_CSV,
         Constants.MimeType.APPLICATION_ZIP,
         Constants.MimeType.APPLICATION_PDF,
@@ -62,7 +63,9 @@ public class ProfileIoFactory extends IoHandlerFactory<ProfileDatasetOutput, Pro
     public IoHandler<Data<ProfileValue< ? >>> createHandler(String outputMimeType) {
         IoParameters parameters = getParameters();
         Constants.MimeType mimeType = Constants.MimeType.toInstance(outputMimeType);
-        if (mimeType == Constants.MimeType.APPLICATION_ZIP || mimeType == Constants.MimeType.TEXT_CSV) {
+        if (mimeType == Constants.MimeType.APPLICATION_JSON) {
+            return createJsonHandler();
+        } else if (mimeType == Constants.MimeType.APPLICATION_ZIP || mimeType == Constants.MimeType.TEXT_CSV) {
             ProfileCsvIoHandler handler = new ProfileCsvIoHandler(parameters, createProcessChain(), getMetadatas());
 
             boolean zipOutput = parameters.getAsBoolean(Parameters.ZIP, false);
@@ -44,6 +44,8 @@ import org.n52.io.request.Parameters;
 import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.quantity.QuantityDatasetOutput;
 import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.io.type.quantity.handler.arrow.ArrowIoHandler;
+import org.n52.io.type.quantity.handler.cbor.CborIoHandler;
 import org.n52.io.type.quantity.handler.img.ChartIoHandler;
 import org.n52.io.type.quantity.handler.img.MultipleChartsRenderer;
 import org.n52.io.type.quantity.handler.report.PDFReportGenerator;
@@ -51,6 +53,9 @@ import org.n52.io.type.quantity.handler.report.PDFReportGenerator;
 public final class QuantityIoFactory extends IoHandlerFactory<QuantityDatasetOutput, QuantityValue> {
 
     private static final Constants.MimeType[] MIME_TYPES = new Constants.MimeType[] {
+        Constants.MimeType.APPLICATION_JSON,
+        Constants.MimeType.APPLICATION_CBOR,
+        Constants.MimeType.APPLICATION_ARROW_STREAM,
         Constants.MimeType.TEXT_CSV,
         Constants.MimeType.IMAGE_PNG,
         Constants.MimeType.APPLICATION_ZIP,
@@ -73,14 +78,20 @@ public final class QuantityIoFactory extends IoHandlerFactory<QuantityDatasetOut
     public IoHandler<Data<QuantityValue>> createHandler(String outputMimeType) {
         IoParameters parameters = getParameters();
         Constants.MimeType mimeType = Constants.MimeType.toInstance(outputMimeType);
-        if (mimeType == Constants.MimeType.IMAGE_PNG) {
+        if (mimeType == Constants.MimeType.APPLICATION_JSON) {
+            return createJsonHandler();
+        } else if (mimeType == Constants.MimeType.APPLICATION_CBOR) {
+            return new CborIoHandler(parameters, createProcessChain());
+        } else if (mimeType == Constants.MimeType.APPLICATION_ARROW_STREAM) {
+            return new ArrowIoHandler(parameters, createProcessChain());
+        } else if (mimeType == Constants.MimeType.IMAGE_PNG) {
             return createMultiChartRenderer(mimeType);
         } else if (mimeType == Constants.MimeType.APPLICATION_PDF) {
             ChartIoHandler imgRenderer = createMultiChartRenderer(mimeType);
             return new PDFReportGenerator(parameters, createProcessChain(), imgRenderer);
         } else if (isCsvOutput(mimeType)) {
             CsvIoHandler<QuantityValue> handler = new SimpleCsvIoHandler<>(parameters,
-                                                                           createProcessChain(),
+                                                                           createExportProcessChain(),
                                                                            getMetadatas());
 
             boolean zipOutput = parameters.getAsBoolean(Parameters.ZIP, false);
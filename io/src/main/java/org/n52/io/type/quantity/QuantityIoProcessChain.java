@@ -38,7 +38,9 @@ import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.DataCollection;
 import org.n52.io.response.dataset.quantity.QuantityValue;
 import org.n52.io.type.quantity.format.FormatterFactory;
+import org.n52.io.type.quantity.format.TvpFormatter;
 import org.n52.io.type.quantity.generalize.GeneralizingQuantityService;
+import org.n52.series.spi.srv.DataCursor;
 import org.n52.series.spi.srv.DataService;
 
 final class QuantityIoProcessChain implements IoProcessChain<Data<QuantityValue>> {
@@ -62,19 +64,34 @@ final class QuantityIoProcessChain implements IoProcessChain<Data<QuantityValue>
     }
 
     @Override
-    public DataCollection< ? > getProcessedData() {
+    public DataCursor<Data<QuantityValue>> getDataCursor() {
+        // generalization needs complete series
+        return parameters.isGeneralize()
+                ? DataCursor.of(getData())
+                : dataService.getDataCursor(parameters);
+    }
+
+    @Override
+    public boolean hasProcessingSteps() {
+        FormatterFactory factory = FormatterFactory.createFormatterFactory(parameters);
+        return parameters.shallClassifyByResultTimes()
+                || !(factory.create() instanceof TvpFormatter);
+    }
+
+    @Override
+    public DataCollection< ? > getProcessedData(DataCollection<Data<QuantityValue>> data) {
         return parameters.shallClassifyByResultTimes()
-                ? formatAccordingToResultTimes()
-                : formatValueOutputs();
+                ? formatAccordingToResultTimes(data)
+                : formatValueOutputs(data);
     }
 
-    private DataCollection<ResultTimeClassifiedData<AbstractValue< ? >>> formatAccordingToResultTimes() {
-        return new ResultTimeFormatter<Data<QuantityValue>>().format(getData());
+    private DataCollection<ResultTimeClassifiedData<AbstractValue< ? >>> formatAccordingToResultTimes(
+            DataCollection<Data<QuantityValue>> data) {
+        return new ResultTimeFormatter<Data<QuantityValue>>().format(data);
     }
 
-    private DataCollection< ? > formatValueOutputs() {
+    private DataCollection< ? > formatValueOutputs(DataCollection<Data<QuantityValue>> data) {
         FormatterFactory factory = FormatterFactory.createFormatterFactory(parameters);
-        DataCollection<Data<QuantityValue>> data = getData();
         return factory.create()
                       .format(data);
     }
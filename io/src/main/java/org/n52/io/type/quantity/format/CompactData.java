@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.format;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Compact representation of a series. Timestamps are given relative to the <code>start</code> timestamp,
+ * either as constant <code>step</code> for regular series, or as <code>deltas</code> array holding the
+ * difference of each timestamp to its predecessor. All timestamps are milliseconds since epoch.
+ */
+public class CompactData {
+
+    private Long start;
+
+    private Long step;
+
+    private long[] deltas;
+
+    private double[] values;
+
+    private Map<String, CompactData> referenceValues;
+
+    private Number[] valueBeforeTimespan;
+
+    private Number[] valueAfterTimespan;
+
+    public CompactData() {
+        referenceValues = new HashMap<>();
+    }
+
+    public Long getStart() {
+        return start;
+    }
+
+    public void setStart(Long start) {
+        this.start = start;
+    }
+
+    public Long getStep() {
+        return step;
+    }
+
+    public void setStep(Long step) {
+        this.step = step;
+    }
+
+    public long[] getDeltas() {
+        return deltas;
+    }
+
+    public void setDeltas(long[] deltas) {
+        this.deltas = deltas;
+    }
+
+    @JsonSerialize(using = CompactValuesSerializer.class)
+    public double[] getValues() {
+        return values;
+    }
+
+    public void setValues(double[] values) {
+        this.values = values;
+    }
+
+    public Map<String, CompactData> getReferenceValues() {
+        return referenceValues;
+    }
+
+    public void setReferenceValues(Map<String, CompactData> referenceValues) {
+        this.referenceValues = referenceValues;
+    }
+
+    public void addReferenceValues(String id, CompactData toAdd) {
+        this.referenceValues.put(id, toAdd);
+    }
+
+    public Number[] getValueBeforeTimespan() {
+        return valueBeforeTimespan != null
+                ? Arrays.copyOf(valueBeforeTimespan, valueBeforeTimespan.length)
+                : null;
+    }
+
+    public void setValueBeforeTimespan(Number[] valueBeforeTimespan) {
+        this.valueBeforeTimespan = valueBeforeTimespan != null
+                ? Arrays.copyOf(valueBeforeTimespan, valueBeforeTimespan.length)
+                : null;
+    }
+
+    public Number[] getValueAfterTimespan() {
+        return valueAfterTimespan != null
+                ? Arrays.copyOf(valueAfterTimespan, valueAfterTimespan.length)
+                : null;
+    }
+
+    public void setValueAfterTimespan(Number[] valueAfterTimespan) {
+        this.valueAfterTimespan = valueAfterTimespan != null
+                ? Arrays.copyOf(valueAfterTimespan, valueAfterTimespan.length)
+                : null;
+    }
+
+}
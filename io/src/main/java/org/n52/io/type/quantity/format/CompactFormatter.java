@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.format;
+
+import java.util.Map;
+
+import org.n52.io.format.DataFormatter;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+
+/**
+ * Formats series as {@link CompactData}. Regularity of a series is detected while collecting the timestamp
+ * deltas, so each series is traversed only once.
+ */
+public class CompactFormatter implements DataFormatter<Data<QuantityValue>, CompactData> {
+
+    @Override
+    public CompactDataCollection format(DataCollection<Data<QuantityValue>> toFormat) {
+        CompactDataCollection compactDataCollection = new CompactDataCollection();
+        for (String timeseriesId : toFormat.getAllSeries().keySet()) {
+            Data<QuantityValue> seriesToFormat = toFormat.getSeries(timeseriesId);
+            CompactData series = createCompactSeries(seriesToFormat);
+            if (seriesToFormat.hasMetadata()) {
+                formatMetadata(seriesToFormat, series);
+            }
+            compactDataCollection.addNewSeries(timeseriesId, series);
+        }
+        return compactDataCollection;
+    }
+
+    private CompactData createCompactSeries(Data<QuantityValue> seriesToFormat) {
+        QuantityData data = QuantityData.of(seriesToFormat);
+        int size = (int) data.size();
+        CompactData compactSeries = new CompactData();
+        double[] values = new double[size];
+        if (size == 0) {
+            compactSeries.setValues(values);
+            return compactSeries;
+        }
+
+        long[] deltas = new long[size - 1];
+        boolean regular = true;
+        long previous = data.getTimestamp(0);
+        values[0] = data.getValue(0);
+        for (int i = 1; i < size; i++) {
+            long timestamp = data.getTimestamp(i);
+            deltas[i - 1] = timestamp - previous;
+            regular = regular && deltas[i - 1] == deltas[0];
+            previous = timestamp;
+            values[i] = data.getValue(i);
+        }
+
+        compactSeries.setStart(data.getTimestamp(0));
+        if (regular && deltas.length > 0) {
+            compactSeries.setStep(deltas[0]);
+        } else if (!regular) {
+            compactSeries.setDeltas(deltas);
+        }
+        compactSeries.setValues(values);
+        return compactSeries;
+    }
+
+    private void formatMetadata(Data<QuantityValue> seriesToFormat, CompactData compactSeries) {
+        DatasetMetadata<QuantityValue> metadata = seriesToFormat.getMetadata();
+        Map<String, Data<QuantityValue>> referenceValues = metadata.getReferenceValues();
+        for (String referenceValueId : referenceValues.keySet()) {
+            Data<QuantityValue> referenceValueData = referenceValues.get(referenceValueId);
+            compactSeries.addReferenceValues(referenceValueId, createCompactSeries(referenceValueData));
+        }
+        compactSeries.setValueBeforeTimespan(TimeValueList.toTimeValuePair(metadata.getValueBeforeTimespan()));
+        compactSeries.setValueAfterTimespan(TimeValueList.toTimeValuePair(metadata.getValueAfterTimespan()));
+    }
+
+}
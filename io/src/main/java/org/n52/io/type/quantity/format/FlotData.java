@@ -33,6 +33,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 public class FlotData {
 
     private List<Number[]> values;
@@ -47,6 +49,7 @@ public class FlotData {
         referenceValues = new HashMap<>();
     }
 
+    @JsonSerialize(using = TimeValueListSerializer.class)
     public List<Number[]> getValues() {
         return values;
     }
@@ -55,6 +58,7 @@ public class FlotData {
         this.values = values;
     }
 
+    @JsonSerialize(contentUsing = TimeValueListSerializer.class)
     public Map<String, List<Number[]>> getReferenceValues() {
         return referenceValues;
     }
@@ -28,9 +28,6 @@
  */
 package org.n52.io.type.quantity.format;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 import org.n52.io.format.DataFormatter;
@@ -54,7 +51,7 @@ public class FlotFormatter implements DataFormatter<Data<QuantityValue>, FlotDat
 
     private FlotData createFlotSeries(Data<QuantityValue> seriesToFormat) {
         FlotData flotSeries = new FlotData();
-        flotSeries.setValues(formatSeries(seriesToFormat));
+        flotSeries.setValues(TimeValueList.of(seriesToFormat));
         if (seriesToFormat.hasMetadata()) {
             formatMetadata(seriesToFormat, flotSeries);
         }
@@ -66,27 +63,14 @@ public class FlotFormatter implements DataFormatter<Data<QuantityValue>, FlotDat
         Map<String, Data<QuantityValue>> referenceValues = metadata.getReferenceValues();
         for (String referenceValueId : referenceValues.keySet()) {
             Data<QuantityValue> referenceValueData = metadata.getReferenceValues().get(referenceValueId);
-            flotSeries.addReferenceValues(referenceValueId, formatSeries(referenceValueData));
+            flotSeries.addReferenceValues(referenceValueId, TimeValueList.of(referenceValueData));
         }
         flotSeries.setValueBeforeTimespan(formatValue(metadata.getValueBeforeTimespan()));
         flotSeries.setValueAfterTimespan(formatValue(metadata.getValueAfterTimespan()));
     }
 
-    private List<Number[]> formatSeries(Data<QuantityValue> referenceValueData) {
-        List<Number[]> series = new ArrayList<>();
-        for (QuantityValue currentValue : referenceValueData.getValues()) {
-            series.add(formatValue(currentValue));
-        }
-        return series;
-    }
-
     private Number[] formatValue(QuantityValue currentValue) {
-        if (currentValue == null) {
-            return null;
-        }
-        BigDecimal value = currentValue.getValue();
-        Long timestamp = currentValue.getTimestamp().getMillis();
-        return new Number[] { timestamp, value };
+        return TimeValueList.toTimeValuePair(currentValue);
     }
 
 }
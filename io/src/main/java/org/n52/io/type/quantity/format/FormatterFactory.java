@@ -50,6 +50,8 @@ public final class FormatterFactory {
         } else if ("flotcharts".equalsIgnoreCase(format)
                 || "flot".equalsIgnoreCase(format)) {
             return new FlotFormatter();
+        } else if ("compact".equalsIgnoreCase(format)) {
+            return new CompactFormatter();
         } else {
             return new TvpFormatter();
         }
@@ -31,6 +31,8 @@ package org.n52.io.type.quantity.format;
 import java.util.Arrays;
 import java.util.List;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 public class HighchartData {
 
     private String name;
@@ -49,6 +51,7 @@ public class HighchartData {
         this.name = name;
     }
 
+    @JsonSerialize(using = TimeValueListSerializer.class)
     public List<Number[]> getData() {
         return data;
     }
@@ -28,8 +28,6 @@
  */
 package org.n52.io.type.quantity.format;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -67,28 +65,15 @@ public class HighchartFormatter implements DataFormatter<Data<QuantityValue>, Hi
     }
 
     private HighchartData createHighchartSeries(String seriesId, Data<QuantityValue> timeseriesData) {
-        List<Number[]> formattedSeries = formatSeries(timeseriesData);
+        List<Number[]> formattedSeries = TimeValueList.of(timeseriesData);
         HighchartData series = new HighchartData();
         series.setName(seriesId);
         series.setData(formattedSeries);
         return series;
     }
 
-    private List<Number[]> formatSeries(Data<QuantityValue> timeseriesData) {
-        List<Number[]> series = new ArrayList<>();
-        for (QuantityValue currentValue : timeseriesData.getValues()) {
-            series.add(formatValue(currentValue));
-        }
-        return series;
-    }
-
     private Number[] formatValue(QuantityValue currentValue) {
-        if (currentValue == null) {
-            return null;
-        }
-        Long timestamp = currentValue.getTimestamp().getMillis();
-        BigDecimal value = currentValue.getValue();
-        return new Number[] { timestamp, value };
+        return TimeValueList.toTimeValuePair(currentValue);
     }
 
 }
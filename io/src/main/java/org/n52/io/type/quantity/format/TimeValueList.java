@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.format;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.List;
+
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Read-only view of quantity data as <code>[timestamp, value]</code> pairs. Pairs are created on access
+ * only, {@link TimeValueListSerializer} writes them directly from the underlying data.
+ */
+final class TimeValueList extends AbstractList<Number[]> {
+
+    private final Data<QuantityValue> data;
+
+    private TimeValueList(Data<QuantityValue> data) {
+        this.data = data;
+    }
+
+    static TimeValueList of(Data<QuantityValue> data) {
+        return new TimeValueList(data instanceof QuantityData
+                ? data
+                : QuantityData.of(data));
+    }
+
+    static Number[] toTimeValuePair(QuantityValue value) {
+        if (value == null) {
+            return null;
+        }
+        Long timestamp = value.getTimestamp()
+                              .getMillis();
+        return new Number[] { timestamp, value.getValue() };
+    }
+
+    @Override
+    public Number[] get(int index) {
+        QuantityData columns = (QuantityData) data;
+        if (columns.isObjectValue(index)) {
+            return toTimeValuePair(columns.getValueAt(index));
+        }
+        Number value = columns.isNoDataValue(index) || columns.isScaledValue(index)
+                ? columns.getDecimalValue(index)
+                : (Number) columns.getValue(index);
+        return new Number[] { columns.getTimestamp(index), value };
+    }
+
+    @Override
+    public int size() {
+        return (int) data.size();
+    }
+
+    void writeTo(JsonGenerator generator) throws IOException {
+        QuantityData columns = (QuantityData) data;
+        int size = size();
+        generator.writeStartArray(size);
+        for (int i = 0; i < size; i++) {
+            if (columns.isObjectValue(i)) {
+                writeValue(generator, columns.getValueAt(i));
+            } else {
+                generator.writeStartArray(2);
+                generator.writeNumber(columns.getTimestamp(i));
+                if (columns.isNoDataValue(i)) {
+                    generator.writeNull();
+                } else if (columns.isScaledValue(i)) {
+                    generator.writeNumber(columns.getDecimalValue(i));
+                } else {
+                    generator.writeNumber(columns.getValue(i));
+                }
+                generator.writeEndArray();
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    static void writeTo(List<Number[]> timeValuePairs, JsonGenerator generator) throws IOException {
+        if (timeValuePairs instanceof TimeValueList) {
+            ((TimeValueList) timeValuePairs).writeTo(generator);
+            return;
+        }
+        generator.writeStartArray(timeValuePairs.size());
+        for (Number[] timeValuePair : timeValuePairs) {
+            writePair(generator, timeValuePair);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeValue(JsonGenerator generator, QuantityValue value) throws IOException {
+        writePair(generator, toTimeValuePair(value));
+    }
+
+    private static void writePair(JsonGenerator generator, Number[] timeValuePair) throws IOException {
+        if (timeValuePair == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray(timeValuePair.length);
+        for (Number number : timeValuePair) {
+            writeNumber(generator, number);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeNumber(JsonGenerator generator, Number number) throws IOException {
+        if (number == null) {
+            generator.writeNull();
+        } else if (number instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) number);
+        } else if (number instanceof Long || number instanceof Integer) {
+            generator.writeNumber(number.longValue());
+        } else {
+            generator.writeNumber(number.doubleValue());
+        }
+    }
+
+}
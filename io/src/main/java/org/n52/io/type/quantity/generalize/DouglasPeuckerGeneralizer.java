@@ -29,14 +29,12 @@
 package org.n52.io.type.quantity.generalize;
 
 import java.awt.geom.Line2D;
-import java.awt.geom.Point2D;
-import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.BitSet;
 
-import org.n52.io.TvpDataCollection;
 import org.n52.io.request.IoParameters;
 import org.n52.io.response.dataset.Data;
-import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityData;
 import org.n52.io.response.dataset.quantity.QuantityValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -120,132 +118,105 @@ public final class DouglasPeuckerGeneralizer extends Generalizer<Data<QuantityVa
     }
 
     @Override
-    public DataCollection<Data<QuantityValue>> generalize(DataCollection<Data<QuantityValue>> data)
-            throws GeneralizerException {
-        TvpDataCollection<Data<QuantityValue>> generalizedDataCollection = new TvpDataCollection<>();
-        for (String timeseriesId : data.getAllSeries().keySet()) {
-            Data<QuantityValue> timeseries = data.getSeries(timeseriesId);
-            generalizedDataCollection.addNewSeries(timeseriesId, generalize(timeseries));
-        }
-        return generalizedDataCollection;
-    }
-
-    private Data<QuantityValue> generalize(Data<QuantityValue> timeseries) throws
-            GeneralizerException {
-        QuantityValue[] originalValues = getValueArray(timeseries);
-        if ((originalValues.length < 3) || (toleranceValue <= 0)) {
+    protected Data<QuantityValue> generalizeSeries(Data<QuantityValue> timeseries) throws GeneralizerException {
+        QuantityData data = QuantityData.of(timeseries);
+        int dataLength = (int) data.size();
+        if ((dataLength < 3) || (toleranceValue <= 0)) {
             return timeseries;
         }
 
-        if ((maxEntries != -1) && (originalValues.length > maxEntries)) {
+        if ((maxEntries != -1) && (dataLength > maxEntries)) {
             throw new GeneralizerException(
                     "Maximum number of entries exceeded ("
-                    + originalValues.length + ">"
+                    + dataLength + ">"
                     + maxEntries + ")!");
         }
 
-        Data<QuantityValue> generalizedTimeseries = new Data<>(timeseries.getMetadata());
-        QuantityValue[] generalizedValues = recursiveGeneralize(timeseries);
-        generalizedTimeseries.addValues(generalizedValues);
-
-        // add first element if new list is empty
-        if (generalizedValues.length == 0/* && originalValues.length > 0*/) {
-            generalizedTimeseries.addNewValue(originalValues[0]);
-        }
-
-        // add the last one if not already contained!
-        if (generalizedValues.length > 0/* && originalValues.length > 0*/) {
-            QuantityValue lastOriginialValue = originalValues[originalValues.length - 1];
-            QuantityValue lastGeneralizedValue = generalizedValues[generalizedValues.length - 1];
-            if (!lastGeneralizedValue.getTimestamp().equals(lastOriginialValue.getTimestamp())) {
-                generalizedTimeseries.addNewValue(lastOriginialValue);
-            }
+        BitSet keptValues = generalize(data);
+        QuantityData generalizedTimeseries = data.copyEmpty(keptValues.cardinality());
+        for (int i = keptValues.nextSetBit(0); i >= 0; i = keptValues.nextSetBit(i + 1)) {
+            generalizedTimeseries.addValueOf(data, i);
         }
         return generalizedTimeseries;
     }
 
-    private QuantityValue[] getValueArray(Data<QuantityValue> timeseries) {
-        return timeseries.getValues()
-                .toArray(new QuantityValue[0]);
-    }
-
-    private QuantityValue[] recursiveGeneralize(Data<QuantityValue> timeseries) {
-        QuantityValue[] values = getValueArray(timeseries);
-        QuantityValue startValue = getFirstValue(timeseries);
-        QuantityValue endValue = getLastValue(timeseries);
-        Line2D.Double line = createTendencyLine(startValue, endValue);
-
-        // find the point of maximum distance to the line
-        int index = 0;
-        double maxDist = 0;
-        double distance;
-
-        // start and end value are not mentioned
-        for (int i = 1; i < (values.length - 1); i++) {
-            QuantityValue timeseriesValue = values[i];
-            distance = calculateDistance(line, timeseriesValue);
-            if (distance > maxDist) {
-                index = i;
-                maxDist = distance;
+    /**
+     * Splits index ranges at the value of maximum distance to the tendency line between the range's first
+     * and last value as long as this distance exceeds the {@link #toleranceValue}. Ranges are held on an
+     * explicit stack, so there is no recursion depth limit.
+     *
+     * @param data
+     *        the data to generalize
+     * @return the indices of values to keep
+     */
+    private BitSet generalize(QuantityData data) {
+        int dataLength = (int) data.size();
+        BitSet keptValues = new BitSet(dataLength);
+        keptValues.set(0, dataLength);
+
+        RangeStack ranges = new RangeStack();
+        ranges.push(0, dataLength - 1);
+        while (!ranges.isEmpty()) {
+            int to = ranges.popTo();
+            int from = ranges.popFrom();
+            double startTime = data.getTimestamp(from);
+            double startValue = data.getValue(from);
+            double endTime = data.getTimestamp(to);
+            double endValue = data.getValue(to);
+
+            // find the point of maximum distance to the line
+            int index = 0;
+            double maxDist = 0;
+
+            // start and end value are not mentioned
+            for (int i = from + 1; i < to; i++) {
+                double distance = Line2D.ptLineDist(startTime,
+                                                    startValue,
+                                                    endTime,
+                                                    endValue,
+                                                    data.getTimestamp(i),
+                                                    data.getValue(i));
+                if (distance > maxDist) {
+                    index = i;
+                    maxDist = distance;
+                }
             }
-        }
 
-        if (maxDist < toleranceValue) {
-            return getValueArray(timeseries);
-        } else {
-            // split and handle both parts separately
-            Data<QuantityValue> generalizedData = new Data<>();
-            Data<QuantityValue> firstPartToBeGeneralized = new Data<>();
-            Data<QuantityValue> restPartToBeGeneralized = new Data<>();
-            firstPartToBeGeneralized.addValues(Arrays.copyOfRange(values, 0, index));
-            restPartToBeGeneralized.addValues(Arrays.copyOfRange(values, index + 1, values.length));
-            generalizedData.addValues(recursiveGeneralize(firstPartToBeGeneralized));
-            generalizedData.addValues(recursiveGeneralize(restPartToBeGeneralized));
-            return getValueArray(generalizedData);
+            if (maxDist >= toleranceValue) {
+                // split and handle both parts separately
+                keptValues.clear(index);
+                ranges.push(from, index - 1);
+                ranges.push(index + 1, to);
+            }
         }
-
+        return keptValues;
     }
 
-    private double calculateDistance(Line2D.Double line, QuantityValue timeseriesValue) {
-        return line.ptLineDist(createPoint(timeseriesValue));
-    }
+    private static final class RangeStack {
 
-    private Point2D.Double createPoint(QuantityValue timeseriesValue) {
-        Long timestamp = timeseriesValue.getTimestamp().getMillis();
-        BigDecimal value = timeseriesValue.getValue();
+        private int[] ranges = new int[32];
 
-        Point2D.Double p = new Point2D.Double();
-        p.setLocation(timestamp, value.doubleValue());
-        return p;
-    }
+        private int size;
 
-    private Line2D.Double createTendencyLine(QuantityValue start, QuantityValue end) {
-        Long startTime = start.getTimestamp().getMillis();
-        BigDecimal startValue = start.getValue();
-        Long endTime = end.getTimestamp().getMillis();
-        BigDecimal endValue = end.getValue();
-        return new Line2D.Double(startTime, startValue.doubleValue(), endTime, endValue.doubleValue());
-    }
+        void push(int from, int to) {
+            if (size + 2 > ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[size++] = from;
+            ranges[size++] = to;
+        }
 
-    private QuantityValue getFirstValue(Data<QuantityValue> timeseries) {
-        QuantityValue[] values = getValueArray(timeseries);
-        if ((values == null) || (values.length == 0)) {
-            throwNewMustNotBeEmptyException();
+        int popTo() {
+            return ranges[--size];
         }
-        return values[0];
-    }
 
-    private QuantityValue getLastValue(Data<QuantityValue> timeseries) {
-        QuantityValue[] values = getValueArray(timeseries);
-        if ((values == null) || (values.length == 0)) {
-            throwNewMustNotBeEmptyException();
-            return null;
+        int popFrom() {
+            return ranges[--size];
         }
-        return values[values.length - 1];
-    }
 
-    private void throwNewMustNotBeEmptyException() throws IllegalArgumentException {
-        throw new IllegalArgumentException("Timeseries must not be empty.");
+        boolean isEmpty() {
+            return size == 0;
+        }
     }
 
 }
@@ -29,19 +29,123 @@
 
 package org.n52.io.type.quantity.generalize;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import org.n52.io.TvpDataCollection;
 import org.n52.io.request.IoParameters;
 import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.DataCollection;
 
+/**
+ * Generalizes each series of a data collection. Collections holding at least
+ * {@value #DEFAULT_PARALLELISM_THRESHOLD} values (configurable via {@value #PARALLELISM_THRESHOLD}) are
+ * generalized in parallel on a dedicated fork-join pool, so large requests do not occupy the common pool.
+ *
+ * @param <T>
+ *        the data type.
+ */
 public abstract class Generalizer<T extends Data< ? >> {
 
+    /**
+     * Config-key for the minimum amount of values of a data collection to generalize its series in parallel.
+     * A negative value disables parallel generalization.
+     */
+    public static final String PARALLELISM_THRESHOLD = "generalizing_parallelism_threshold";
+
+    public static final int DEFAULT_PARALLELISM_THRESHOLD = 10_000;
+
     private IoParameters parameters;
 
     public Generalizer(IoParameters parameters) {
         this.parameters = parameters;
     }
 
-    public abstract DataCollection<T> generalize(DataCollection<T> data) throws GeneralizerException;
+    /**
+     * Generalizes all series of the given collection.
+     *
+     * @param data
+     *        the data to generalize.
+     * @return a new collection holding the generalized series.
+     * @throws GeneralizerException
+     *         if generalizing a series fails.
+     */
+    public DataCollection<T> generalize(DataCollection<T> data) throws GeneralizerException {
+        List<Entry<String, T>> allSeries = new ArrayList<>(data.getAllSeries()
+                                                               .entrySet());
+        List<T> generalizedSeries = isParallel(allSeries)
+                ? generalizeParallel(allSeries)
+                : generalizeSequential(allSeries);
+
+        TvpDataCollection<T> generalizedDataCollection = new TvpDataCollection<>();
+        for (int i = 0; i < allSeries.size(); i++) {
+            String seriesId = allSeries.get(i)
+                                       .getKey();
+            generalizedDataCollection.addNewSeries(seriesId, generalizedSeries.get(i));
+        }
+        return generalizedDataCollection;
+    }
+
+    /**
+     * Generalizes a single series. Implementations are called concurrently for different series of the same
+     * collection and must not share mutable state between calls.
+     *
+     * @param series
+     *        the series to generalize.
+     * @return the generalized series.
+     * @throws GeneralizerException
+     *         if generalizing fails.
+     */
+    protected abstract T generalizeSeries(T series) throws GeneralizerException;
+
+    private boolean isParallel(List<Entry<String, T>> allSeries) {
+        int threshold = getParameters().getAsInteger(PARALLELISM_THRESHOLD, DEFAULT_PARALLELISM_THRESHOLD);
+        if (threshold < 0 || allSeries.size() < 2) {
+            return false;
+        }
+        long valueCount = 0;
+        for (Entry<String, T> series : allSeries) {
+            valueCount += series.getValue()
+                                .size();
+        }
+        return valueCount >= threshold;
+    }
+
+    private List<T> generalizeSequential(List<Entry<String, T>> allSeries) throws GeneralizerException {
+        List<T> generalizedSeries = new ArrayList<>(allSeries.size());
+        for (Entry<String, T> series : allSeries) {
+            generalizedSeries.add(generalizeSeries(series.getValue()));
+        }
+        return generalizedSeries;
+    }
+
+    private List<T> generalizeParallel(List<Entry<String, T>> allSeries) throws GeneralizerException {
+        List<T> generalizedSeries = new ArrayList<>(allSeries.size());
+        for (int i = 0; i < allSeries.size(); i++) {
+            generalizedSeries.add(null);
+        }
+        try {
+            GeneralizerPool.POOL.invoke(new GeneralizeTask(allSeries, generalizedSeries, 0, allSeries.size()));
+            return generalizedSeries;
+        } catch (RuntimeException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private RuntimeException unwrap(RuntimeException e) throws GeneralizerException {
+        Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof GeneralizerException) {
+                throw (GeneralizerException) cause;
+            }
+            cause = cause.getCause();
+        }
+        return e;
+    }
 
     public IoParameters getParameters() {
         return parameters == null
@@ -51,4 +155,61 @@ public abstract class Generalizer<T extends Data< ? >> {
 
     public abstract String getName();
 
+    private final class GeneralizeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 5315591880326036458L;
+
+        private final transient List<Entry<String, T>> allSeries;
+
+        private final transient List<T> generalizedSeries;
+
+        private final int from;
+
+        private final int to;
+
+        GeneralizeTask(List<Entry<String, T>> allSeries, List<T> generalizedSeries, int from, int to) {
+            this.allSeries = allSeries;
+            this.generalizedSeries = generalizedSeries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    T series = allSeries.get(from)
+                                        .getValue();
+                    generalizedSeries.set(from, generalizeSeries(series));
+                } catch (GeneralizerException e) {
+                    throw new IllegalStateException("Could not generalize series.", e);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GeneralizeTask(allSeries, generalizedSeries, from, middle),
+                          new GeneralizeTask(allSeries, generalizedSeries, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Lazily creates the pool shared by all generalizers. Its parallelism is bounded by the available
+     * processors.
+     */
+    private static final class GeneralizerPool {
+
+        private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime()
+                                                                         .availableProcessors(),
+                                                                  GeneralizerPool::createThread,
+                                                                  null,
+                                                                  false);
+
+        private static ForkJoinWorkerThread createThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("generalizer-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
 }
@@ -44,6 +44,8 @@ public class GeneralizerFactory {
 
     private static final String DOUGLAS_PEUCKER = "DP";
 
+    private static final String MIN_MAX = "M4";
+
     public static final Generalizer<Data<QuantityValue>> createGeneralizer(IoParameters parameters) {
 
         if (!parameters.isGeneralize()) {
@@ -59,6 +61,8 @@ public class GeneralizerFactory {
             generalizer = new LargestTriangleThreeBucketsGeneralizer(parameters);
         } else if (DOUGLAS_PEUCKER.equalsIgnoreCase(algorithm)) {
             generalizer = new DouglasPeuckerGeneralizer(parameters);
+        } else if (MIN_MAX.equalsIgnoreCase(algorithm)) {
+            generalizer = new MinMaxGeneralizer(parameters);
         } else {
             LOG.info("No generalizing algorithm found for code: {}.", algorithm);
             generalizer = new NoActionGeneralizer(parameters);
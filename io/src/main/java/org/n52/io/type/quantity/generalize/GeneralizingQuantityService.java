@@ -28,9 +28,13 @@
  */
 package org.n52.io.type.quantity.generalize;
 
+import java.util.Map.Entry;
+
+import org.n52.io.TvpDataCollection;
 import org.n52.io.request.IoParameters;
 import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityData;
 import org.n52.io.response.dataset.quantity.QuantityValue;
 import org.n52.series.spi.srv.DataService;
 import org.n52.series.spi.srv.RawDataService;
@@ -53,7 +57,7 @@ public class GeneralizingQuantityService implements DataService<Data<QuantityVal
     @Override
     public DataCollection<Data<QuantityValue>> getData(IoParameters parameters) {
         DataCollection<Data<QuantityValue>> data = composedService.getData(parameters);
-        DataCollection<Data<QuantityValue>> ungeneralizedData = data;
+        DataCollection<Data<QuantityValue>> ungeneralizedData = toColumnarData(data);
         try {
             Generalizer<Data<QuantityValue>> generalizer = GeneralizerFactory.createGeneralizer(parameters);
             DataCollection<Data<QuantityValue>> generalizedData = generalizer.generalize(ungeneralizedData);
@@ -67,6 +71,16 @@ public class GeneralizingQuantityService implements DataService<Data<QuantityVal
         }
     }
 
+    private DataCollection<Data<QuantityValue>> toColumnarData(DataCollection<Data<QuantityValue>> data) {
+        // generalizers and formatters work on columns, so object values are not needed anymore
+        TvpDataCollection<Data<QuantityValue>> columnarData = new TvpDataCollection<>();
+        for (Entry<String, Data<QuantityValue>> entry : data.getAllSeries()
+                                                             .entrySet()) {
+            columnarData.addNewSeries(entry.getKey(), QuantityData.of(entry.getValue()));
+        }
+        return columnarData;
+    }
+
     private void logGeneralizationAmount(DataCollection<Data<QuantityValue>> ungeneralizedData,
                                          DataCollection<Data<QuantityValue>> generalizedData) {
         for (String timeseriesId : ungeneralizedData.getAllSeries()
@@ -28,16 +28,9 @@
  */
 package org.n52.io.type.quantity.generalize;
 
-import java.math.BigDecimal;
-import java.math.MathContext;
-
-import org.joda.time.DateTime;
-import org.n52.io.TvpDataCollection;
 import org.n52.io.request.IoParameters;
-import org.n52.io.response.TimeOutput;
 import org.n52.io.response.dataset.Data;
-import org.n52.io.response.dataset.DataCollection;
-import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.io.response.dataset.quantity.QuantityData;
 import org.n52.io.response.dataset.quantity.QuantityValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,37 +77,29 @@ public class LargestTriangleThreeBucketsGeneralizer extends Generalizer<Data<Qua
     }
 
     @Override
-    public DataCollection<Data<QuantityValue>> generalize(
-            DataCollection<Data<QuantityValue>> data) throws GeneralizerException {
-        TvpDataCollection<Data<QuantityValue>> generalizedDataCollection = new TvpDataCollection<>();
-        for (String timeseriesId : data.getAllSeries().keySet()) {
-            Data<QuantityValue> timeseries = data.getSeries(timeseriesId);
-            Data<QuantityValue> generalizedTimeseries = generalize(timeseries);
-            generalizedDataCollection.addNewSeries(timeseriesId, generalizedTimeseries);
-        }
-        return generalizedDataCollection;
-    }
+    protected Data<QuantityValue> generalizeSeries(Data<QuantityValue> timeseries) {
+        QuantityData data = QuantityData.of(timeseries);
 
-    private Data<QuantityValue> generalize(Data<QuantityValue> timeseries) {
-        QuantityValue[] data = timeseries.getValues().toArray(new QuantityValue[0]);
-
-        int dataLength = data.length;
+        int dataLength = (int) data.size();
         if ((maxOutputValues >= dataLength) || (maxOutputValues == 0)) {
             // nothing to do
             return timeseries;
         }
-        return generalizeData(data, timeseries.getMetadata());
+        return generalizeData(data);
     }
 
-    private Data<QuantityValue> generalizeData(final QuantityValue[] data,
-                                               final DatasetMetadata<QuantityValue> metadata) {
-        final int dataLength = data.length;
+    private QuantityData generalizeData(final QuantityData data) {
+        final int dataLength = (int) data.size();
         // Bucket size. Leave room for start and end data points
         double bucketSize = ((double) dataLength - 2) / (maxOutputValues - 2);
 
         int pointIndex = 0;
-        Data<QuantityValue> sampled = new Data<>(metadata);
-        sampled.addNewValue(data[pointIndex]);
+        QuantityData sampled = data.copyEmpty((int) maxOutputValues);
+        sampled.addValueOf(data, pointIndex);
+
+        // next bucket's average gets the current bucket's average of the next iteration
+        BucketAverage currentBucket = new BucketAverage();
+        BucketAverage nextBucket = new BucketAverage();
 
         for (int bucketIndex = 0; bucketIndex < (maxOutputValues - 2);
                 bucketIndex++) {
@@ -124,65 +109,70 @@ public class LargestTriangleThreeBucketsGeneralizer extends Generalizer<Data<Qua
             int rangeTo = (int) Math.floor((bucketIndex + 1) * bucketSize) + 1;
 
             // first point of triangle
-            QuantityValue triangleLeft = data[pointIndex];
-            if (triangleLeft.isNoDataValue()) {
-                addNodataValue(sampled, triangleLeft.getTimestamp());
+            if (data.isNoDataValue(pointIndex)) {
+                sampled.addNoDataValue(data.getTimestamp(pointIndex));
                 pointIndex = rangeTo - 1;
                 continue;
             }
+            double leftTimestamp = data.getTimestamp(pointIndex);
+            double leftValue = data.getValue(pointIndex);
+
+            // fallback value
+            if (nextBucket.bucketIndex == bucketIndex) {
+                BucketAverage swap = currentBucket;
+                currentBucket = nextBucket;
+                nextBucket = swap;
+            } else {
+                calculateBucketAverage(currentBucket, bucketIndex, bucketSize, data);
+            }
 
             // last point of triangle (next bucket's average)
-            BucketAverage triangleRight = calculateBucketAverage(bucketIndex + 1,
-                    bucketSize, data);
-
-            // init fallback value
-            BucketAverage avgCurrentBucket = calculateBucketAverage(bucketIndex, bucketSize, data);
-            long fallBackTimestamp = avgCurrentBucket.toTimeseriesValue().getTimestamp().getMillis();
-            QuantityValue maxAreaPoint = createQuantityValue(fallBackTimestamp, triangleLeft.getTimestamp());
+            calculateBucketAverage(nextBucket, bucketIndex + 1, bucketSize, data);
 
-            double area;
             int amountOfNodataValues = 0;
-            double maxArea = area = -1;
+            boolean exceededGapThreshold = false;
+            double maxArea = -1;
+            int maxAreaIndex = -1;
             int nextPointIndex = 0;
 
             for (; rangeOff < rangeTo; rangeOff++) {
-
-                //if (triangleRight.isNoDataBucket()) {
-                //  triangleRight = // TODO
-                //}
                 // calculate triangle area over three buckets
-                final QuantityValue triangleMiddle = data[rangeOff];
-
-                if (triangleMiddle.isNoDataValue()) {
+                if (data.isNoDataValue(rangeOff)) {
                     amountOfNodataValues++;
                     if (isExceededGapThreshold(amountOfNodataValues, bucketSize)) {
-                        if (triangleMiddle.isNoDataValue()) {
-                            maxAreaPoint = avgCurrentBucket.toTimeseriesValue();
-                            LOGGER.debug("No data value for bucket {}.",
-                                    bucketIndex);
-                            pointIndex = rangeTo - 1;
-                            break;
-                        }
+                        LOGGER.debug("No data value for bucket {}.", bucketIndex);
+                        exceededGapThreshold = true;
+                        break;
                     }
                 } else {
-                    area = calcTriangleArea(triangleLeft, triangleRight,
-                            triangleMiddle);
+                    double area = calcTriangleArea(leftTimestamp,
+                                                   leftValue,
+                                                   nextBucket.timestamp,
+                                                   nextBucket.value,
+                                                   data.getTimestamp(rangeOff),
+                                                   data.getValue(rangeOff));
                     if (area > maxArea) {
                         maxArea = area;
-                        maxAreaPoint = triangleMiddle;
+                        maxAreaIndex = rangeOff;
                         nextPointIndex = rangeOff;
                     }
                 }
             }
 
             // Pick this point from the Bucket
-            sampled.addNewValue(maxAreaPoint);
+            if (exceededGapThreshold) {
+                sampled.addValue((long) currentBucket.timestamp, currentBucket.value);
+            } else if (maxAreaIndex >= 0) {
+                sampled.addValueOf(data, maxAreaIndex);
+            } else {
+                sampled.addNoDataValue((long) currentBucket.timestamp);
+            }
             // This a is the next a
             pointIndex = nextPointIndex;
         }
 
         // Always add last value
-        sampled.addNewValue(data[dataLength - 1]);
+        sampled.addValueOf(data, dataLength - 1);
         return sampled;
     }
 
@@ -195,87 +185,56 @@ public class LargestTriangleThreeBucketsGeneralizer extends Generalizer<Data<Qua
                 : amountOfNodataValues > noDataGapThreshold;
     }
 
-    private void addNodataValue(Data<QuantityValue> sampled, TimeOutput timeOutput) {
-        sampled.addNewValue(createQuantityValue(timeOutput));
+    private static double calcTriangleArea(double leftTimestamp, double leftValue,
+            double rightTimestamp, double rightValue,
+            double middleTimestamp, double middleValue) {
+        return Math.abs(((leftTimestamp - rightTimestamp)
+                * (middleValue - leftValue))
+                - ((leftTimestamp - middleTimestamp)
+                * (rightValue - leftValue))) * 0.5;
     }
 
-    private static double calcTriangleArea(QuantityValue left,
-            BucketAverage right, QuantityValue middle) {
-        BigDecimal middleValue = middle.getValue();
-        final BigDecimal leftValue = left.getValue();
-        final BigDecimal rightValue = right.value;
-        return Math.abs(((left.getTimestamp().getMillis() - right.timestamp)
-                * (middleValue.subtract(leftValue).doubleValue()))
-                - ((left.getTimestamp().getMillis() - middle.getTimestamp().getMillis())
-                * (rightValue.subtract(leftValue).doubleValue()))) * 0.5;
-    }
+    private void calculateBucketAverage(BucketAverage average, int bucketIndex,
+            double bucketSize, QuantityData data) {
 
-    private BucketAverage calculateBucketAverage(int bucketIndex,
-            double bucketSize, QuantityValue[] data) {
-
-        int dataLength = data.length;
+        int dataLength = (int) data.size();
         int avgRangeStart = (int) Math.floor((bucketIndex + 0) * bucketSize) + 1;
         int avgRangeEnd = (int) Math.floor((bucketIndex + 1) * bucketSize) + 1;
         avgRangeEnd = avgRangeEnd < dataLength ? avgRangeEnd : dataLength;
         double avgRangeLength = avgRangeEnd - avgRangeStart;
 
-        Double avgTimestamp = 0d;
-        BigDecimal avgValue = BigDecimal.ZERO;
+        double avgTimestamp = 0d;
+        double avgValue = 0d;
         int amountOfNodataValues = 0;
         boolean noDataThresholdExceeded = false;
-        boolean unixTime = false;
         for (; avgRangeStart < avgRangeEnd; avgRangeStart++) {
-            final QuantityValue current = data[avgRangeStart];
-            avgTimestamp += current.getTimestamp().getMillis();
-            unixTime = current.getTimestamp().isUnixTime();
+            avgTimestamp += data.getTimestamp(avgRangeStart);
             if (noDataThresholdExceeded) {
                 // keep on calc avg timestamp
                 continue;
             }
-            if (current.isNoDataValue()) {
+            if (data.isNoDataValue(avgRangeStart)) {
                 amountOfNodataValues++;
                 if (amountOfNodataValues == noDataGapThreshold) {
                     noDataThresholdExceeded = true;
                 }
             } else {
-                avgValue = avgValue.add(current.getValue());
+                avgValue += data.getValue(avgRangeStart);
             }
         }
 
-        avgTimestamp /= avgRangeLength;
-        avgValue = avgValue.divide(BigDecimal.valueOf(avgRangeLength), MathContext.DECIMAL128);
-        return new BucketAverage(avgTimestamp, avgValue, unixTime);
+        average.bucketIndex = bucketIndex;
+        average.timestamp = avgTimestamp / avgRangeLength;
+        average.value = avgValue / avgRangeLength;
     }
 
-    private QuantityValue createQuantityValue(TimeOutput timeOutput) {
-        QuantityValue value = new QuantityValue();
-        value.setTimestamp(timeOutput);
-        return value;
-    }
+    private static final class BucketAverage {
 
-    private QuantityValue createQuantityValue(long fallBackTimestamp, TimeOutput timestamp) {
-        QuantityValue value = new QuantityValue();
-        value.setTimestamp(new TimeOutput(new DateTime(fallBackTimestamp), timestamp.isUnixTime()));
-        return value;
-    }
-
-    private static class BucketAverage {
+        private int bucketIndex = -1;
 
-        private final Double timestamp;
-        private final BigDecimal value;
-        private final boolean unixTime;
+        private double timestamp;
 
-        BucketAverage(Double timestamp, BigDecimal value, boolean unixTime) {
-            this.timestamp = timestamp;
-            this.value = value;
-            this.unixTime = unixTime;
-        }
+        private double value;
 
-        QuantityValue toTimeseriesValue() {
-            QuantityValue quantity = new QuantityValue();
-            quantity.setTimestamp(new TimeOutput(new DateTime(timestamp.longValue()), unixTime));
-            quantity.setValue(value);
-            return quantity;
-        }
     }
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.generalize;
+
+import org.joda.time.Interval;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pixel-aware generalizer keeping first, last, minimum and maximum value of each pixel column (M4
+ * aggregation). Columns are derived from the requested timespan and chart width, so a line drawn from the
+ * generalized values is the same as one drawn from all values. A pixel column containing no data values
+ * keeps its first no data value as well, so gaps remain visible.
+ *
+ * @see <a href="http://www.vldb.org/pvldb/vol7/p797-jugel.pdf">M4: A Visualization-Oriented Time Series
+ *      Data Aggregation</a>
+ */
+public class MinMaxGeneralizer extends Generalizer<Data<QuantityValue>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MinMaxGeneralizer.class);
+
+    private static final int VALUES_PER_COLUMN = 4;
+
+    private final int width;
+
+    private final Interval timespan;
+
+    public MinMaxGeneralizer(IoParameters parameters) {
+        super(parameters);
+        this.width = getParameters().getWidth();
+        this.timespan = getParameters().getTimespan()
+                                       .toInterval();
+    }
+
+    @Override
+    public String getName() {
+        return "MinMax";
+    }
+
+    /**
+     * Generalizes a single series to at most four values per pixel column (five, if the column contains a no
+     * data value).
+     *
+     * @param timeseries
+     *        the series to generalize.
+     * @return the generalized series, or the series itself if it has not more values than could be drawn.
+     */
+    @Override
+    public Data<QuantityValue> generalizeSeries(Data<QuantityValue> timeseries) {
+        if (width <= 0 || timeseries.size() <= (long) VALUES_PER_COLUMN * width) {
+            // nothing to do
+            return timeseries;
+        }
+        QuantityData data = QuantityData.of(timeseries);
+        QuantityData generalized = generalizeData(data);
+        LOGGER.trace("Generalized to {} pixel columns (#{} --> #{}).", width, data.size(), generalized.size());
+        return generalized;
+    }
+
+    private QuantityData generalizeData(QuantityData data) {
+        int dataLength = (int) data.size();
+        long start = timespan.getStartMillis();
+        double columnDuration = Math.max(timespan.toDurationMillis(), 1L) / (double) width;
+
+        QuantityData generalized = data.copyEmpty(VALUES_PER_COLUMN * width);
+        PixelColumn column = new PixelColumn();
+        for (int i = 0; i < dataLength; i++) {
+            int columnIndex = toColumnIndex(data.getTimestamp(i), start, columnDuration);
+            if (columnIndex != column.index) {
+                column.addTo(generalized, data);
+                column.reset(columnIndex);
+            }
+            column.update(data, i);
+        }
+        column.addTo(generalized, data);
+        return generalized;
+    }
+
+    private int toColumnIndex(long timestamp, long start, double columnDuration) {
+        // values outside the timespan fall into the outer columns
+        int columnIndex = (int) Math.floor((timestamp - start) / columnDuration);
+        return Math.min(Math.max(columnIndex, 0), width - 1);
+    }
+
+    private static final class PixelColumn {
+
+        private final int[] keptIndices = new int[VALUES_PER_COLUMN + 1];
+
+        private int index = -1;
+
+        private int first = -1;
+
+        private int last = -1;
+
+        private int min = -1;
+
+        private int max = -1;
+
+        private int noData = -1;
+
+        private void reset(int columnIndex) {
+            index = columnIndex;
+            first = -1;
+            last = -1;
+            min = -1;
+            max = -1;
+            noData = -1;
+        }
+
+        private void update(QuantityData data, int valueIndex) {
+            if (data.isNoDataValue(valueIndex)) {
+                if (noData < 0) {
+                    noData = valueIndex;
+                }
+                return;
+            }
+            double value = data.getValue(valueIndex);
+            if (first < 0) {
+                first = valueIndex;
+                min = valueIndex;
+                max = valueIndex;
+            } else if (value < data.getValue(min)) {
+                min = valueIndex;
+            } else if (value > data.getValue(max)) {
+                max = valueIndex;
+            }
+            last = valueIndex;
+        }
+
+        private void addTo(QuantityData generalized, QuantityData data) {
+            int count = 0;
+            count = keep(first, count);
+            count = keep(min, count);
+            count = keep(max, count);
+            count = keep(last, count);
+            count = keep(noData, count);
+            for (int i = 0; i < count; i++) {
+                generalized.addValueOf(data, keptIndices[i]);
+            }
+        }
+
+        private int keep(int valueIndex, int count) {
+            if (valueIndex < 0) {
+                return count;
+            }
+            // insertion sort keeps the original order and skips duplicates
+            int position = count;
+            while (position > 0 && keptIndices[position - 1] >= valueIndex) {
+                if (keptIndices[position - 1] == valueIndex) {
+                    return count;
+                }
+                position--;
+            }
+            System.arraycopy(keptIndices, position, keptIndices, position + 1, count - position);
+            keptIndices[position] = valueIndex;
+            return count + 1;
+        }
+    }
+
+}
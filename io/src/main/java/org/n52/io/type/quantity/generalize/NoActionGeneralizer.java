@@ -50,4 +50,9 @@ public class NoActionGeneralizer extends Generalizer<Data<QuantityValue>> {
         return data;
     }
 
+    @Override
+    protected Data<QuantityValue> generalizeSeries(Data<QuantityValue> series) {
+        return series;
+    }
+
 }
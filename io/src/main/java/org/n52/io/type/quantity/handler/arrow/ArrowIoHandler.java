@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.handler.arrow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.n52.io.handler.IoHandler;
+import org.n52.io.handler.IoHandlerException;
+import org.n52.io.handler.IoProcessChain;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.series.spi.srv.DataBatch;
+import org.n52.series.spi.srv.DataCursor;
+
+/**
+ * Writes quantity data as <a href="https://arrow.apache.org/docs/format/Columnar.html">Arrow IPC stream</a>
+ * (<code>application/vnd.apache.arrow.stream</code>). The stream has the following columns:
+ * <ul>
+ * <li><code>dataset</code>: the dataset id (dictionary encoded)</li>
+ * <li><code>timestamp</code>: milliseconds since epoch (UTC), the end of the interval in case values are
+ * valid for a time interval</li>
+ * <li><code>value</code>: the value as double, <code>null</code> for no data values</li>
+ * <li><code>timestart</code>: milliseconds since epoch (UTC) the value's interval starts, only present when
+ * time intervals shall be shown</li>
+ * </ul>
+ * Each batch read from the process chain's {@link DataCursor} is written as record batch of its own, so the
+ * data is never held completely in memory.
+ */
+public class ArrowIoHandler extends IoHandler<Data<QuantityValue>> {
+
+    public ArrowIoHandler(IoParameters parameters, IoProcessChain<Data<QuantityValue>> processChain) {
+        super(parameters, processChain);
+    }
+
+    @Override
+    protected void encodeAndWriteTo(DataCollection<Data<QuantityValue>> data, OutputStream stream)
+            throws IoHandlerException {
+        encodeAndWriteTo(DataCursor.of(data), stream);
+    }
+
+    @Override
+    protected void encodeAndWriteTo(DataCursor<Data<QuantityValue>> data, OutputStream stream)
+            throws IoHandlerException {
+        try {
+            ArrowStreamWriter writer = new ArrowStreamWriter(stream, getParameters().isShowTimeIntervals());
+            writer.writeSchema();
+            DatasetDictionary dictionary = new DatasetDictionary(writer);
+            dictionary.addAll(new ArrayList<>(getParameters().getDatasets()));
+            while (data.hasNext()) {
+                DataBatch<Data<QuantityValue>> batch = data.next();
+                QuantityData quantityData = QuantityData.of(batch.getData());
+                if (quantityData.size() > 0) {
+                    int datasetIndex = dictionary.indexOf(batch.getDatasetId());
+                    writer.writeRecordBatch(datasetIndex, quantityData);
+                    stream.flush();
+                }
+            }
+            writer.writeEndOfStream();
+            stream.flush();
+        } catch (IOException e) {
+            throw new IoHandlerException("Could not write data as Arrow stream.", e);
+        }
+    }
+
+    /**
+     * Keeps track of the dataset ids already written to the dictionary. Ids not known in advance (i.e. not
+     * contained in the request parameters) are written as dictionary delta before first used.
+     */
+    private static final class DatasetDictionary {
+
+        private final ArrowStreamWriter writer;
+
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        private boolean written;
+
+        private DatasetDictionary(ArrowStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        void addAll(List<String> datasetIds) throws IOException {
+            for (String datasetId : datasetIds) {
+                indices.put(datasetId, indices.size());
+            }
+            writer.writeDictionary(datasetIds, written);
+            written = true;
+        }
+
+        int indexOf(String datasetId) throws IOException {
+            if (!indices.containsKey(datasetId)) {
+                List<String> unknownId = new ArrayList<>();
+                unknownId.add(datasetId);
+                addAll(unknownId);
+            }
+            return indices.get(datasetId);
+        }
+    }
+
+}
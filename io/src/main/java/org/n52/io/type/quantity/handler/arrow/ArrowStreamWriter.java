@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.handler.arrow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.DictionaryBatch;
+import org.apache.arrow.flatbuf.DictionaryEncoding;
+import org.apache.arrow.flatbuf.DictionaryKind;
+import org.apache.arrow.flatbuf.Endianness;
+import org.apache.arrow.flatbuf.Field;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.FloatingPoint;
+import org.apache.arrow.flatbuf.Int;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.flatbuf.MetadataVersion;
+import org.apache.arrow.flatbuf.Precision;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.flatbuf.Schema;
+import org.apache.arrow.flatbuf.TimeUnit;
+import org.apache.arrow.flatbuf.Timestamp;
+import org.apache.arrow.flatbuf.Type;
+import org.apache.arrow.flatbuf.Utf8;
+import org.n52.io.response.dataset.quantity.QuantityData;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+/**
+ * Encodes quantity data as <a href="https://arrow.apache.org/docs/format/Columnar.html">Arrow IPC stream</a>.
+ * Message metadata is built with the Arrow flatbuffer classes, the buffers of each record batch are written
+ * directly from the {@link QuantityData} columns.
+ */
+final class ArrowStreamWriter {
+
+    static final String DATASET = "dataset";
+
+    static final String TIMESTAMP = "timestamp";
+
+    static final String VALUE = "value";
+
+    static final String TIMESTART = "timestart";
+
+    static final long DATASET_DICTIONARY_ID = 0L;
+
+    // message framing introduced with Arrow 0.15
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+
+    private static final int ALIGNMENT = 8;
+
+    private static final String TIMEZONE = "UTC";
+
+    private final OutputStream stream;
+
+    private final boolean withTimestart;
+
+    ArrowStreamWriter(OutputStream stream, boolean withTimestart) {
+        this.stream = stream;
+        this.withTimestart = withTimestart;
+    }
+
+    void writeSchema() throws IOException {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int[] fields = withTimestart
+                ? new int[4]
+                : new int[3];
+        fields[0] = createDatasetField(builder);
+        fields[1] = createTimestampField(builder, TIMESTAMP, false);
+        fields[2] = createValueField(builder);
+        if (withTimestart) {
+            fields[3] = createTimestampField(builder, TIMESTART, true);
+        }
+        int fieldsVector = Schema.createFieldsVector(builder, fields);
+        int schema = Schema.createSchema(builder, Endianness.Little, fieldsVector, 0);
+        writeMessage(builder, MessageHeader.Schema, schema, new BodyWriter(0));
+    }
+
+    /**
+     * @param datasetIds
+     *        the dataset ids to add to the dictionary
+     * @param delta
+     *        <code>true</code> if the ids shall be appended to the previously written ids
+     */
+    void writeDictionary(List<String> datasetIds, boolean delta) throws IOException {
+        byte[][] encodedIds = new byte[datasetIds.size()][];
+        int dataLength = 0;
+        for (int i = 0; i < encodedIds.length; i++) {
+            encodedIds[i] = datasetIds.get(i)
+                                      .getBytes(StandardCharsets.UTF_8);
+            dataLength += encodedIds[i].length;
+        }
+
+        int length = encodedIds.length;
+        BodyWriter body = new BodyWriter(padded(4 * (length + 1)) + padded(dataLength));
+        body.addEmptyBuffer();
+        ByteBuffer offsets = body.startBuffer();
+        int offset = 0;
+        offsets.putInt(offset);
+        for (byte[] encodedId : encodedIds) {
+            offset += encodedId.length;
+            offsets.putInt(offset);
+        }
+        body.endBuffer();
+        ByteBuffer data = body.startBuffer();
+        for (byte[] encodedId : encodedIds) {
+            data.put(encodedId);
+        }
+        body.endBuffer();
+
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int recordBatch = createRecordBatch(builder, length, new long[] { 0L }, body);
+        int dictionaryBatch = DictionaryBatch.createDictionaryBatch(builder,
+                                                                    DATASET_DICTIONARY_ID,
+                                                                    recordBatch,
+                                                                    delta);
+        writeMessage(builder, MessageHeader.DictionaryBatch, dictionaryBatch, body);
+    }
+
+    /**
+     * @param datasetIndex
+     *        the dictionary index of the dataset the data belongs to
+     * @param data
+     *        the data to write as record batch
+     */
+    void writeRecordBatch(int datasetIndex, QuantityData data) throws IOException {
+        int length = (int) data.size();
+        int bitmapLength = (length + 7) / 8;
+        int bodyLength = padded(4 * length)
+                + padded(8 * length)
+                + padded(bitmapLength)
+                + padded(8 * length);
+        if (withTimestart) {
+            bodyLength += padded(bitmapLength) + padded(8 * length);
+        }
+        BodyWriter body = new BodyWriter(bodyLength);
+
+        // dataset: dictionary indices
+        body.addEmptyBuffer();
+        ByteBuffer indices = body.startBuffer();
+        for (int i = 0; i < length; i++) {
+            indices.putInt(datasetIndex);
+        }
+        body.endBuffer();
+
+        // timestamp
+        body.addEmptyBuffer();
+        ByteBuffer timestamps = body.startBuffer();
+        for (int i = 0; i < length; i++) {
+            timestamps.putLong(data.getTimestamp(i));
+        }
+        body.endBuffer();
+
+        long[] nullCounts = withTimestart
+                ? new long[4]
+                : new long[3];
+
+        // value
+        byte[] validity = new byte[bitmapLength];
+        int valueNullCount = 0;
+        for (int i = 0; i < length; i++) {
+            if (data.isNoDataValue(i)) {
+                valueNullCount++;
+            } else {
+                validity[i >> 3] |= 1 << (i & 7);
+            }
+        }
+        nullCounts[2] = valueNullCount;
+        body.addBitmap(validity, valueNullCount);
+        ByteBuffer values = body.startBuffer();
+        for (int i = 0; i < length; i++) {
+            values.putDouble(data.isNoDataValue(i)
+                    ? 0d
+                    : data.getValue(i));
+        }
+        body.endBuffer();
+
+        // timestart
+        if (withTimestart) {
+            byte[] timestartValidity = new byte[bitmapLength];
+            int timestartNullCount = 0;
+            for (int i = 0; i < length; i++) {
+                if (data.hasTimestart(i)) {
+                    timestartValidity[i >> 3] |= 1 << (i & 7);
+                } else {
+                    timestartNullCount++;
+                }
+            }
+            nullCounts[3] = timestartNullCount;
+            body.addBitmap(timestartValidity, timestartNullCount);
+            ByteBuffer timestarts = body.startBuffer();
+            for (int i = 0; i < length; i++) {
+                timestarts.putLong(data.hasTimestart(i)
+                        ? data.getTimestart(i)
+                        : 0L);
+            }
+            body.endBuffer();
+        }
+
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int recordBatch = createRecordBatch(builder, length, nullCounts, body);
+        writeMessage(builder, MessageHeader.RecordBatch, recordBatch, body);
+    }
+
+    void writeEndOfStream() throws IOException {
+        ByteBuffer endOfStream = ByteBuffer.allocate(8)
+                                           .order(ByteOrder.LITTLE_ENDIAN);
+        endOfStream.putInt(CONTINUATION_MARKER);
+        endOfStream.putInt(0);
+        stream.write(endOfStream.array());
+    }
+
+    private int createDatasetField(FlatBufferBuilder builder) {
+        int name = builder.createString(DATASET);
+        int indexType = Int.createInt(builder, 32, true);
+        int dictionary = DictionaryEncoding.createDictionaryEncoding(builder,
+                                                                     DATASET_DICTIONARY_ID,
+                                                                     indexType,
+                                                                     false,
+                                                                     DictionaryKind.DenseArray);
+        Utf8.startUtf8(builder);
+        int type = Utf8.endUtf8(builder);
+        int children = Field.createChildrenVector(builder, new int[0]);
+        return Field.createField(builder, name, false, Type.Utf8, type, dictionary, children, 0);
+    }
+
+    private int createTimestampField(FlatBufferBuilder builder, String fieldName, boolean nullable) {
+        int name = builder.createString(fieldName);
+        int timezone = builder.createString(TIMEZONE);
+        int type = Timestamp.createTimestamp(builder, TimeUnit.MILLISECOND, timezone);
+        int children = Field.createChildrenVector(builder, new int[0]);
+        return Field.createField(builder, name, nullable, Type.Timestamp, type, 0, children, 0);
+    }
+
+    private int createValueField(FlatBufferBuilder builder) {
+        int name = builder.createString(VALUE);
+        int type = FloatingPoint.createFloatingPoint(builder, Precision.DOUBLE);
+        int children = Field.createChildrenVector(builder, new int[0]);
+        return Field.createField(builder, name, true, Type.FloatingPoint, type, 0, children, 0);
+    }
+
+    private int createRecordBatch(FlatBufferBuilder builder, int length, long[] nullCounts, BodyWriter body) {
+        // structs are prepended, so vectors are built in reverse order
+        RecordBatch.startNodesVector(builder, nullCounts.length);
+        for (int i = nullCounts.length - 1; i >= 0; i--) {
+            FieldNode.createFieldNode(builder, length, nullCounts[i]);
+        }
+        int nodes = builder.endVector();
+        List<long[]> buffers = body.getBuffers();
+        RecordBatch.startBuffersVector(builder, buffers.size());
+        for (int i = buffers.size() - 1; i >= 0; i--) {
+            long[] buffer = buffers.get(i);
+            Buffer.createBuffer(builder, buffer[0], buffer[1]);
+        }
+        int buffersVector = builder.endVector();
+        return RecordBatch.createRecordBatch(builder, length, nodes, buffersVector);
+    }
+
+    private void writeMessage(FlatBufferBuilder builder, byte headerType, int header, BodyWriter body)
+            throws IOException {
+        int message = Message.createMessage(builder, MetadataVersion.V4, headerType, header, body.length(), 0);
+        builder.finish(message);
+        byte[] metadata = builder.sizedByteArray();
+
+        // continuation marker and length prefix plus metadata have to end on an aligned position
+        int metadataLength = padded(8 + metadata.length) - 8;
+        ByteBuffer prefix = ByteBuffer.allocate(8)
+                                      .order(ByteOrder.LITTLE_ENDIAN);
+        prefix.putInt(CONTINUATION_MARKER);
+        prefix.putInt(metadataLength);
+        stream.write(prefix.array());
+        stream.write(metadata);
+        stream.write(new byte[metadataLength - metadata.length]);
+        stream.write(body.toByteArray());
+    }
+
+    private static int padded(int length) {
+        return (length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Collects the buffers of a message body, each one starting at an aligned offset.
+     */
+    private static final class BodyWriter {
+
+        private final ByteBuffer body;
+
+        private final List<long[]> buffers = new ArrayList<>();
+
+        private int bufferStart;
+
+        BodyWriter(int length) {
+            this.body = ByteBuffer.allocate(length)
+                                  .order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void addEmptyBuffer() {
+            addBuffer(body.position(), 0);
+        }
+
+        void addBitmap(byte[] bitmap, int nullCount) {
+            if (nullCount == 0) {
+                // all values valid, the bitmap may be omitted
+                addEmptyBuffer();
+            } else {
+                startBuffer().put(bitmap);
+                endBuffer();
+            }
+        }
+
+        ByteBuffer startBuffer() {
+            bufferStart = body.position();
+            return body;
+        }
+
+        void endBuffer() {
+            int length = body.position() - bufferStart;
+            addBuffer(bufferStart, length);
+            body.position(padded(body.position()));
+        }
+
+        private void addBuffer(long offset, long length) {
+            buffers.add(new long[] { offset, length });
+        }
+
+        List<long[]> getBuffers() {
+            return buffers;
+        }
+
+        long length() {
+            return body.capacity();
+        }
+
+        byte[] toByteArray() {
+            return body.array();
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.handler.cbor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.n52.io.handler.IoHandler;
+import org.n52.io.handler.IoHandlerException;
+import org.n52.io.handler.IoProcessChain;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.series.spi.srv.DataBatch;
+import org.n52.series.spi.srv.DataCursor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Writes quantity data as <a href="https://tools.ietf.org/html/rfc7049">CBOR</a>. The structure follows the
+ * JSON output, i.e. a map of dataset ids to objects with <code>values</code> and (optional)
+ * <code>extra</code> metadata. Values however are written as flat array alternating timestamp and value:
+ * <ul>
+ * <li>timestamps are epoch milliseconds as integer, each one encoded as difference to the previous timestamp
+ * of the dataset (the first one relative to <code>0</code>)</li>
+ * <li>values are IEEE 754 double precision floats, or <code>null</code> for no data values</li>
+ * </ul>
+ * Datasets are written batch by batch as read from the process chain's {@link DataCursor}.
+ */
+public class CborIoHandler extends IoHandler<Data<QuantityValue>> {
+
+    private static final String VALUES = "values";
+
+    private static final String EXTRA = "extra";
+
+    private final ObjectMapper objectMapper;
+
+    public CborIoHandler(IoParameters parameters, IoProcessChain<Data<QuantityValue>> processChain) {
+        super(parameters, processChain);
+        this.objectMapper = new ObjectMapper(new CBORFactory()).setSerializationInclusion(
+                JsonInclude.Include.NON_NULL);
+    }
+
+    @Override
+    protected void encodeAndWriteTo(DataCollection<Data<QuantityValue>> data, OutputStream stream)
+            throws IoHandlerException {
+        encodeAndWriteTo(DataCursor.of(data), stream);
+    }
+
+    @Override
+    protected void encodeAndWriteTo(DataCursor<Data<QuantityValue>> data, OutputStream stream)
+            throws IoHandlerException {
+        try (JsonGenerator generator = objectMapper.getFactory()
+                                                   .createGenerator(stream)) {
+            generator.writeStartObject();
+            DatasetEncoder encoder = new DatasetEncoder(generator);
+            while (data.hasNext()) {
+                DataBatch<Data<QuantityValue>> batch = data.next();
+                if (!encoder.isEncoding(batch.getDatasetId())) {
+                    encoder.end();
+                    encoder.start(batch.getDatasetId());
+                }
+                encoder.encode(batch.getData());
+            }
+            encoder.end();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new IoHandlerException("Could not write data as CBOR.", e);
+        }
+    }
+
+    private final class DatasetEncoder {
+
+        private final JsonGenerator generator;
+
+        private final ObjectWriter metadataWriter;
+
+        private String datasetId;
+
+        private DatasetMetadata<QuantityValue> metadata;
+
+        private long previousTimestamp;
+
+        private DatasetEncoder(JsonGenerator generator) {
+            this.generator = generator;
+            this.metadataWriter = objectMapper.writer();
+        }
+
+        boolean isEncoding(String id) {
+            return id.equals(datasetId);
+        }
+
+        void start(String id) throws IOException {
+            datasetId = id;
+            metadata = null;
+            previousTimestamp = 0L;
+            generator.writeFieldName(id);
+            generator.writeStartObject();
+            generator.writeFieldName(VALUES);
+            // indefinite length, amount of values is not known in advance
+            generator.writeStartArray();
+        }
+
+        void encode(Data<QuantityValue> batch) throws IOException {
+            if (metadata == null) {
+                metadata = batch.getMetadata();
+            }
+            QuantityData data = QuantityData.of(batch);
+            int size = (int) data.size();
+            for (int i = 0; i < size; i++) {
+                long timestamp = data.getTimestamp(i);
+                generator.writeNumber(timestamp - previousTimestamp);
+                previousTimestamp = timestamp;
+                if (data.isNoDataValue(i)) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(data.getValue(i));
+                }
+            }
+        }
+
+        void end() throws IOException {
+            if (datasetId == null) {
+                return;
+            }
+            generator.writeEndArray();
+            if (metadata != null) {
+                generator.writeFieldName(EXTRA);
+                metadataWriter.writeValue(generator, metadata);
+            }
+            generator.writeEndObject();
+            datasetId = null;
+        }
+    }
+
+}
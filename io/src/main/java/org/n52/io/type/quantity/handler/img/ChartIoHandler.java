@@ -78,6 +78,7 @@ import org.n52.io.response.dataset.DataCollection;
 import org.n52.io.response.dataset.DatasetOutput;
 import org.n52.io.response.dataset.DatasetParameters;
 import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.io.type.quantity.generalize.MinMaxGeneralizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -95,6 +96,8 @@ public abstract class ChartIoHandler extends IoHandler<Data<QuantityValue>> {
 
     private final XYPlot xyPlot;
 
+    private final MinMaxGeneralizer pixelGeneralizer;
+
     private Constants.MimeType mimeType;
 
     private JFreeChart jFreeChart;
@@ -105,6 +108,7 @@ public abstract class ChartIoHandler extends IoHandler<Data<QuantityValue>> {
         super(parameters, processChain);
         this.context = context;
         this.xyPlot = createChart(context);
+        this.pixelGeneralizer = new MinMaxGeneralizer(parameters);
     }
 
     public abstract void writeDataToChart(DataCollection<Data<QuantityValue>> data)
@@ -141,6 +145,18 @@ public abstract class ChartIoHandler extends IoHandler<Data<QuantityValue>> {
         return chartImage;
     }
 
+    /**
+     * Reduces line data to what can be drawn within the requested chart width, i.e. first, last, minimum and
+     * maximum value of each pixel column.
+     *
+     * @param data
+     *        the data to draw as line.
+     * @return the data reduced to the chart width.
+     */
+    protected Data<QuantityValue> reduceToChartWidth(Data<QuantityValue> data) {
+        return pixelGeneralizer.generalizeSeries(data);
+    }
+
     public XYPlot getXYPlot() {
         return xyPlot;
     }
@@ -54,6 +54,7 @@ import org.n52.io.response.dataset.DataCollection;
 import org.n52.io.response.dataset.DatasetMetadata;
 import org.n52.io.response.dataset.DatasetOutput;
 import org.n52.io.response.dataset.ReferenceValueOutput;
+import org.n52.io.response.dataset.quantity.QuantityData;
 import org.n52.io.response.dataset.quantity.QuantityValue;
 import org.n52.io.style.BarStyle;
 import org.n52.io.style.LineStyle;
@@ -218,7 +219,12 @@ public class MultipleChartsRenderer extends ChartIoHandler {
                         }
                     }
                 } else if (isLineStyle(style)) {
-                    for (QuantityValue value : referenceData.getValues()) {
+                    Data<QuantityValue> lineData = reduceToChartWidth(referenceData);
+                    if (lineData instanceof QuantityData) {
+                        addColumnarValues((QuantityData) lineData, timeseries);
+                        return timeseries;
+                    }
+                    for (QuantityValue value : lineData.getValues()) {
                         Second second = new Second(value.getTimestamp().getDateTime().toDate());
                         timeseries.addOrUpdate(second, value.getValue());
                     }
@@ -227,6 +233,14 @@ public class MultipleChartsRenderer extends ChartIoHandler {
             return timeseries;
         }
 
+        private void addColumnarValues(QuantityData data, TimeSeries timeseries) {
+            int size = (int) data.size();
+            for (int i = 0; i < size; i++) {
+                Second second = new Second(new Date(data.getTimestamp(i)));
+                timeseries.addOrUpdate(second, data.getDecimalValue(i));
+            }
+        }
+
         private boolean hasValues(Data<QuantityValue> timeseriesData) {
             return timeseriesData.getValues()
                                  .size() > 0;
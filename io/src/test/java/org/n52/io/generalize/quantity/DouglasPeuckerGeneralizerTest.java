@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.generalize.quantity;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.n52.io.TvpDataCollection;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.io.type.quantity.generalize.DouglasPeuckerGeneralizer;
+import org.n52.io.type.quantity.generalize.Generalizer;
+import org.n52.io.type.quantity.generalize.GeneralizerException;
+
+public class DouglasPeuckerGeneralizerTest {
+
+    @Test
+    public void when_valueExceedsTolerance_then_valueIsRemoved() throws GeneralizerException {
+        QuantityData data = new QuantityData().addValue(0L, 0d)
+                                              .addValue(1L, 0d)
+                                              .addValue(2L, 5d)
+                                              .addValue(3L, 0d)
+                                              .addValue(4L, 0d);
+        List<QuantityValue> values = generalize(data, "1").getValues();
+        assertThat(values.size(), Is.is(4));
+        assertThat(values.get(2)
+                         .getTimestamp()
+                         .getMillis(),
+                   Is.is(3L));
+    }
+
+    @Test
+    public void when_splittingDeeply_then_noStackOverflowOccurs() throws GeneralizerException {
+        int size = 20_000;
+        QuantityData data = new QuantityData(null, size);
+        for (int i = 0; i < size; i++) {
+            // steadily increasing amplitude makes each split peel off a single value
+            data.addValue(i, i % 2 == 0
+                    ? i
+                    : -i);
+        }
+        Data<QuantityValue> generalized = generalize(data, "0.5");
+        List<QuantityValue> values = generalized.getValues();
+        assertThat(values.get(values.size() - 1)
+                         .getTimestamp()
+                         .getMillis(),
+                   Is.is(size - 1L));
+    }
+
+    private Data<QuantityValue> generalize(QuantityData data, String tolerance) throws GeneralizerException {
+        TvpDataCollection<Data<QuantityValue>> collection = new TvpDataCollection<>();
+        collection.addNewSeries("test", data);
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith("TOLERANCE_VALUE", tolerance);
+        Generalizer<Data<QuantityValue>> generalizer = new DouglasPeuckerGeneralizer(parameters);
+        return generalizer.generalize(collection)
+                          .getSeries("test");
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.generalize.quantity;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Random;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.n52.io.TvpDataCollection;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.io.type.quantity.generalize.Generalizer;
+import org.n52.io.type.quantity.generalize.GeneralizerException;
+import org.n52.io.type.quantity.generalize.LargestTriangleThreeBucketsGeneralizer;
+
+public class GeneralizerTest {
+
+    @Test
+    public void when_generalizingInParallel_then_resultEqualsSequentialGeneralization()
+            throws GeneralizerException {
+        DataCollection<Data<QuantityValue>> data = createRandomData(20, 5_000);
+        DataCollection<Data<QuantityValue>> parallel = createGeneralizer("0").generalize(data);
+        DataCollection<Data<QuantityValue>> sequential = createGeneralizer("-1").generalize(data);
+
+        assertThat(parallel.size(), Is.is(20));
+        for (String seriesId : sequential.getAllSeries()
+                                         .keySet()) {
+            QuantityData expected = (QuantityData) sequential.getSeries(seriesId);
+            QuantityData actual = (QuantityData) parallel.getSeries(seriesId);
+            assertThat(actual.size(), Is.is(expected.size()));
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.getTimestamp(i), Is.is(expected.getTimestamp(i)));
+                assertThat(actual.getValue(i), Is.is(expected.getValue(i)));
+            }
+        }
+    }
+
+    @Test(expected = GeneralizerException.class)
+    public void when_seriesFailsInParallel_then_generalizerExceptionIsThrown() throws GeneralizerException {
+        DataCollection<Data<QuantityValue>> data = createRandomData(4, 10);
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Generalizer.PARALLELISM_THRESHOLD, "0");
+        new Generalizer<Data<QuantityValue>>(parameters) {
+
+            @Override
+            protected Data<QuantityValue> generalizeSeries(Data<QuantityValue> series)
+                    throws GeneralizerException {
+                throw new GeneralizerException("failing series");
+            }
+
+            @Override
+            public String getName() {
+                return "Failing";
+            }
+        }.generalize(data);
+    }
+
+    private Generalizer<Data<QuantityValue>> createGeneralizer(String parallelismThreshold) {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Generalizer.PARALLELISM_THRESHOLD,
+                                                          parallelismThreshold);
+        return new LargestTriangleThreeBucketsGeneralizer(parameters);
+    }
+
+    private DataCollection<Data<QuantityValue>> createRandomData(int seriesCount, int seriesSize) {
+        Random random = new Random(42);
+        TvpDataCollection<Data<QuantityValue>> collection = new TvpDataCollection<>();
+        for (int series = 0; series < seriesCount; series++) {
+            QuantityData data = new QuantityData(null, seriesSize);
+            for (int i = 0; i < seriesSize; i++) {
+                data.addValue(i, random.nextGaussian());
+            }
+            collection.addNewSeries("series_" + series, data);
+        }
+        return collection;
+    }
+
+}
@@ -65,6 +65,41 @@ public class LargestTriangleThreeBucketsGeneralizerTest {
         assertThat(generalizedData.getSeries("test").size(), Is.is(threshold));
     }
 
+    @Test
+    public void when_bucketsContainNoDataGap_then_firstAndLastValuesAreKept() throws GeneralizerException {
+        Data<QuantityValue> data = getData(1000);
+        DateTime start = data.getValues()
+                             .get(0)
+                             .getTimestamp()
+                             .getDateTime();
+        Data<QuantityValue> withGap = new Data<>();
+        for (int i = 0; i < 1000; i++) {
+            BigDecimal value = i >= 400 && i < 600
+                    ? null
+                    : BigDecimal.valueOf(i % 10);
+            withGap.addNewValue(createQuantityValue(start.plusMillis(i), value));
+        }
+        TvpDataCollection<Data<QuantityValue>> collection = new TvpDataCollection<>();
+        collection.addNewSeries("test", withGap);
+
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith("threshold", "100");
+        Generalizer<Data<QuantityValue>> generalizer = new LargestTriangleThreeBucketsGeneralizer(parameters);
+        Data<QuantityValue> generalized = generalizer.generalize(collection)
+                                                     .getSeries("test");
+        assertThat(generalized.size(), Is.is(100L));
+        assertThat(generalized.getValues()
+                              .get(0)
+                              .getTimestamp()
+                              .getDateTime(),
+                   Is.is(start));
+        assertThat(generalized.getValues()
+                              .get(99)
+                              .getTimestamp()
+                              .getDateTime(),
+                   Is.is(start.plusMillis(999)));
+    }
+
     private Data<QuantityValue> getData(int maxValues) {
         BigDecimal startValue = BigDecimal.valueOf(0);
         QuantityValue current = createQuantityValue(DateTime.now(), startValue);
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.generalize.quantity;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Test;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.io.type.quantity.generalize.GeneralizerFactory;
+import org.n52.io.type.quantity.generalize.MinMaxGeneralizer;
+
+public class MinMaxGeneralizerTest {
+
+    private static final String TIMESPAN = "1970-01-01T00:00:00Z/1970-01-01T00:00:01Z";
+
+    @Test
+    public void when_algorithmIsM4_then_factoryCreatesMinMaxGeneralizer() {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Parameters.GENERALIZE, "true")
+                                              .extendWith("generalizing_algorithm", "M4");
+        assertThat(GeneralizerFactory.createGeneralizer(parameters),
+                   IsInstanceOf.instanceOf(MinMaxGeneralizer.class));
+    }
+
+    @Test
+    public void when_generalizing_then_firstLastMinAndMaxOfEachColumnAreKept() {
+        // two pixel columns of 500ms each
+        QuantityData data = new QuantityData();
+        for (int i = 0; i < 1000; i++) {
+            data.addValue(i, i == 100
+                    ? -10d
+                    : i == 700
+                        ? 10d
+                        : 0d);
+        }
+        List<QuantityValue> values = generalize(data, "2").getValues();
+        assertThat(values.size(), Is.is(6));
+        assertThat(values.get(0)
+                         .getTimestamp()
+                         .getMillis(),
+                   Is.is(0L));
+        assertThat(values.get(1)
+                         .getValue()
+                         .doubleValue(),
+                   Is.is(-10d));
+        assertThat(values.get(2)
+                         .getTimestamp()
+                         .getMillis(),
+                   Is.is(499L));
+        assertThat(values.get(4)
+                         .getValue()
+                         .doubleValue(),
+                   Is.is(10d));
+        assertThat(values.get(5)
+                         .getTimestamp()
+                         .getMillis(),
+                   Is.is(999L));
+    }
+
+    @Test
+    public void when_generalizing_then_noDataGapsAreKept() {
+        QuantityData data = new QuantityData();
+        for (int i = 0; i < 1000; i++) {
+            if (i == 300) {
+                data.addNoDataValue(i);
+            } else {
+                data.addValue(i, i);
+            }
+        }
+        Data<QuantityValue> generalized = generalize(data, "1");
+        QuantityData columnar = (QuantityData) generalized;
+        assertThat(columnar.size(), Is.is(3L));
+        assertThat(columnar.isNoDataValue(1), Is.is(true));
+        assertThat(columnar.getTimestamp(1), Is.is(300L));
+    }
+
+    @Test
+    public void when_lessValuesThanPixels_then_dataIsUnchanged() {
+        QuantityData data = new QuantityData().addValue(0L, 1d)
+                                              .addValue(1L, 2d);
+        assertThat(generalize(data, "800"), Is.is(data));
+    }
+
+    private Data<QuantityValue> generalize(QuantityData data, String width) {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Parameters.TIMESPAN, TIMESPAN)
+                                              .extendWith(Parameters.WIDTH, width);
+        return new MinMaxGeneralizer(parameters).generalizeSeries(data);
+    }
+
+}
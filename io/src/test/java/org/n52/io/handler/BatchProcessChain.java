@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.series.spi.srv.DataBatch;
+import org.n52.series.spi.srv.DataCursor;
+
+/**
+ * Test process chain delivering a fixed list of batches without any processing steps. Override
+ * {@link #getProcessedData(DataCollection)} and {@link #hasProcessingSteps()} to test processing.
+ *
+ * @param <T>
+ *        the data type
+ */
+public class BatchProcessChain<T extends Data< ? extends AbstractValue< ? >>> implements IoProcessChain<T> {
+
+    private final List<DataBatch<T>> batches;
+
+    public BatchProcessChain(List<DataBatch<T>> batches) {
+        this.batches = batches;
+    }
+
+    /**
+     * @param batches
+     *        the batches to deliver
+     * @return a cursor delivering the given batches in list order
+     */
+    public static <T extends Data< ? extends AbstractValue< ? >>> DataCursor<T> cursorOf(List<DataBatch<T>> batches) {
+        Iterator<DataBatch<T>> iterator = batches.iterator();
+        return new DataCursor<T>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public DataBatch<T> next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+    }
+
+    @Override
+    public DataCollection<T> getData() {
+        return getDataCursor().collect();
+    }
+
+    @Override
+    public DataCollection< ? > getProcessedData(DataCollection<T> data) {
+        return data;
+    }
+
+    @Override
+    public DataCursor<T> getDataCursor() {
+        return cursorOf(batches);
+    }
+
+    @Override
+    public boolean hasProcessingSteps() {
+        return false;
+    }
+
+}
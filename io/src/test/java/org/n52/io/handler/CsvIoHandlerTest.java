@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.DatasetOutput;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.series.spi.srv.DataCursor;
+
+public class CsvIoHandlerTest {
+
+    @Test
+    public void when_writingZipSequentially_then_entriesFollowMetadataOrder() throws IOException {
+        List<String> entries = readEntries(writeZip(1));
+        assertThat(entries, contains("c.csv:header c\nc;1\n",
+                                     "b.csv:header b\nb;1\n",
+                                     "d.csv:header d\n",
+                                     "a.csv:header a\na;1\n"));
+    }
+
+    @Test
+    public void when_writingZipInParallel_then_entriesFollowMetadataOrder() throws IOException {
+        List<String> entries = readEntries(writeZip(4));
+        assertThat(entries, contains("c.csv:header c\nc;1\n",
+                                     "b.csv:header b\nb;1\n",
+                                     "d.csv:header d\n",
+                                     "a.csv:header a\na;1\n"));
+    }
+
+    private byte[] writeZip(int parallelism) {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(CsvIoHandler.ZIP_PARALLELISM,
+                                                          Integer.toString(parallelism))
+                                              .extendWith(Parameters.BOM, "false");
+        List<DatasetOutput<QuantityValue>> metadatas = new ArrayList<>();
+        DataCollection<Data<QuantityValue>> data = new DataCollection<>();
+        for (String id : new String[] { "c", "b", "d", "a" }) {
+            DatasetOutput<QuantityValue> metadata = DatasetOutput.create(parameters);
+            metadata.setId(id);
+            metadatas.add(metadata);
+            if (!"d".equals(id)) {
+                data.addNewSeries(id, new QuantityData().addValue(0L, 1d));
+            }
+        }
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new TestCsvIoHandler(parameters, metadatas).encodeAndWriteTo(DataCursor.of(data), stream);
+        return stream.toByteArray();
+    }
+
+    private List<String> readEntries(byte[] archive) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zipStream.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int read;
+                while ((read = zipStream.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+                entries.add(entry.getName() + ":" + new String(content.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private static final class TestCsvIoHandler extends CsvIoHandler<QuantityValue> {
+
+        TestCsvIoHandler(IoParameters parameters, List<DatasetOutput<QuantityValue>> metadatas) {
+            super(parameters, null, metadatas);
+        }
+
+        @Override
+        protected String[] getHeader(DatasetOutput<QuantityValue> metadata) {
+            return new String[] { "header " + metadata.getId() };
+        }
+
+        @Override
+        protected void writeData(DatasetOutput<QuantityValue> metadata,
+                                 Data<QuantityValue> series,
+                                 OutputStream stream)
+                throws IOException {
+            CsvWriter writer = getCsvWriter(stream);
+            for (QuantityValue value : series.getValues()) {
+                writer.writeField(metadata.getId());
+                writer.writeField(value.getValue()
+                                       .toBigInteger()
+                                       .toString());
+                writer.endRow();
+            }
+            writer.flush();
+        }
+
+        @Override
+        protected String getFilenameFor(DatasetOutput<QuantityValue> seriesMetadata) {
+            return seriesMetadata.getId();
+        }
+    }
+
+}
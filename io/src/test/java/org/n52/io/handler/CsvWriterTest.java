@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+public class CsvWriterTest {
+
+    private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+    @Test
+    public void when_fieldContainsSeparator_then_fieldIsQuoted() throws IOException {
+        CsvWriter writer = new CsvWriter(";").setOutputStream(stream);
+        writer.writeField("");
+        writer.writeField("a;b");
+        writer.writeField(null);
+        writer.writeField("Ünit µg/m³ 😀");
+        writer.endRow();
+        writer.flush();
+        assertThat(stream.toString("UTF-8"), is(";\"a;b\";;Ünit µg/m³ 😀\n"));
+    }
+
+    @Test
+    public void when_writingDecimals_then_outputEqualsBigDecimal() throws IOException {
+        CsvWriter writer = new CsvWriter(";").setOutputStream(stream);
+        double[] values = { 0d, -0d, 1.5d, 1.5d, -3.25d, 1e-3, 1e-4, 1e7, 1.2345678e10, 0.1 + 0.2 };
+        StringBuilder expected = new StringBuilder();
+        for (double value : values) {
+            writer.writeDecimal(value);
+            writer.endRow();
+            expected.append(BigDecimal.valueOf(value))
+                    .append("\n");
+        }
+        writer.writeDecimal(Double.NaN);
+        writer.endRow();
+        expected.append("\n");
+        writer.flush();
+        assertThat(stream.toString("UTF-8"), is(expected.toString()));
+    }
+
+    @Test
+    public void when_writingTimes_then_outputEqualsDateTimeToString() throws IOException {
+        CsvWriter writer = new CsvWriter(";").setOutputStream(stream);
+        Random random = new Random(42);
+        DateTimeZone[] zones = {
+            DateTimeZone.UTC,
+            DateTimeZone.forID("Europe/Berlin"),
+            DateTimeZone.forOffsetMillis(1_234),
+        };
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            long end = (long) (random.nextDouble() * 2_000_000_000_000L);
+            long start = end - random.nextInt(100_000_000);
+            DateTimeZone zone = zones[i % zones.length];
+            writer.writeTime(end, zone);
+            writer.writeTimeInterval(start, end, zone);
+            writer.endRow();
+            expected.append(new DateTime(end, zone))
+                    .append(";")
+                    .append(new DateTime(start, zone))
+                    .append("/")
+                    .append(new DateTime(end, zone))
+                    .append("\n");
+        }
+        writer.flush();
+        assertThat(stream.toString("UTF-8"), is(expected.toString()));
+    }
+
+    @Test
+    public void when_separatorOccursInTimesAndDecimals_then_fieldsAreQuoted() throws IOException {
+        CsvWriter writer = new CsvWriter(".").setOutputStream(stream);
+        writer.writeTime(0L, DateTimeZone.UTC);
+        writer.writeDecimal(1.5d);
+        writer.endRow();
+        writer.flush();
+        assertThat(stream.toString("UTF-8"), is("\"1970-01-01T00:00:00.000Z\".\"1.5\"\n"));
+    }
+
+    @Test
+    public void when_exceedingBufferSize_then_allRowsAreWritten() throws IOException {
+        CsvWriter writer = new CsvWriter(";").setOutputStream(stream);
+        int rows = 10_000;
+        for (int i = 0; i < rows; i++) {
+            writer.writeField("");
+            writer.writeTime(i * 60_000L, DateTimeZone.UTC);
+            writer.writeDecimal(i);
+            writer.endRow();
+        }
+        writer.flush();
+        String[] lines = stream.toString("UTF-8")
+                               .split("\n");
+        assertThat(stream.size() > CsvWriter.BUFFER_SIZE, is(true));
+        assertThat(lines.length, is(rows));
+        assertThat(lines[rows - 1], is(";1970-01-07T22:39:00.000Z;9999.0"));
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Test;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.series.spi.srv.DataBatch;
+import org.n52.series.spi.srv.DataCursor;
+
+public class IoHandlerTest {
+
+    private final IoParameters base64 = IoParameters.createDefaults()
+                                                    .extendWith(Parameters.BASE_64, "true");
+
+    @Test
+    public void when_base64_then_outputIsEncodedWithoutLineBreaks() throws IoHandlerException {
+        for (int length : new int[] { 0, 1, 2, 3, 100, 100_000 }) {
+            byte[] content = new byte[length];
+            new Random(length).nextBytes(content);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new FixedOutputHandler(base64, content, false).writeBinary(output);
+            assertThat(output.toString(), is(Base64.encodeBase64String(content)));
+        }
+    }
+
+    @Test
+    public void when_handlerClosesStream_then_base64IsComplete() throws IoHandlerException {
+        byte[] content = new byte[] { 1, 2, 3, 4 };
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new FixedOutputHandler(base64, content, true).writeBinary(output);
+        assertThat(output.toString(), is(Base64.encodeBase64String(content)));
+    }
+
+    @Test
+    public void when_notBase64_then_outputIsWrittenAsIs() throws IoHandlerException {
+        byte[] content = new byte[] { 1, 2, 3, 4 };
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new FixedOutputHandler(IoParameters.createDefaults(), content, false).writeBinary(output);
+        assertThat(output.toByteArray(), is(content));
+    }
+
+    private static final class FixedOutputHandler extends IoHandler<Data<QuantityValue>> {
+
+        private final byte[] content;
+
+        private final boolean closeStream;
+
+        FixedOutputHandler(IoParameters parameters, byte[] content, boolean closeStream) {
+            super(parameters, new EmptyProcessChain());
+            this.content = content;
+            this.closeStream = closeStream;
+        }
+
+        @Override
+        protected void encodeAndWriteTo(DataCollection<Data<QuantityValue>> data, OutputStream stream)
+                throws IoHandlerException {
+            try {
+                // write in odd chunks to cross encoding boundaries
+                for (int i = 0; i < content.length; i += 7) {
+                    stream.write(content, i, Math.min(7, content.length - i));
+                }
+                if (closeStream) {
+                    stream.close();
+                }
+            } catch (IOException e) {
+                throw new IoHandlerException("Could not write content.", e);
+            }
+        }
+    }
+
+    private static final class EmptyProcessChain implements IoProcessChain<Data<QuantityValue>> {
+
+        @Override
+        public DataCollection<Data<QuantityValue>> getData() {
+            return getDataCursor().collect();
+        }
+
+        @Override
+        public DataCollection< ? > getProcessedData(DataCollection<Data<QuantityValue>> data) {
+            return data;
+        }
+
+        @Override
+        public DataCursor<Data<QuantityValue>> getDataCursor() {
+            return new DataCursor<Data<QuantityValue>>() {
+
+                @Override
+                public boolean hasNext() {
+                    return false;
+                }
+
+                @Override
+                public DataBatch<Data<QuantityValue>> next() {
+                    throw new NoSuchElementException();
+                }
+
+                @Override
+                public void close() {
+                    // nothing to close
+                }
+            };
+        }
+
+        @Override
+        public boolean hasProcessingSteps() {
+            return false;
+        }
+    }
+
+}
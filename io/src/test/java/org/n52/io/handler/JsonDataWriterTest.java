@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.n52.io.response.TimeOutput;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.series.spi.srv.DataBatch;
+import org.n52.series.spi.srv.DataCursor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonDataWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(
+            JsonInclude.Include.NON_NULL);
+
+    @Test
+    public void when_writingBatches_then_outputEqualsMaterializedData() throws IOException {
+        DatasetMetadata<QuantityValue> metadata = new DatasetMetadata<>();
+        metadata.setValueBeforeTimespan(createValue(0L, BigDecimal.ZERO));
+        Data<QuantityValue> first = new Data<>(metadata);
+        first.addNewValue(createValue(1000L, BigDecimal.ONE));
+        Data<QuantityValue> second = new Data<>();
+        second.addNewValue(createValue(2000L, null));
+        second.addNewValue(createValue(3000L, new BigDecimal("2.5")));
+
+        DataCollection<Data<QuantityValue>> expected = new DataCollection<>();
+        expected.addNewSeries("ds_1", first.addData(second));
+        expected.addNewSeries("ds_2", new Data<>());
+
+        DataCursor<Data<QuantityValue>> cursor = BatchProcessChain.cursorOf(Arrays.asList(
+                new DataBatch<>("ds_1", first),
+                new DataBatch<>("ds_1", second),
+                new DataBatch<>("ds_2", new Data<>())));
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new JsonDataWriter(objectMapper).write(cursor, stream);
+
+        JsonNode expectedJson = objectMapper.readTree(objectMapper.writeValueAsString(expected.getAllSeries()));
+        assertThat(objectMapper.readTree(stream.toByteArray()), is(expectedJson));
+    }
+
+    @Test
+    public void when_writingSingleDataset_then_otherDatasetsAreSkipped() throws IOException {
+        Data<QuantityValue> data = new Data<>();
+        data.addNewValue(createValue(1000L, BigDecimal.ONE));
+        DataCursor<Data<QuantityValue>> cursor = BatchProcessChain.cursorOf(Arrays.asList(
+                new DataBatch<>("ds_1", new Data<>()),
+                new DataBatch<>("ds_2", data)));
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new JsonDataWriter(objectMapper).write(cursor, "ds_2", stream);
+
+        assertThat(new String(stream.toByteArray(), StandardCharsets.UTF_8),
+                   is(objectMapper.writeValueAsString(data)));
+    }
+
+    private QuantityValue createValue(long millis, BigDecimal value) {
+        QuantityValue quantityValue = new QuantityValue();
+        quantityValue.setTimestamp(new TimeOutput(new DateTime(millis, DateTimeZone.UTC)));
+        quantityValue.setValue(value);
+        return quantityValue;
+    }
+
+}
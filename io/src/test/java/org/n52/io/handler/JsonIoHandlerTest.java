@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.io.type.quantity.format.HighchartFormatter;
+import org.n52.series.spi.srv.DataBatch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonIoHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(
+            JsonInclude.Include.NON_NULL);
+
+    private final List<Integer> processedSizes = new ArrayList<>();
+
+    @Test
+    public void when_writingProcessedData_then_outputEqualsMaterializedProcessedData() throws Exception {
+        DataCollection<Data<QuantityValue>> expected = new DataCollection<>();
+        expected.addNewSeries("ds_1", createData(0L, 1L, 2L));
+        expected.addNewSeries("ds_2", createData(5L));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonIoHandler<Data<QuantityValue>> handler = createHandler(new DataBatch<>("ds_1", createData(0L, 1L)),
+                                                                   new DataBatch<>("ds_1", createData(2L)),
+                                                                   new DataBatch<>("ds_2", createData(5L)));
+        handler.writeBinary(stream);
+
+        Object processed = new HighchartFormatter().format(expected)
+                                                   .getAllSeries();
+        assertThat(objectMapper.readTree(stream.toByteArray()), is(readTree(processed)));
+    }
+
+    @Test
+    public void when_writingProcessedData_then_datasetsAreProcessedOneByOne() throws Exception {
+        JsonIoHandler<Data<QuantityValue>> handler = createHandler(new DataBatch<>("ds_1", createData(0L)),
+                                                                   new DataBatch<>("ds_2", createData(1L)),
+                                                                   new DataBatch<>("ds_3", createData(2L)));
+        handler.writeBinary(new ByteArrayOutputStream());
+        assertThat(processedSizes, is(Arrays.asList(1, 1, 1)));
+    }
+
+    @Test
+    public void when_writingSingleDataset_then_otherDatasetsAreSkipped() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonIoHandler<Data<QuantityValue>> handler = createHandler(new DataBatch<>("ds_1", createData(0L)),
+                                                                   new DataBatch<>("ds_2", createData(1L)));
+        handler.setDatasetId("ds_2");
+        handler.writeBinary(stream);
+
+        DataCollection<Data<QuantityValue>> expected = new DataCollection<>();
+        expected.addNewSeries("ds_2", createData(1L));
+        Object processed = new HighchartFormatter().format(expected)
+                                                   .getSeries("ds_2");
+        assertThat(objectMapper.readTree(stream.toByteArray()), is(readTree(processed)));
+        assertThat(processedSizes.size(), is(1));
+    }
+
+    @Test
+    public void when_processingIsSwitchedOff_then_dataIsWrittenAsRetrieved() throws Exception {
+        DataCollection<Data<QuantityValue>> expected = new DataCollection<>();
+        expected.addNewSeries("ds_1", createData(0L, 1L));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonIoHandler<Data<QuantityValue>> handler = createHandler(new DataBatch<>("ds_1", createData(0L)),
+                                                                   new DataBatch<>("ds_1", createData(1L)));
+        handler.setProcessing(false);
+        handler.writeBinary(stream);
+
+        assertThat(objectMapper.readTree(stream.toByteArray()), is(readTree(expected.getAllSeries())));
+        assertThat(processedSizes.isEmpty(), is(true));
+    }
+
+    private JsonNode readTree(Object value) throws IOException {
+        return objectMapper.readTree(objectMapper.writeValueAsString(value));
+    }
+
+    private QuantityData createData(long... timestamps) {
+        QuantityData data = new QuantityData();
+        for (long timestamp : timestamps) {
+            data.addValue(timestamp, timestamp * 1.5d);
+        }
+        return data;
+    }
+
+    @SafeVarargs
+    private final JsonIoHandler<Data<QuantityValue>> createHandler(DataBatch<Data<QuantityValue>>... batches) {
+        IoProcessChain<Data<QuantityValue>> processChain = new BatchProcessChain<Data<QuantityValue>>(
+                Arrays.asList(batches)) {
+
+            @Override
+            public DataCollection< ? > getProcessedData(DataCollection<Data<QuantityValue>> data) {
+                processedSizes.add(data.size());
+                return new HighchartFormatter().format(data);
+            }
+
+            @Override
+            public boolean hasProcessingSteps() {
+                return true;
+            }
+        };
+        JsonIoHandler<Data<QuantityValue>> handler = new JsonIoHandler<>(IoParameters.createDefaults(),
+                                                                         processChain);
+        handler.setObjectMapper(objectMapper);
+        return handler;
+    }
+
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParallelZipWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void when_writingEntries_then_entriesAreInOrder() throws IOException {
+        List<byte[]> contents = createContents();
+        byte[] archive = write(contents, 4);
+
+        try (ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (int i = 0; i < contents.size(); i++) {
+                ZipEntry entry = zipStream.getNextEntry();
+                assertThat(entry.getName(), is("entry_" + i + ".csv"));
+                assertThat(readAll(zipStream), is(contents.get(i)));
+            }
+            assertThat(zipStream.getNextEntry() == null, is(true));
+        }
+    }
+
+    @Test
+    public void when_readingCentralDirectory_then_entriesMatchContent() throws IOException {
+        List<byte[]> contents = createContents();
+        File file = temporaryFolder.newFile("test.zip");
+        Files.write(file.toPath(), write(contents, 3));
+
+        try (ZipFile zipFile = new ZipFile(file)) {
+            List< ? extends ZipEntry> entries = Collections.list(zipFile.entries());
+            assertThat(entries.size(), is(contents.size()));
+            for (int i = 0; i < contents.size(); i++) {
+                ZipEntry entry = entries.get(i);
+                assertThat(entry.getSize(), is((long) contents.get(i).length));
+                try (InputStream stream = zipFile.getInputStream(entry)) {
+                    assertThat(readAll(stream), is(contents.get(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void when_entryIsSmallOrIncompressible_then_entryIsStored() throws IOException {
+        List<byte[]> contents = createContents();
+        File file = temporaryFolder.newFile("test.zip");
+        Files.write(file.toPath(), write(contents, 2));
+
+        try (ZipFile zipFile = new ZipFile(file)) {
+            assertThat(zipFile.getEntry("entry_0.csv")
+                              .getMethod(),
+                       is(ZipEntry.STORED));
+            assertThat(zipFile.getEntry("entry_1.csv")
+                              .getMethod(),
+                       is(ZipEntry.DEFLATED));
+            assertThat(zipFile.getEntry("entry_2.csv")
+                              .getMethod(),
+                       is(ZipEntry.STORED));
+        }
+    }
+
+    @Test
+    public void when_entriesSpanMultipleChunks_then_contentIsKept() throws IOException {
+        List<byte[]> contents = createLargeContents();
+        File file = temporaryFolder.newFile("test.zip");
+        Files.write(file.toPath(), write(contents, 4));
+
+        try (ZipFile zipFile = new ZipFile(file)) {
+            for (int i = 0; i < contents.size(); i++) {
+                ZipEntry entry = zipFile.getEntry("entry_" + i + ".csv");
+                assertThat(entry.getSize(), is((long) contents.get(i).length));
+                try (InputStream stream = zipFile.getInputStream(entry)) {
+                    assertThat(readAll(stream), is(contents.get(i)));
+                }
+            }
+        }
+        try (ZipInputStream zipStream = new ZipInputStream(new FileInputStream(file))) {
+            for (int i = 0; i < contents.size(); i++) {
+                assertThat(zipStream.getNextEntry()
+                                    .getName(),
+                           is("entry_" + i + ".csv"));
+                assertThat(readAll(zipStream), is(contents.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void when_writingSequentially_then_contentIsKept() throws IOException {
+        List<byte[]> contents = createLargeContents();
+        byte[] archive = write(contents, 1);
+
+        try (ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (int i = 0; i < contents.size(); i++) {
+                assertThat(zipStream.getNextEntry()
+                                    .getName(),
+                           is("entry_" + i + ".csv"));
+                assertThat(readAll(zipStream), is(contents.get(i)));
+            }
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public void when_addingDuplicateEntry_then_exceptionIsThrown() throws IOException {
+        try (ParallelZipWriter writer = new ParallelZipWriter(new ByteArrayOutputStream(), 1, 2, 0)) {
+            writer.putNextEntry("test.csv");
+            writer.write(1);
+            writer.putNextEntry("test.csv");
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void when_writingFails_then_exceptionIsThrown() throws IOException {
+        OutputStream failing = new OutputStream() {
+
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("test");
+            }
+        };
+        try (ParallelZipWriter writer = new ParallelZipWriter(failing, 1, 2, 0)) {
+            for (int i = 0; i < 10; i++) {
+                writer.putNextEntry(i + ".csv");
+                writer.write(new byte[ParallelZipWriter.CHUNK_SIZE]);
+            }
+        }
+    }
+
+    private List<byte[]> createContents() {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            csv.append(";2019-01-01T00:00:00.000Z;")
+               .append(i)
+               .append("\n");
+        }
+        byte[] random = new byte[50_000];
+        new Random(42).nextBytes(random);
+        List<byte[]> contents = new ArrayList<>();
+        contents.add("header;ä\n".getBytes(StandardCharsets.UTF_8));
+        contents.add(csv.toString()
+                        .getBytes(StandardCharsets.UTF_8));
+        contents.add(random);
+        for (int i = 0; i < 10; i++) {
+            contents.add(Arrays.copyOf(random, 1_000 * i));
+        }
+        return contents;
+    }
+
+    private List<byte[]> createLargeContents() {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            csv.append(";2019-01-01T00:00:00.000Z;")
+               .append(i)
+               .append("\n");
+        }
+        byte[] random = new byte[3 * ParallelZipWriter.CHUNK_SIZE + 1];
+        new Random(42).nextBytes(random);
+        return Arrays.asList(csv.toString()
+                                .getBytes(StandardCharsets.UTF_8),
+                             random,
+                             new byte[ParallelZipWriter.CHUNK_SIZE],
+                             new byte[0]);
+    }
+
+    private byte[] write(List<byte[]> contents, int parallelism) throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ParallelZipWriter writer = new ParallelZipWriter(archive,
+                                                              Deflater.DEFAULT_COMPRESSION,
+                                                              parallelism,
+                                                              CsvIoHandler.DEFAULT_ZIP_STORED_THRESHOLD)) {
+            for (int i = 0; i < contents.size(); i++) {
+                byte[] content = contents.get(i);
+                writer.putNextEntry("entry_" + i + ".csv");
+                // written in pieces like CSV rows
+                for (int offset = 0; offset < content.length; offset += 1_000) {
+                    writer.write(content, offset, Math.min(1_000, content.length - offset));
+                }
+                writer.closeEntry();
+            }
+        }
+        return archive.toByteArray();
+    }
+
+    private byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.handler.simple;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.TimeOutput;
+import org.n52.io.response.dataset.DatasetOutput;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+
+public class SimpleCsvIoHandlerTest {
+
+    @Test
+    public void when_writingScaledDecimals_then_numberTextIsKept() throws IOException {
+        IoParameters parameters = IoParameters.createDefaults();
+        DatasetOutput<QuantityValue> metadata = DatasetOutput.create(parameters);
+        SimpleCsvIoHandler<QuantityValue> handler = new SimpleCsvIoHandler<>(parameters,
+                                                                             null,
+                                                                             Collections.singletonList(metadata));
+        QuantityData data = new QuantityData();
+        data.addNewValue(createValue(0L, "12.50"));
+        data.addNewValue(createValue(1000L, "10"));
+        data.addNewValue(createValue(2000L, "1.5"));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        handler.writeData(metadata, data, stream);
+        String[] rows = new String(stream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(rows.length, is(3));
+        assertThat(rows[0], is(";1970-01-01T00:00:00.000Z;12.50"));
+        assertThat(rows[1], is(";1970-01-01T00:00:01.000Z;10"));
+        assertThat(rows[2], is(";1970-01-01T00:00:02.000Z;1.5"));
+    }
+
+    private QuantityValue createValue(long millis, String value) {
+        QuantityValue quantityValue = new QuantityValue();
+        quantityValue.setTimestamp(new TimeOutput(new DateTime(millis, DateTimeZone.UTC)));
+        quantityValue.setValue(new BigDecimal(value));
+        return quantityValue;
+    }
+
+}
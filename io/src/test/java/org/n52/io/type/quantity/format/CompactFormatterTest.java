@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.format;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.n52.io.TvpDataCollection;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CompactFormatterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(
+            JsonInclude.Include.NON_NULL);
+
+    @Test
+    public void when_formattingRegularSeries_then_stepIsWritten() throws IOException {
+        QuantityData data = new QuantityData().addValue(1_000L, 1.5d)
+                                              .addNoDataValue(61_000L)
+                                              .addValue(121_000L, -3.25d);
+
+        JsonNode series = format(data);
+        assertThat(series.get("start")
+                         .asLong(),
+                   Is.is(1_000L));
+        assertThat(series.get("step")
+                         .asLong(),
+                   Is.is(60_000L));
+        assertThat(series.has("deltas"), Is.is(false));
+        assertThat(series.get("values"), Is.is(readTree("[1.5,null,-3.25]")));
+    }
+
+    @Test
+    public void when_formattingIrregularSeries_then_deltasAreWritten() throws IOException {
+        QuantityData data = new QuantityData().addValue(1_000L, 1d)
+                                              .addValue(2_000L, 2d)
+                                              .addValue(4_000L, 3d);
+
+        JsonNode series = format(data);
+        assertThat(series.has("step"), Is.is(false));
+        assertThat(series.get("deltas"), Is.is(readTree("[1000,2000]")));
+        assertThat(series.get("values"), Is.is(readTree("[1.0,2.0,3.0]")));
+    }
+
+    @Test
+    public void when_formattingSingleValue_then_neitherStepNorDeltasAreWritten() throws IOException {
+        JsonNode series = format(new QuantityData().addValue(1_000L, 1d));
+        assertThat(series.get("start")
+                         .asLong(),
+                   Is.is(1_000L));
+        assertThat(series.has("step"), Is.is(false));
+        assertThat(series.has("deltas"), Is.is(false));
+    }
+
+    @Test
+    public void when_formattingEmptySeries_then_valuesAreEmpty() throws IOException {
+        JsonNode series = format(new QuantityData());
+        assertThat(series.has("start"), Is.is(false));
+        assertThat(series.get("values")
+                         .size(),
+                   Is.is(0));
+    }
+
+    @Test
+    public void when_creatingCompactFormat_then_compactFormatterIsReturned() {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Parameters.FORMAT, "compact");
+        assertThat(FormatterFactory.createFormatterFactory(parameters)
+                                   .create() instanceof CompactFormatter,
+                   Is.is(true));
+    }
+
+    private JsonNode format(QuantityData data) throws IOException {
+        TvpDataCollection<Data<QuantityValue>> collection = new TvpDataCollection<>();
+        collection.addNewSeries("test", data);
+        Object output = new CompactFormatter().format(collection)
+                                              .getSeriesOutput();
+        return readTree(objectMapper.writeValueAsString(output)).get("test");
+    }
+
+    private JsonNode readTree(String json) throws IOException {
+        return objectMapper.readTree(json);
+    }
+
+}
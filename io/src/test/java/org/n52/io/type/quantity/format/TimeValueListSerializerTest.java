@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.format;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.n52.io.TvpDataCollection;
+import org.n52.io.response.TimeOutput;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TimeValueListSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void when_serializingHighchartData_then_timeValuePairsAreWritten() throws IOException {
+        TvpDataCollection<Data<QuantityValue>> data = new TvpDataCollection<>();
+        data.addNewSeries("test", createData());
+        HighchartDataCollection collection = new HighchartFormatter().format(data);
+
+        JsonNode series = readTree(collection.getSeriesOutput()).get(0);
+        assertThat(series.get("name")
+                         .asText(),
+                   Is.is("test"));
+        assertThat(series.get("data"), Is.is(readTree("[[0,1.5],[1,null],[2,-3.25]]")));
+    }
+
+    @Test
+    public void when_serializingFlotData_then_referenceValuesAreWrittenAsPairs() throws IOException {
+        QuantityData data = createData();
+        DatasetMetadata<QuantityValue> metadata = new DatasetMetadata<>();
+        QuantityData referenceValues = new QuantityData().addValue(0L, 10d);
+        metadata.setReferenceValues(Collections.singletonMap("ref", referenceValues));
+        metadata.setValueBeforeTimespan(data.getValueAt(0));
+        metadata.setValueAfterTimespan(data.getValueAt(2));
+        data.setMetadata(metadata);
+        TvpDataCollection<Data<QuantityValue>> collection = new TvpDataCollection<>();
+        collection.addNewSeries("test", data);
+
+        JsonNode series = readTree(new FlotFormatter().format(collection)
+                                                      .getSeriesOutput()).get("test");
+        assertThat(series.get("values"), Is.is(readTree("[[0,1.5],[1,null],[2,-3.25]]")));
+        assertThat(series.get("referenceValues")
+                         .get("ref"),
+                   Is.is(readTree("[[0,10.0]]")));
+        assertThat(series.get("valueAfterTimespan"), Is.is(readTree("[2,-3.25]")));
+    }
+
+    @Test
+    public void when_accessingFormattedValues_then_pairsAreCreated() {
+        TvpDataCollection<Data<QuantityValue>> data = new TvpDataCollection<>();
+        data.addNewSeries("test", createData());
+        List<Number[]> values = new HighchartFormatter().format(data)
+                                                         .getSeries("test")
+                                                         .getData();
+        assertThat(values.size(), Is.is(3));
+        assertThat(Arrays.asList(values.get(1)), Is.is(Arrays.<Number> asList(1L, null)));
+    }
+
+    @Test
+    public void when_accessingUnscaledValues_then_noDecimalsAreCreated() {
+        TvpDataCollection<Data<QuantityValue>> data = new TvpDataCollection<>();
+        data.addNewSeries("test", createData());
+        List<Number[]> values = new HighchartFormatter().format(data)
+                                                         .getSeries("test")
+                                                         .getData();
+        assertThat(Arrays.asList(values.get(2)), Is.is(Arrays.<Number> asList(2L, -3.25d)));
+    }
+
+    @Test
+    public void when_serializingPlainList_then_pairsAreWritten() throws IOException {
+        HighchartData series = new HighchartData();
+        series.setData(Collections.singletonList(new Number[] { 1L, 2.5d }));
+        assertThat(readTree(series).get("data"), Is.is(readTree("[[1,2.5]]")));
+    }
+
+    @Test
+    public void when_serializingScaledDecimals_then_numberTextIsKept() throws IOException {
+        Data<QuantityValue> data = new Data<>();
+        data.addNewValue(createValue(0L, "12.50"));
+        data.addNewValue(createValue(1L, "10"));
+        TvpDataCollection<Data<QuantityValue>> collection = new TvpDataCollection<>();
+        collection.addNewSeries("test", data);
+
+        HighchartData series = new HighchartFormatter().format(collection)
+                                                       .getSeries("test");
+        assertThat(objectMapper.writeValueAsString(series.getData()), Is.is("[[0,12.50],[1,10]]"));
+    }
+
+    private QuantityData createData() {
+        return new QuantityData().addValue(0L, 1.5d)
+                                 .addNoDataValue(1L)
+                                 .addValue(2L, -3.25d);
+    }
+
+    private JsonNode readTree(Object value) throws IOException {
+        return objectMapper.readTree(objectMapper.writeValueAsString(value));
+    }
+
+    private JsonNode readTree(String json) throws IOException {
+        return objectMapper.readTree(json);
+    }
+
+    private QuantityValue createValue(long timestamp, String value) {
+        QuantityValue quantityValue = new QuantityValue();
+        quantityValue.setTimestamp(new TimeOutput(timestamp, false));
+        quantityValue.setValue(new BigDecimal(value));
+        return quantityValue;
+    }
+
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.handler.arrow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.DictionaryBatch;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.flatbuf.Schema;
+import org.apache.arrow.flatbuf.Type;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.Test;
+import org.n52.io.handler.BatchProcessChain;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.series.spi.srv.DataBatch;
+
+public class ArrowIoHandlerTest {
+
+    @Test
+    public void when_writingStream_then_schemaHasTimestampAndValueColumns() throws Exception {
+        List<IpcMessage> messages = write(IoParameters.createDefaults(),
+                                          Arrays.asList(new DataBatch<>("ds_1",
+                                                                        new QuantityData().addValue(1_000L, 1d))));
+
+        Schema schema = (Schema) messages.get(0).message.header(new Schema());
+        assertThat(schema.fieldsLength(), is(3));
+        assertThat(schema.fields(0)
+                         .name(),
+                   is(ArrowStreamWriter.DATASET));
+        assertThat(schema.fields(1)
+                         .typeType(),
+                   is(Type.Timestamp));
+        assertThat(schema.fields(2)
+                         .typeType(),
+                   is(Type.FloatingPoint));
+        assertThat(schema.fields(2)
+                         .nullable(),
+                   is(true));
+    }
+
+    @Test
+    public void when_showingTimeIntervals_then_schemaHasTimestartColumn() throws Exception {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Parameters.SHOW_TIME_INTERVALS, "true");
+        List<IpcMessage> messages = write(parameters,
+                                          Arrays.asList(new DataBatch<>("ds_1",
+                                                                        new QuantityData().addValue(500L,
+                                                                                                    1_000L,
+                                                                                                    1d))));
+
+        Schema schema = (Schema) messages.get(0).message.header(new Schema());
+        assertThat(schema.fieldsLength(), is(4));
+        assertThat(schema.fields(3)
+                         .name(),
+                   is(ArrowStreamWriter.TIMESTART));
+
+        IpcMessage batch = messages.get(messages.size() - 1);
+        assertThat(batch.getLong(3, 0), is(500L));
+        assertThat(batch.getLong(1, 0), is(1_000L));
+    }
+
+    @Test
+    public void when_writingChunks_then_oneRecordBatchPerChunk() throws Exception {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Parameters.DATASETS, "ds_1");
+        List<IpcMessage> messages = write(parameters,
+                                          Arrays.asList(new DataBatch<>("ds_1",
+                                                                        new QuantityData().addValue(1_000L, 1.5d)
+                                                                                          .addNoDataValue(2_000L)),
+                                                        new DataBatch<>("ds_1", new QuantityData()),
+                                                        new DataBatch<>("ds_1",
+                                                                        new QuantityData().addValue(3_000L, 2d)),
+                                                        new DataBatch<>("ds_2",
+                                                                        new QuantityData().addValue(4_000L, 3d))));
+
+        // schema, dictionary, 2 batches ds_1, dictionary delta, 1 batch ds_2
+        assertThat(messages.size(), is(6));
+        assertThat(messages.get(1).message.headerType(), is(MessageHeader.DictionaryBatch));
+        assertThat(messages.get(4).message.headerType(), is(MessageHeader.DictionaryBatch));
+        DictionaryBatch delta = (DictionaryBatch) messages.get(4).message.header(new DictionaryBatch());
+        assertThat(delta.isDelta(), is(true));
+        assertThat(messages.get(4)
+                           .getString(0),
+                   is("ds_2"));
+
+        IpcMessage first = messages.get(2);
+        assertThat(first.message.headerType(), is(MessageHeader.RecordBatch));
+        assertThat(first.batch.length(), is(2L));
+        assertThat(first.batch.nodes(2)
+                              .nullCount(),
+                   is(1L));
+        assertThat(first.getInt(0, 0), is(0));
+        assertThat(first.getLong(1, 1), is(2_000L));
+        assertThat(first.getDouble(2, 0), is(1.5d));
+        assertThat(first.isValid(2, 0), is(true));
+        assertThat(first.isValid(2, 1), is(false));
+
+        IpcMessage last = messages.get(5);
+        assertThat(last.batch.length(), is(1L));
+        assertThat(last.getInt(0, 0), is(1));
+        assertThat(last.getDouble(2, 0), is(3d));
+    }
+
+    @Test
+    public void when_readingWithArrowStreamReader_then_valuesAreDecoded() throws Exception {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Parameters.DATASETS, "ds_1");
+        List<DataBatch<Data<QuantityValue>>> batches = Arrays.asList(
+                new DataBatch<>("ds_1", new QuantityData().addValue(1_000L, 1.5d)
+                                                          .addNoDataValue(2_000L)),
+                new DataBatch<>("ds_2", new QuantityData().addValue(3_000L, 2d)));
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new ArrowIoHandler(parameters, new BatchProcessChain<>(batches)).writeBinary(stream);
+
+        List<String> rows = new ArrayList<>();
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+                ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream.toByteArray()),
+                                                                 allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                // dictionary is complete (including deltas) once a batch referencing it is loaded
+                VarCharVector datasets = (VarCharVector) reader.lookup(ArrowStreamWriter.DATASET_DICTIONARY_ID)
+                                                               .getVector();
+                IntVector datasetIndices = (IntVector) root.getVector(ArrowStreamWriter.DATASET);
+                TimeStampMilliTZVector timestamps = (TimeStampMilliTZVector) root.getVector(
+                        ArrowStreamWriter.TIMESTAMP);
+                Float8Vector values = (Float8Vector) root.getVector(ArrowStreamWriter.VALUE);
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    String dataset = new String(datasets.get(datasetIndices.get(i)), StandardCharsets.UTF_8);
+                    rows.add(dataset + "," + timestamps.get(i) + "," + values.getObject(i));
+                }
+            }
+        }
+        assertThat(rows, is(Arrays.asList("ds_1,1000,1.5", "ds_1,2000,null", "ds_2,3000,2.0")));
+    }
+
+    private List<IpcMessage> write(IoParameters parameters, List<DataBatch<Data<QuantityValue>>> batches)
+            throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new ArrowIoHandler(parameters, new BatchProcessChain<>(batches)).writeBinary(stream);
+        ByteBuffer buffer = ByteBuffer.wrap(stream.toByteArray())
+                                      .order(ByteOrder.LITTLE_ENDIAN);
+
+        List<IpcMessage> messages = new ArrayList<>();
+        while (true) {
+            assertThat(buffer.getInt(), is(0xFFFFFFFF));
+            int metadataLength = buffer.getInt();
+            if (metadataLength == 0) {
+                assertThat(buffer.hasRemaining(), is(false));
+                return messages;
+            }
+            assertThat((buffer.position() + metadataLength) % 8, is(0));
+            ByteBuffer metadata = slice(buffer, metadataLength);
+            Message message = Message.getRootAsMessage(metadata);
+            ByteBuffer body = slice(buffer, (int) message.bodyLength());
+            messages.add(new IpcMessage(message, body));
+        }
+    }
+
+    private ByteBuffer slice(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice()
+                                 .order(ByteOrder.LITTLE_ENDIAN);
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static final class IpcMessage {
+
+        private final Message message;
+
+        private final RecordBatch batch;
+
+        private final ByteBuffer body;
+
+        IpcMessage(Message message, ByteBuffer body) {
+            this.message = message;
+            this.body = body;
+            if (message.headerType() == MessageHeader.RecordBatch) {
+                batch = (RecordBatch) message.header(new RecordBatch());
+            } else if (message.headerType() == MessageHeader.DictionaryBatch) {
+                batch = ((DictionaryBatch) message.header(new DictionaryBatch())).data();
+            } else {
+                batch = null;
+            }
+        }
+
+        // each column has a validity buffer followed by its data buffer(s)
+
+        boolean isValid(int column, int index) {
+            Buffer validity = batch.buffers(2 * column);
+            return validity.length() == 0
+                    || (body.get((int) validity.offset() + (index >> 3)) & (1 << (index & 7))) != 0;
+        }
+
+        int getInt(int column, int index) {
+            return body.getInt((int) batch.buffers(2 * column + 1)
+                                          .offset()
+                    + 4 * index);
+        }
+
+        long getLong(int column, int index) {
+            return body.getLong((int) batch.buffers(2 * column + 1)
+                                           .offset()
+                    + 8 * index);
+        }
+
+        double getDouble(int column, int index) {
+            return body.getDouble((int) batch.buffers(2 * column + 1)
+                                             .offset()
+                    + 8 * index);
+        }
+
+        String getString(int index) {
+            int offsets = (int) batch.buffers(1)
+                                     .offset();
+            int start = body.getInt(offsets + 4 * index);
+            int end = body.getInt(offsets + 4 * (index + 1));
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = body.get((int) batch.buffers(2)
+                                               .offset()
+                        + start + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.type.quantity.handler.cbor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.n52.io.handler.BatchProcessChain;
+import org.n52.io.handler.IoHandler;
+import org.n52.io.handler.JsonIoHandler;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.series.spi.srv.DataBatch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+public class CborIoHandlerTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    @Test
+    public void when_decodingCbor_then_valuesEqualJsonOutput() throws Exception {
+        List<DataBatch<Data<QuantityValue>>> batches = Arrays.asList(
+                new DataBatch<>("ds_1", new QuantityData().addValue(1_000L, 1.5d)
+                                                          .addNoDataValue(2_000L)),
+                new DataBatch<>("ds_1", new QuantityData().addValue(62_000L, -0.1d)),
+                new DataBatch<>("ds_2", new QuantityData().addValue(1_500_000_000_000L, 42d)));
+
+        JsonNode json = jsonMapper.readTree(write(new JsonIoHandler<>(IoParameters.createDefaults(),
+                                                                      new BatchProcessChain<>(batches))));
+        JsonNode cbor = cborMapper.readTree(write(new CborIoHandler(IoParameters.createDefaults(),
+                                                                    new BatchProcessChain<>(batches))));
+
+        assertThat(cbor.size(), is(json.size()));
+        Iterator<String> datasetIds = json.fieldNames();
+        while (datasetIds.hasNext()) {
+            String datasetId = datasetIds.next();
+            JsonNode jsonValues = json.get(datasetId)
+                                      .get("values");
+            JsonNode cborValues = cbor.get(datasetId)
+                                      .get("values");
+            assertThat(cborValues.size(), is(2 * jsonValues.size()));
+            long timestamp = 0L;
+            for (int i = 0; i < jsonValues.size(); i++) {
+                timestamp += cborValues.get(2 * i)
+                                       .asLong();
+                JsonNode jsonValue = jsonValues.get(i);
+                assertThat(timestamp, is(toMillis(jsonValue.get("timestamp"))));
+                JsonNode cborValue = cborValues.get(2 * i + 1);
+                assertThat(cborValue.isNull(), is(jsonValue.get("value")
+                                                           .isNull()));
+                assertThat(cborValue.asDouble(), is(jsonValue.get("value")
+                                                            .asDouble()));
+            }
+        }
+    }
+
+    @Test
+    public void when_encodingTimestamps_then_deltasAreWritten() throws Exception {
+        List<DataBatch<Data<QuantityValue>>> batches = Arrays.asList(
+                new DataBatch<>("ds_1", new QuantityData().addValue(1_000L, 1d)
+                                                          .addValue(61_000L, 2d)));
+        JsonNode cbor = cborMapper.readTree(write(new CborIoHandler(IoParameters.createDefaults(),
+                                                                    new BatchProcessChain<>(batches))));
+        JsonNode values = cbor.get("ds_1")
+                              .get("values");
+        assertThat(values.get(0)
+                         .asLong(),
+                   is(1_000L));
+        assertThat(values.get(2)
+                         .asLong(),
+                   is(60_000L));
+        assertThat(values.get(3)
+                         .isDouble(),
+                   is(true));
+    }
+
+    private long toMillis(JsonNode timestamp) {
+        return timestamp.isNumber()
+                ? timestamp.asLong()
+                : DateTime.parse(timestamp.asText())
+                          .getMillis();
+    }
+
+    private byte[] write(IoHandler<Data<QuantityValue>> handler) throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        handler.writeBinary(stream);
+        return stream.toByteArray();
+    }
+
+}
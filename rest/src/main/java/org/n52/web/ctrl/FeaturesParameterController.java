@@ -30,19 +30,58 @@ package org.n52.web.ctrl;
 
 import org.n52.io.request.IoParameters;
 import org.n52.io.response.FeatureOutput;
+import org.n52.series.spi.geo.SimplifyingParameterService;
+import org.n52.series.spi.geo.SpatialIndexParameterService;
 import org.n52.series.spi.srv.CountingMetadataService;
 import org.n52.series.spi.srv.ParameterService;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping(path = UrlSettings.COLLECTION_FEATURES)
-public class FeaturesParameterController extends ParameterRequestMappingAdapter<FeatureOutput> {
+public class FeaturesParameterController extends ParameterRequestMappingAdapter<FeatureOutput>
+        implements DisposableBean {
 
+    private final SpatialIndexParameterService<FeatureOutput> spatialIndex;
+
+    /**
+     * @param counter
+     *        the counting service
+     * @param service
+     *        the feature service
+     * @param spatialIndexRefreshInterval
+     *        the interval in seconds a spatial index for <code>bbox</code> and <code>near</code> queries gets
+     *        rebuilt in. If not positive, spatial filters are evaluated by the feature service.
+     */
     @Autowired
-    public FeaturesParameterController(CountingMetadataService counter, ParameterService<FeatureOutput> service) {
-        super(counter, service);
+    public FeaturesParameterController(CountingMetadataService counter,
+                                       ParameterService<FeatureOutput> service,
+                                       @Value("${spatialIndexRefreshInterval:0}") long spatialIndexRefreshInterval) {
+        this(counter,
+             service,
+             spatialIndexRefreshInterval > 0
+                     ? SpatialIndexParameterService.forFeatures(service, spatialIndexRefreshInterval)
+                     : null);
+    }
+
+    private FeaturesParameterController(CountingMetadataService counter,
+                                        ParameterService<FeatureOutput> service,
+                                        SpatialIndexParameterService<FeatureOutput> spatialIndex) {
+        super(counter,
+              SimplifyingParameterService.forFeatures(spatialIndex != null
+                      ? spatialIndex
+                      : service));
+        this.spatialIndex = spatialIndex;
+    }
+
+    @Override
+    public void destroy() {
+        if (spatialIndex != null) {
+            spatialIndex.shutdown();
+        }
     }
 
     @Override
@@ -30,6 +30,7 @@ package org.n52.web.ctrl;
 
 import org.n52.io.request.IoParameters;
 import org.n52.io.response.GeometryOutput;
+import org.n52.series.spi.geo.SimplifyingParameterService;
 import org.n52.series.spi.geo.TransformingGeometryOutputService;
 import org.n52.series.spi.srv.CountingMetadataService;
 import org.n52.series.spi.srv.ParameterService;
@@ -43,7 +44,8 @@ public class GeometriesController extends ParameterRequestMappingAdapter<Geometr
 
     @Autowired
     public GeometriesController(CountingMetadataService counter, ParameterService<GeometryOutput> parameterService) {
-        super(counter, new TransformingGeometryOutputService(parameterService));
+        super(counter,
+              new TransformingGeometryOutputService(SimplifyingParameterService.forGeometries(parameterService)));
     }
 
     @Override
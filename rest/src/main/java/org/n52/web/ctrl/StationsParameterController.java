@@ -37,6 +37,7 @@ import org.n52.io.request.IoParameters;
 import org.n52.io.request.Parameters;
 import org.n52.io.response.OutputCollection;
 import org.n52.io.response.dataset.StationOutput;
+import org.n52.series.spi.geo.SpatialIndexParameterService;
 import org.n52.series.spi.geo.TransformingStationOutputService;
 import org.n52.series.spi.srv.CountingMetadataService;
 import org.n52.series.spi.srv.ParameterService;
@@ -48,7 +49,9 @@ import org.n52.web.exception.ResourceNotFoundException;
 import org.n52.web.exception.SpiAssertionExceptionAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -63,7 +66,7 @@ import org.springframework.web.servlet.ModelAndView;
 @RequestMapping(value = UrlSettings.COLLECTION_STATIONS, produces = {
     "application/json"
 })
-public class StationsParameterController extends BaseController implements ResourceController {
+public class StationsParameterController extends BaseController implements ResourceController, DisposableBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StationsParameterController.class);
 
@@ -71,14 +74,39 @@ public class StationsParameterController extends BaseController implements Resou
 
     private final CountingMetadataService counter;
 
+    private final SpatialIndexParameterService<StationOutput> spatialIndex;
+
+    /**
+     * @param counter
+     *        the counting service
+     * @param service
+     *        the station service
+     * @param spatialIndexRefreshInterval
+     *        the interval in seconds a spatial index for <code>bbox</code> and <code>near</code> queries gets
+     *        rebuilt in. If not positive, spatial filters are evaluated by the station service.
+     */
     @Autowired
     public StationsParameterController(CountingMetadataService counter,
-                                       ParameterService<StationOutput> service) {
-        ParameterService<StationOutput> transformingService = new TransformingStationOutputService(service);
+                                       ParameterService<StationOutput> service,
+                                       @Value("${spatialIndexRefreshInterval:0}") long spatialIndexRefreshInterval) {
+        this.spatialIndex = spatialIndexRefreshInterval > 0
+                ? SpatialIndexParameterService.forStations(service, spatialIndexRefreshInterval)
+                : null;
+        ParameterService<StationOutput> indexedService = spatialIndex != null
+                ? spatialIndex
+                : service;
+        ParameterService<StationOutput> transformingService = new TransformingStationOutputService(indexedService);
         this.parameterService = new SpiAssertionExceptionAdapter<>(transformingService);
         this.counter = counter;
     }
 
+    @Override
+    public void destroy() {
+        if (spatialIndex != null) {
+            spatialIndex.shutdown();
+        }
+    }
+
     @Override
     public String getCollectionName() {
         return UrlSettings.COLLECTION_STATIONS;
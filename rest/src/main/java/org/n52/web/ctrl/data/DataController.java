@@ -33,7 +33,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Map;
 import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
@@ -49,14 +48,14 @@ import org.n52.io.IntervalWithTimeZone;
 import org.n52.io.handler.DatasetFactoryException;
 import org.n52.io.handler.DefaultIoFactory;
 import org.n52.io.handler.IoHandlerFactory;
-import org.n52.io.handler.IoProcessChain;
+import org.n52.io.handler.IoHandlerException;
+import org.n52.io.handler.JsonIoHandler;
 import org.n52.io.request.IoParameters;
 import org.n52.io.request.Parameters;
 import org.n52.io.request.RequestSimpleParameterSet;
 import org.n52.io.request.RequestStyledParameterSet;
 import org.n52.io.response.dataset.AbstractValue;
 import org.n52.io.response.dataset.Data;
-import org.n52.io.response.dataset.DataCollection;
 import org.n52.io.response.dataset.DatasetOutput;
 import org.n52.series.spi.srv.DataService;
 import org.n52.series.spi.srv.ParameterService;
@@ -105,6 +104,13 @@ public abstract class DataController extends BaseController {
     @Value("${requestIntervalRestriction:P370D}")
     private String requestIntervalRestriction;
 
+    /**
+     * Restricts the timespan of CSV and zip exports which may read data window by window (see
+     * {@link IoHandlerFactory#EXPORT_WINDOW}). Falls back to the general request interval restriction.
+     */
+    @Value("${exportIntervalRestriction:}")
+    private String exportIntervalRestriction;
+
     @Autowired
     public DataController(DefaultIoFactory<DatasetOutput<AbstractValue< ? >>, AbstractValue< ? >> ioFactory,
                           ParameterService<DatasetOutput<AbstractValue< ? >>> datasetService,
@@ -143,14 +149,10 @@ public abstract class DataController extends BaseController {
         // map);
         // String valueType = ValueType.extractType(datasetId, handleAsValueTypeFallback);
         String valueType = getValueType(map, request.getRequestURI());
-        IoProcessChain< ? > ioChain = createIoFactory(valueType).setParameters(map)
-                                                                .createProcessChain();
-
-        DataCollection< ? > formattedDataCollection = ioChain.getProcessedData();
-        final Map<String, ? > processed = formattedDataCollection.getAllSeries();
-        return map.isExpanded()
-                ? new ModelAndView().addObject(processed)
-                : new ModelAndView().addObject(processed.get(datasetId));
+        writeDataAsJson(createIoFactory(valueType).setParameters(map), map.isExpanded()
+                ? null
+                : datasetId, true, response);
+        return null;
     }
 
     @RequestMapping(value = "/observations",
@@ -171,11 +173,117 @@ public abstract class DataController extends BaseController {
 
         // final String datasetType = getValueType(parameters);
         final String valueType = getValueType(parameters, request.getRequestURI());
-        IoProcessChain< ? > ioChain = createIoFactory(valueType).setParameters(parameters)
-                                                                .createProcessChain();
+        // collection data has always been written as retrieved, i.e. without format or result time processing
+        writeDataAsJson(createIoFactory(valueType).setParameters(parameters), null, false, response);
+        return null;
+    }
+
+    private void writeDataAsJson(IoHandlerFactory<DatasetOutput<AbstractValue< ? >>, AbstractValue< ? >> ioFactory,
+                                 String datasetId,
+                                 boolean processing,
+                                 HttpServletResponse response)
+            throws IOException, IoHandlerException {
+        response.setCharacterEncoding(DEFAULT_RESPONSE_ENCODING);
+        response.setContentType(Constants.APPLICATION_JSON);
+        JsonIoHandler<Data<AbstractValue< ? >>> handler = ioFactory.createJsonHandler();
+        handler.setObjectMapper(createObjectMapper());
+        handler.setDatasetId(datasetId);
+        handler.setProcessing(processing);
+        handler.writeBinary(response.getOutputStream());
+    }
+
+    @RequestMapping(value = "/{datasetId}/observations",
+        produces = {
+            Constants.APPLICATION_CBOR
+        },
+        method = RequestMethod.GET)
+    public void getSeriesDataAsCbor(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    @PathVariable String datasetId,
+                                    @RequestHeader(value = Parameters.HttpHeader.ACCEPT_LANGUAGE,
+                                        required = false) String locale,
+                                    @RequestParam(required = false) MultiValueMap<String, String> query)
+            throws Exception {
+        IoParameters parameters = createParameters(datasetId, query, locale, response);
+        LOGGER.debug("get cbor data for item '{}' with query: {}", datasetId, parameters);
+        checkAgainstTimespanRestriction(parameters.getTimespan());
+        checkForUnknownDatasetId(parameters, datasetId);
+
+        String valueType = getValueType(parameters, request.getRequestURI());
+        response.setContentType(Constants.APPLICATION_CBOR);
+        createIoFactory(valueType).setParameters(parameters)
+                                  .createHandler(Constants.APPLICATION_CBOR)
+                                  .writeBinary(response.getOutputStream());
+    }
 
-        DataCollection< ? > processed = ioChain.getData();
-        return new ModelAndView().addObject(processed.getAllSeries());
+    @RequestMapping(value = "/observations",
+        produces = {
+            Constants.APPLICATION_CBOR
+        },
+        method = RequestMethod.POST)
+    public void getCollectionDataAsCbor(HttpServletRequest request,
+                                        HttpServletResponse response,
+                                        @RequestHeader(value = Parameters.HttpHeader.ACCEPT_LANGUAGE,
+                                            required = false) String locale,
+                                        @RequestBody RequestSimpleParameterSet simpleParameters)
+            throws Exception {
+        IoParameters parameters = createParameters(simpleParameters, locale, response);
+        LOGGER.debug("get cbor data collection with parameter set: {}", parameters);
+        checkForUnknownDatasetIds(parameters, parameters.getDatasets());
+        checkAgainstTimespanRestriction(parameters.getTimespan());
+
+        String valueType = getValueType(parameters, request.getRequestURI());
+        response.setContentType(Constants.APPLICATION_CBOR);
+        createIoFactory(valueType).setParameters(parameters)
+                                  .createHandler(Constants.APPLICATION_CBOR)
+                                  .writeBinary(response.getOutputStream());
+    }
+
+    @RequestMapping(value = "/{datasetId}/observations",
+        produces = {
+            Constants.APPLICATION_ARROW_STREAM
+        },
+        method = RequestMethod.GET)
+    public void getSeriesDataAsArrowStream(HttpServletRequest request,
+                                           HttpServletResponse response,
+                                           @PathVariable String datasetId,
+                                           @RequestHeader(value = Parameters.HttpHeader.ACCEPT_LANGUAGE,
+                                               required = false) String locale,
+                                           @RequestParam(required = false) MultiValueMap<String, String> query)
+            throws Exception {
+        IoParameters parameters = createParameters(datasetId, query, locale, response);
+        LOGGER.debug("get arrow stream data for item '{}' with query: {}", datasetId, parameters);
+        checkAgainstTimespanRestriction(parameters.getTimespan());
+        checkForUnknownDatasetId(parameters, datasetId);
+
+        String valueType = getValueType(parameters, request.getRequestURI());
+        response.setContentType(Constants.APPLICATION_ARROW_STREAM);
+        createIoFactory(valueType).setParameters(parameters)
+                                  .createHandler(Constants.APPLICATION_ARROW_STREAM)
+                                  .writeBinary(response.getOutputStream());
+    }
+
+    @RequestMapping(value = "/observations",
+        produces = {
+            Constants.APPLICATION_ARROW_STREAM
+        },
+        method = RequestMethod.POST)
+    public void getCollectionDataAsArrowStream(HttpServletRequest request,
+                                               HttpServletResponse response,
+                                               @RequestHeader(value = Parameters.HttpHeader.ACCEPT_LANGUAGE,
+                                                   required = false) String locale,
+                                               @RequestBody RequestSimpleParameterSet simpleParameters)
+            throws Exception {
+        IoParameters parameters = createParameters(simpleParameters, locale, response);
+        LOGGER.debug("get arrow stream data collection with parameter set: {}", parameters);
+        checkForUnknownDatasetIds(parameters, parameters.getDatasets());
+        checkAgainstTimespanRestriction(parameters.getTimespan());
+
+        String valueType = getValueType(parameters, request.getRequestURI());
+        response.setContentType(Constants.APPLICATION_ARROW_STREAM);
+        createIoFactory(valueType).setParameters(parameters)
+                                  .createHandler(Constants.APPLICATION_ARROW_STREAM)
+                                  .writeBinary(response.getOutputStream());
     }
 
     // private String getValueType(IoParameters parameters) {
@@ -303,7 +411,7 @@ public abstract class DataController extends BaseController {
 
         IoParameters parameters = createParameters(datasetId, query, locale, response);
         LOGGER.debug("get data collection zip for '{}' with query: {}", datasetId, parameters);
-        checkAgainstTimespanRestriction(parameters.getTimespan());
+        checkAgainstExportTimespanRestriction(parameters.getTimespan());
         checkForUnknownDatasetId(parameters, datasetId);
 
         response.setCharacterEncoding(DEFAULT_RESPONSE_ENCODING);
@@ -331,7 +439,7 @@ public abstract class DataController extends BaseController {
             throws Exception {
         IoParameters parameters = createParameters(datasetId, query, locale, response);
         LOGGER.debug("get data collection csv for '{}' with query: {}", datasetId, parameters);
-        checkAgainstTimespanRestriction(parameters.getTimespan());
+        checkAgainstExportTimespanRestriction(parameters.getTimespan());
         checkForUnknownDatasetId(parameters, datasetId);
 
         String extension = ".";
@@ -357,13 +465,24 @@ public abstract class DataController extends BaseController {
     }
 
     protected void checkAgainstTimespanRestriction(IntervalWithTimeZone timespan) {
-        if (requestIntervalRestriction != null) {
-            Duration duration = Period.parse(requestIntervalRestriction)
+        checkAgainstTimespanRestriction(timespan, requestIntervalRestriction);
+    }
+
+    protected void checkAgainstExportTimespanRestriction(IntervalWithTimeZone timespan) {
+        checkAgainstTimespanRestriction(timespan,
+                                        exportIntervalRestriction == null || exportIntervalRestriction.isEmpty()
+                                                ? requestIntervalRestriction
+                                                : exportIntervalRestriction);
+    }
+
+    private void checkAgainstTimespanRestriction(IntervalWithTimeZone timespan, String restriction) {
+        if (restriction != null) {
+            Duration duration = Period.parse(restriction)
                                       .toDurationFrom(new DateTime());
             if (duration.getMillis() < Interval.parse(timespan.toString())
                                                .toDurationMillis()) {
                 throw new BadRequestException("Timespan too long, please use a period shorter than '"
-                        + requestIntervalRestriction
+                        + restriction
                         + "'");
             }
         }
@@ -424,4 +543,15 @@ public abstract class DataController extends BaseController {
         this.requestIntervalRestriction = requestIntervalRestriction;
     }
 
+    public String getExportIntervalRestriction() {
+        return exportIntervalRestriction;
+    }
+
+    public void setExportIntervalRestriction(String exportIntervalRestriction) {
+        // validate exportIntervalRestriction, if it's no period an exception occured
+        Period.parse(exportIntervalRestriction);
+        LOGGER.debug("CONFIG: export.interval.restriction={}", exportIntervalRestriction);
+        this.exportIntervalRestriction = exportIntervalRestriction;
+    }
+
 }
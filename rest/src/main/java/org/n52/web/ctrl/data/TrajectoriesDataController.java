@@ -36,6 +36,7 @@ import org.n52.io.request.IoParameters;
 import org.n52.io.response.dataset.AbstractValue;
 import org.n52.io.response.dataset.Data;
 import org.n52.io.response.dataset.DatasetOutput;
+import org.n52.series.spi.geo.SimplifyingDataService;
 import org.n52.series.spi.srv.DataService;
 import org.n52.series.spi.srv.ParameterService;
 import org.n52.web.ctrl.UrlSettings;
@@ -54,7 +55,7 @@ public class TrajectoriesDataController extends DataController {
     public TrajectoriesDataController(DefaultIoFactory<DatasetOutput<AbstractValue< ? >>, AbstractValue< ? >> ioFactory,
                                       ParameterService<DatasetOutput<AbstractValue< ? >>> datasetService,
                                       DataService<Data<AbstractValue< ? >>> dataService) {
-        super(ioFactory, datasetService, dataService);
+        super(ioFactory, datasetService, new SimplifyingDataService<>(dataService));
     }
 
     @Override
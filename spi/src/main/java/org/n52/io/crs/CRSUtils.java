@@ -28,12 +28,24 @@
  */
 package org.n52.io.crs;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
 import org.geotools.factory.Hints;
 import org.geotools.geometry.jts.JTS;
 import org.geotools.referencing.CRS;
 import org.geotools.referencing.CRS.AxisOrder;
 import org.geotools.referencing.ReferencingFactoryFinder;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
@@ -49,6 +61,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * Assists with referencing operations. Instances are thread-safe and cache created reference systems and
+ * transformations, so it is cheap to get the shared instances via {@link #createEpsgStrictAxisOrder()} or
+ * {@link #createEpsgForcedXYAxisOrder()} whenever needed.
+ */
 public final class CRSUtils {
 
     public static final int EPSG_WGS84 = 4326;
@@ -62,12 +79,34 @@ public final class CRSUtils {
 
     private static final String EPSG_PREFIX = "EPSG:";
 
+    /**
+     * Amount of points from which on bulk transformations are split into chunks transformed in parallel on a
+     * dedicated fork-join pool, so large transformations do not occupy the common pool.
+     */
+    private static final int PARALLEL_TRANSFORM_THRESHOLD = 16384;
+
+    private static final int TRANSFORM_CHUNK_SIZE = 4096;
+
+    private static volatile CRSUtils strictAxisOrder;
+
+    private static volatile CRSUtils forcedXYAxisOrder;
+
     /**
      * Internally used spatial reference frame.
      */
-    private static CoordinateReferenceSystem internCrs;
+    private final CoordinateReferenceSystem internCrs;
+
+    private final CRSAuthorityFactory crsFactory;
+
+    /**
+     * Reference systems by authority code.
+     */
+    private final Map<String, CoordinateReferenceSystem> crsCache = new ConcurrentHashMap<>();
 
-    protected CRSAuthorityFactory crsFactory;
+    /**
+     * Transformations by source and target authority code.
+     */
+    private final Map<String, Map<String, MathTransform>> transformCache = new ConcurrentHashMap<>();
 
     /**
      * use static constructors to create an instance.
@@ -196,7 +235,7 @@ public final class CRSUtils {
      *         if transformation fails for any other reason
      */
     public Point transformOuterToInner(Point point, String srcFrame) throws FactoryException, TransformException {
-        return (Point) transform(point, getCrsFor(srcFrame), internCrs);
+        return (Point) transform(point, srcFrame, DEFAULT_CRS);
     }
 
     /**
@@ -216,7 +255,7 @@ public final class CRSUtils {
     public Geometry transformOuterToInner(Geometry geometry, String srcFrame)
             throws FactoryException,
             TransformException {
-        return transform(geometry, getCrsFor(srcFrame), internCrs);
+        return transform(geometry, srcFrame, DEFAULT_CRS);
     }
 
     /**
@@ -236,7 +275,7 @@ public final class CRSUtils {
     public Geometry transformInnerToOuter(Geometry geometry, String destFrame)
             throws FactoryException,
             TransformException {
-        return transform(geometry, internCrs, getCrsFor(destFrame));
+        return transform(geometry, DEFAULT_CRS, destFrame);
     }
 
     /**
@@ -258,25 +297,227 @@ public final class CRSUtils {
     public Geometry transform(Geometry geometry, String srcFrame, String destFrame)
             throws FactoryException,
             TransformException {
-        return transform(geometry, getCrsFor(srcFrame), getCrsFor(destFrame));
+        MathTransform transform = getTransform(srcFrame, destFrame);
+        return checkSrid(JTS.transform(geometry, transform), getCrsFor(srcFrame), getCrsFor(destFrame));
+    }
+
+    /**
+     * Transforms the given geometries from their inner reference (which is WGS84 (CRS:84)) to a given
+     * reference.
+     *
+     * @param geometries
+     *        the geometries to transform, may contain <code>null</code> elements.
+     * @param destFrame
+     *        the CRS authority code the given geometries shall be transformed to.
+     * @return the transformed geometries in the same order.
+     * @throws FactoryException
+     *         if the creation of {@link CoordinateReferenceSystem} fails or no appropriate
+     *         {@link MathTransform} could be created.
+     * @throws TransformException
+     *         if transformation fails for any other reason.
+     * @see #transform(List, String, String)
+     */
+    public List<Geometry> transformInnerToOuter(List<Geometry> geometries, String destFrame)
+            throws FactoryException,
+            TransformException {
+        return transform(geometries, DEFAULT_CRS, destFrame);
     }
 
-    private Geometry transform(Geometry geometry,
-                               CoordinateReferenceSystem srs,
-                               CoordinateReferenceSystem dest)
+    /**
+     * Transforms the given geometries from a given reference to a destinated reference. Instead of
+     * transforming geometry by geometry, the coordinates of all geometries are transformed at once (in
+     * parallel chunks for large amounts of coordinates). The given geometries stay unchanged.
+     *
+     * @param geometries
+     *        the geometries to transform, may contain <code>null</code> elements.
+     * @param srcFrame
+     *        the reference the given geometries are in.
+     * @param destFrame
+     *        the reference frame the geometries shall be transformed to.
+     * @return the transformed geometries in the same order.
+     * @throws FactoryException
+     *         if the creation of {@link CoordinateReferenceSystem} fails or no appropriate
+     *         {@link MathTransform} could be created.
+     * @throws TransformException
+     *         if transformation fails for any other reason.
+     */
+    public List<Geometry> transform(List<Geometry> geometries, String srcFrame, String destFrame)
             throws FactoryException,
             TransformException {
-        return checkSrid(JTS.transform(geometry, CRS.findMathTransform(srs, dest)), srs, dest);
+        MathTransform transform = getTransform(srcFrame, destFrame);
+        List<Geometry> transformed = new ArrayList<>(geometries.size());
+        if ((transform.getSourceDimensions() != 2) || (transform.getTargetDimensions() != 2)) {
+            for (Geometry geometry : geometries) {
+                transformed.add(geometry != null
+                    ? transform(geometry, srcFrame, destFrame)
+                    : null);
+            }
+            return transformed;
+        }
+        int numPoints = 0;
+        for (Geometry geometry : geometries) {
+            Geometry copy = geometry != null
+                ? geometry.copy()
+                : null;
+            numPoints += copy != null
+                ? copy.getNumPoints()
+                : 0;
+            transformed.add(copy);
+        }
+        OrdinatesFilter filter = new OrdinatesFilter(numPoints);
+        transformed.forEach(geometry -> filter.apply(geometry, false));
+        transformOrdinates(transform, filter.ordinates, numPoints);
+        filter.reset();
+        transformed.forEach(geometry -> filter.apply(geometry, true));
+
+        CoordinateReferenceSystem srs = getCrsFor(srcFrame);
+        CoordinateReferenceSystem dest = getCrsFor(destFrame);
+        for (Geometry geometry : transformed) {
+            if (geometry != null) {
+                checkSrid(geometry, srs, dest);
+            }
+        }
+        return transformed;
     }
 
-    private Geometry checkSrid(Geometry geometry, CoordinateReferenceSystem srs, CoordinateReferenceSystem dest)
-            throws FactoryException {
-        if (!srs.equals(dest) && CRS.equalsIgnoreMetadata(dest, getCrsFor(DEFAULT_CRS))) {
+    private static void transformOrdinates(MathTransform transform, double[] ordinates, int numPoints)
+            throws TransformException {
+        if (numPoints < PARALLEL_TRANSFORM_THRESHOLD) {
+            transform.transform(ordinates, 0, ordinates, 0, numPoints);
+            return;
+        }
+        int chunks = (numPoints + TRANSFORM_CHUNK_SIZE - 1) / TRANSFORM_CHUNK_SIZE;
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int offset = chunk * TRANSFORM_CHUNK_SIZE;
+            int length = Math.min(TRANSFORM_CHUNK_SIZE, numPoints - offset);
+            tasks.add(() -> {
+                transform.transform(ordinates, offset * 2, ordinates, offset * 2, length);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : TransformPool.POOL.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new TransformException("Interrupted while transforming coordinates.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransformException) {
+                throw (TransformException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TransformException("Could not transform coordinates.", cause);
+        }
+    }
+
+    /**
+     * Gets the transformation between the given reference frames. Once created, transformations are cached.
+     *
+     * @param srcFrame
+     *        the CRS authority code of the source reference frame.
+     * @param destFrame
+     *        the CRS authority code of the target reference frame.
+     * @return the transformation from source to target reference frame.
+     * @throws FactoryException
+     *         if the creation of {@link CoordinateReferenceSystem} fails or no appropriate
+     *         {@link MathTransform} could be created.
+     */
+    public MathTransform getTransform(String srcFrame, String destFrame) throws FactoryException {
+        String srcCode = normalizeCode(srcFrame);
+        String destCode = normalizeCode(destFrame);
+        Map<String, MathTransform> transforms = transformCache.computeIfAbsent(srcCode,
+                                                                               k -> new ConcurrentHashMap<>());
+        MathTransform transform = transforms.get(destCode);
+        if (transform == null) {
+            transform = CRS.findMathTransform(getCrsFor(srcCode), getCrsFor(destCode));
+            MathTransform present = transforms.putIfAbsent(destCode, transform);
+            if (present != null) {
+                transform = present;
+            }
+        }
+        return transform;
+    }
+
+    private Geometry checkSrid(Geometry geometry, CoordinateReferenceSystem srs, CoordinateReferenceSystem dest) {
+        if (!srs.equals(dest) && CRS.equalsIgnoreMetadata(dest, internCrs)) {
             geometry.setSRID(EPSG_WGS84);
         }
         return geometry;
     }
 
+    /**
+     * Reads x/y ordinates of geometries into a single array, or writes them back.
+     */
+    private static final class OrdinatesFilter implements CoordinateSequenceFilter {
+
+        private final double[] ordinates;
+
+        private int index;
+
+        private boolean write;
+
+        OrdinatesFilter(int numPoints) {
+            this.ordinates = new double[numPoints * 2];
+        }
+
+        void apply(Geometry geometry, boolean writeBack) {
+            if (geometry != null) {
+                this.write = writeBack;
+                geometry.apply(this);
+            }
+        }
+
+        void reset() {
+            index = 0;
+        }
+
+        @Override
+        public void filter(CoordinateSequence sequence, int i) {
+            if (write) {
+                sequence.setOrdinate(i, CoordinateSequence.X, ordinates[index++]);
+                sequence.setOrdinate(i, CoordinateSequence.Y, ordinates[index++]);
+            } else {
+                ordinates[index++] = sequence.getX(i);
+                ordinates[index++] = sequence.getY(i);
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return false;
+        }
+
+        @Override
+        public boolean isGeometryChanged() {
+            return write;
+        }
+    }
+
+    /**
+     * Lazily created pool for parallel bulk transformations, bounded to the number of available processors.
+     */
+    private static final class TransformPool {
+
+        private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime()
+                                                                         .availableProcessors(),
+                                                                  TransformPool::createThread,
+                                                                  null,
+                                                                  false);
+
+        private static ForkJoinWorkerThread createThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("crs-transform-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     public Geometry parseWkt(String wkt) {
         try {
             return new WKTReader().read(wkt);
@@ -301,7 +542,8 @@ public final class CRSUtils {
 
     /**
      * Gets the propert coordinate reference system defined for the given authority code. If no matching CRS
-     * could be found the default {@link #internCrs} is being returned.
+     * could be found the default {@link #internCrs} is being returned. Once created, reference systems are
+     * cached.
      *
      * @param authorityCode
      *        the CRS code, like <code>EPSG:4326</code> or <code>CRS:84</code>.
@@ -311,10 +553,25 @@ public final class CRSUtils {
      *         if creating CRS failed.
      */
     private CoordinateReferenceSystem getCrsFor(String authorityCode) throws FactoryException {
-        if ((authorityCode == null) || DEFAULT_CRS.equalsIgnoreCase(authorityCode)) {
+        String code = normalizeCode(authorityCode);
+        if (DEFAULT_CRS.equals(code)) {
             return internCrs;
         }
-        return crsFactory.createCoordinateReferenceSystem(authorityCode);
+        CoordinateReferenceSystem crs = crsCache.get(code);
+        if (crs == null) {
+            crs = crsFactory.createCoordinateReferenceSystem(code);
+            CoordinateReferenceSystem present = crsCache.putIfAbsent(code, crs);
+            if (present != null) {
+                crs = present;
+            }
+        }
+        return crs;
+    }
+
+    private static String normalizeCode(String authorityCode) {
+        return (authorityCode == null) || DEFAULT_CRS.equalsIgnoreCase(authorityCode)
+            ? DEFAULT_CRS
+            : authorityCode;
     }
 
     /**
@@ -339,7 +596,8 @@ public final class CRSUtils {
 
     /**
      * Creates an {@link CRSUtils} which offers assistance when doing spatial opererations. Strict means that
-     * all CRS defined with lat/lon axis ordering will be handled as defined.
+     * all CRS defined with lat/lon axis ordering will be handled as defined. The instance is created once and
+     * shared afterwards.
      *
      * @return creates a reference helper which (strictly) handles referencing operations.
      * @throws IllegalStateException
@@ -355,21 +613,42 @@ public final class CRSUtils {
          * FORCE_LONGITUDE_FIRST_AXIS_ORDER parameter is preferred to org.geotools.referencing.forceXY so we
          * have to set it explicitly to find the correct CRS factory.
          */
-        Hints hints = new Hints(Hints.FORCE_LONGITUDE_FIRST_AXIS_ORDER, false);
-        return createEpsgReferenceHelper(hints);
+        CRSUtils instance = strictAxisOrder;
+        if (instance == null) {
+            synchronized (CRSUtils.class) {
+                instance = strictAxisOrder;
+                if (instance == null) {
+                    Hints hints = new Hints(Hints.FORCE_LONGITUDE_FIRST_AXIS_ORDER, false);
+                    instance = createEpsgReferenceHelper(hints);
+                    strictAxisOrder = instance;
+                }
+            }
+        }
+        return instance;
     }
 
     /**
      * Creates a {@link CRSUtils} which offers assistance when doing spatial opererations. Forcing XY means
-     * that CRS axis ordering is considered lon/lat ordering, even if defined lat/lon.
+     * that CRS axis ordering is considered lon/lat ordering, even if defined lat/lon. The instance is created
+     * once and shared afterwards.
      *
      * @return creates a reference helper which (strictly) handles referencing operations.
      * @throws IllegalStateException
      *         if decoding default CRS fails.
      */
     public static CRSUtils createEpsgForcedXYAxisOrder() {
-        Hints hints = new Hints(Hints.FORCE_LONGITUDE_FIRST_AXIS_ORDER, true);
-        return createEpsgReferenceHelper(hints);
+        CRSUtils instance = forcedXYAxisOrder;
+        if (instance == null) {
+            synchronized (CRSUtils.class) {
+                instance = forcedXYAxisOrder;
+                if (instance == null) {
+                    Hints hints = new Hints(Hints.FORCE_LONGITUDE_FIRST_AXIS_ORDER, true);
+                    instance = createEpsgReferenceHelper(hints);
+                    forcedXYAxisOrder = instance;
+                }
+            }
+        }
+        return instance;
     }
 
     /**
@@ -61,6 +61,26 @@ public class WGS84Util {
         return Math.acos(aProd + bProd) * EARTH_MEAN_RADIUS;
     }
 
+    /**
+     * Calculates the distance between two points on a great circle using the haversine formula. Other than
+     * {@link #shortestDistanceBetween(Point, Point)} it is well conditioned for small distances and gives
+     * <code>0</code> for identical points.
+     *
+     * @param a a point.
+     * @param b another point.
+     * @return the distance between point A and point B in kilometer.
+     */
+    public static double haversineDistanceBetween(Point a, Point b) {
+        double aYinRad = Math.toRadians(a.getY());
+        double bYinRad = Math.toRadians(b.getY());
+        double sinHalfDeltaY = Math.sin((bYinRad - aYinRad) / 2);
+        double sinHalfDeltaX = Math.sin(Math.toRadians(b.getX() - a.getX()) / 2);
+        double h = sinHalfDeltaY * sinHalfDeltaY
+                + Math.cos(aYinRad) * Math.cos(bYinRad) * sinHalfDeltaX * sinHalfDeltaX;
+        // rounding may exceed 1 for antipodal points
+        return 2 * Math.asin(Math.sqrt(Math.min(1, h))) * EARTH_MEAN_RADIUS;
+    }
+
     /**
      * Calculates the longitude delta for a given distance.
      *
@@ -46,10 +46,11 @@ public class FeatureOutputSerializer extends JsonSerializer<GeoJSONFeature> {
     @Override
     public void serialize(GeoJSONFeature value, JsonGenerator gen, SerializerProvider serializers)
             throws IOException, JsonProcessingException {
-        writeFeature(value, gen);
+        writeFeature(value, gen, GeoJSONStreamingEncoder.of(serializers));
     }
 
-    private void writeFeature(GeoJSONFeature value, JsonGenerator gen) throws IOException {
+    private void writeFeature(GeoJSONFeature value, JsonGenerator gen, GeoJSONStreamingEncoder encoder)
+            throws IOException {
         gen.writeStartObject();
         gen.writeStringField("id", value.getId());
         Map<String, Object> properties = value.getProperties();
@@ -58,19 +59,19 @@ public class FeatureOutputSerializer extends JsonSerializer<GeoJSONFeature> {
         }
         if (value.isSetGeometry()) {
             gen.writeStringField("type", "Feature");
-            gen.writeObjectField("geometry", encodeGeometry(value));
+            gen.writeFieldName("geometry");
+            writeGeometry(value.getGeometry(), gen, encoder);
         }
         gen.writeEndObject();
     }
 
-    private Object encodeGeometry(GeoJSONFeature value) {
+    private void writeGeometry(Geometry geometry, JsonGenerator gen, GeoJSONStreamingEncoder encoder)
+            throws IOException {
         try {
-            final GeoJSONEncoder enc = new GeoJSONEncoder();
-            final Geometry geometry = value.getGeometry();
-            return enc.encodeGeometry(geometry);
+            encoder.writeGeometry(geometry, gen);
         } catch (GeoJSONException e) {
             LOGGER.error("could not properly encode geometry.", e);
-            return null;
+            gen.writeNull();
         }
     }
 
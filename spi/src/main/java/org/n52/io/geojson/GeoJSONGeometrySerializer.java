@@ -47,8 +47,8 @@ public class GeoJSONGeometrySerializer extends JsonSerializer<Geometry> {
     public void serialize(Geometry geometry, JsonGenerator gen, SerializerProvider serializers)
             throws IOException, JsonProcessingException {
         try {
-            final GeoJSONEncoder enc = new GeoJSONEncoder();
-            gen.writeObject(enc.encodeGeometry(geometry));
+            GeoJSONStreamingEncoder.of(serializers)
+                                   .writeGeometry(geometry, gen);
         } catch (GeoJSONException e) {
             LOGGER.error("could not properly encode geometry.", e);
         }
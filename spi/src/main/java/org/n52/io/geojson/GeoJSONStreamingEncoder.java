@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.geojson;
+
+import java.io.IOException;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Writes geometries as GeoJSON directly to a {@link JsonGenerator}. Produces the same output as
+ * {@link GeoJSONEncoder} without building a JSON tree first. Use {@link GeoJSONEncoder} in case the
+ * {@link com.fasterxml.jackson.databind.node.ObjectNode} is needed.
+ * <p>
+ * Coordinates can be rounded to a fixed amount of decimals to shrink payloads. Serializers read that precision
+ * from the {@value #COORDINATE_PRECISION} attribute, e.g. configured via
+ * <code>objectMapper.setDefaultAttributes(ContextAttributes.getEmpty().withSharedAttribute(...))</code>.
+ * </p>
+ */
+public class GeoJSONStreamingEncoder {
+
+    /**
+     * Serialization attribute holding the amount of decimals coordinates are rounded to.
+     */
+    public static final String COORDINATE_PRECISION = "geojson.coordinate.precision";
+
+    /**
+     * Precision not rounding coordinates at all.
+     */
+    public static final int FULL_PRECISION = -1;
+
+    private static final int MAX_PRECISION = 15;
+
+    // beyond, scaled values can not be rounded exactly
+    private static final double MAX_SCALED_VALUE = 1L << 52;
+
+    private final int precision;
+
+    private final double scale;
+
+    public GeoJSONStreamingEncoder() {
+        this(FULL_PRECISION);
+    }
+
+    /**
+     * @param precision
+     *        the amount of decimals coordinates are rounded to, or {@link #FULL_PRECISION}
+     */
+    public GeoJSONStreamingEncoder(int precision) {
+        this.precision = precision < 0
+                ? FULL_PRECISION
+                : Math.min(precision, MAX_PRECISION);
+        this.scale = Math.pow(10, this.precision);
+    }
+
+    /**
+     * @param serializers
+     *        the provider holding the {@value #COORDINATE_PRECISION} attribute
+     * @return an encoder respecting the configured precision
+     */
+    public static GeoJSONStreamingEncoder of(SerializerProvider serializers) {
+        Object precision = serializers != null
+                ? serializers.getAttribute(COORDINATE_PRECISION)
+                : null;
+        return precision instanceof Number
+                ? new GeoJSONStreamingEncoder(((Number) precision).intValue())
+                : new GeoJSONStreamingEncoder();
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Writes the given geometry, or <code>null</code> in case the geometry is <code>null</code> or empty.
+     *
+     * @param geometry
+     *        the geometry to write
+     * @param gen
+     *        the generator to write to
+     * @throws IOException
+     *         if writing fails
+     * @throws GeoJSONException
+     *         if the geometry type is unknown
+     */
+    public void writeGeometry(Geometry geometry, JsonGenerator gen) throws IOException, GeoJSONException {
+        if (geometry == null) {
+            gen.writeNull();
+        } else {
+            writeGeometry(geometry, GeoJSONEncoder.DEFAULT_SRID, gen);
+        }
+    }
+
+    public void writeGeometry(Geometry geometry, int parentSrid, JsonGenerator gen)
+            throws IOException,
+            GeoJSONException {
+        if (geometry.isEmpty()) {
+            gen.writeNull();
+        } else if (geometry instanceof Point) {
+            writeStart(JSONConstants.POINT, gen);
+            writeCoordinates((Point) geometry, gen);
+            writeEnd(geometry, parentSrid, gen);
+        } else if (geometry instanceof LineString) {
+            writeStart(JSONConstants.LINE_STRING, gen);
+            writeCoordinates(((LineString) geometry).getCoordinateSequence(), gen);
+            writeEnd(geometry, parentSrid, gen);
+        } else if (geometry instanceof Polygon) {
+            writeStart(JSONConstants.POLYGON, gen);
+            writeCoordinates((Polygon) geometry, gen);
+            writeEnd(geometry, parentSrid, gen);
+        } else if (geometry instanceof MultiPoint) {
+            writeStart(JSONConstants.MULTI_POINT, gen);
+            gen.writeStartArray();
+            for (int i = 0; i < geometry.getNumGeometries(); ++i) {
+                writeCoordinates((Point) geometry.getGeometryN(i), gen);
+            }
+            gen.writeEndArray();
+            writeEnd(geometry, parentSrid, gen);
+        } else if (geometry instanceof MultiLineString) {
+            writeStart(JSONConstants.MULTI_LINE_STRING, gen);
+            gen.writeStartArray();
+            for (int i = 0; i < geometry.getNumGeometries(); ++i) {
+                writeCoordinates(((LineString) geometry.getGeometryN(i)).getCoordinateSequence(), gen);
+            }
+            gen.writeEndArray();
+            writeEnd(geometry, parentSrid, gen);
+        } else if (geometry instanceof MultiPolygon) {
+            writeStart(JSONConstants.MULTI_POLYGON, gen);
+            gen.writeStartArray();
+            for (int i = 0; i < geometry.getNumGeometries(); ++i) {
+                writeCoordinates((Polygon) geometry.getGeometryN(i), gen);
+            }
+            gen.writeEndArray();
+            writeEnd(geometry, parentSrid, gen);
+        } else if (geometry instanceof GeometryCollection) {
+            writeCollection((GeometryCollection) geometry, parentSrid, gen);
+        } else {
+            throw new GeoJSONException("unknown geometry type " + geometry.getGeometryType());
+        }
+    }
+
+    private void writeCollection(GeometryCollection geometry, int parentSrid, JsonGenerator gen)
+            throws IOException,
+            GeoJSONException {
+        int srid = getSrid(geometry.getSRID(), parentSrid);
+        gen.writeStartObject();
+        gen.writeStringField(JSONConstants.TYPE, JSONConstants.GEOMETRY_COLLECTION);
+        gen.writeArrayFieldStart(JSONConstants.GEOMETRIES);
+        for (int i = 0; i < geometry.getNumGeometries(); ++i) {
+            writeGeometry(geometry.getGeometryN(i), srid, gen);
+        }
+        gen.writeEndArray();
+        writeCrs(srid, parentSrid, gen);
+        gen.writeEndObject();
+    }
+
+    private void writeStart(String type, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField(JSONConstants.TYPE, type);
+        gen.writeFieldName(JSONConstants.COORDINATES);
+    }
+
+    private void writeEnd(Geometry geometry, int parentSrid, JsonGenerator gen) throws IOException {
+        writeCrs(getSrid(geometry.getSRID(), parentSrid), parentSrid, gen);
+        gen.writeEndObject();
+    }
+
+    private void writeCoordinates(Point geometry, JsonGenerator gen) throws IOException {
+        writeCoordinate(geometry.getCoordinate(), gen);
+    }
+
+    private void writeCoordinates(Polygon geometry, JsonGenerator gen) throws IOException {
+        gen.writeStartArray();
+        writeCoordinates(geometry.getExteriorRing()
+                                 .getCoordinateSequence(),
+                         gen);
+        for (int i = 0; i < geometry.getNumInteriorRing(); ++i) {
+            writeCoordinates(geometry.getInteriorRingN(i)
+                                     .getCoordinateSequence(),
+                             gen);
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeCoordinates(CoordinateSequence coordinates, JsonGenerator gen) throws IOException {
+        gen.writeStartArray();
+        for (int i = 0; i < coordinates.size(); ++i) {
+            writeCoordinate(coordinates.getCoordinate(i), gen);
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeCoordinate(Coordinate coordinate, JsonGenerator gen) throws IOException {
+        gen.writeStartArray();
+        writeOrdinate(coordinate.x, gen);
+        writeOrdinate(coordinate.y, gen);
+        if (!Double.isNaN(coordinate.getZ())) {
+            writeOrdinate(coordinate.getZ(), gen);
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeOrdinate(double value, JsonGenerator gen) throws IOException {
+        gen.writeNumber(round(value));
+    }
+
+    double round(double value) {
+        if (precision == FULL_PRECISION || Double.isNaN(value) || Double.isInfinite(value)) {
+            return value;
+        }
+        double scaled = value * scale;
+        return Math.abs(scaled) < MAX_SCALED_VALUE
+                // dividing the rounded long gives the double closest to the decimal
+                ? Math.round(scaled) / scale
+                : value;
+    }
+
+    private static int getSrid(int srid, int parentSrid) {
+        return isInheritedSrid(srid, parentSrid)
+                ? parentSrid
+                : srid;
+    }
+
+    private static boolean isInheritedSrid(int srid, int parentSrid) {
+        return srid == parentSrid
+                || srid == 0
+                || (parentSrid == GeoJSONEncoder.DEFAULT_SRID && srid == GeoJSONEncoder.DEFAULT_SRID);
+    }
+
+    private void writeCrs(int srid, int parentSrid, JsonGenerator gen) throws IOException {
+        if (srid != parentSrid) {
+            gen.writeObjectFieldStart(JSONConstants.CRS);
+            gen.writeStringField(JSONConstants.TYPE, JSONConstants.LINK);
+            gen.writeObjectFieldStart(JSONConstants.PROPERTIES);
+            gen.writeStringField(JSONConstants.HREF, GeoJSONEncoder.SRID_LINK_PREFIX + srid);
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+    }
+
+}
@@ -31,12 +31,11 @@ package org.n52.io.request;
 import static java.util.stream.Collectors.toSet;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URISyntaxException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -46,13 +45,20 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Instant;
+import org.joda.time.Period;
 import org.joda.time.format.DateTimeFormatter;
 import org.locationtech.jts.geom.Point;
 import org.n52.io.IntervalWithTimeZone;
@@ -76,14 +82,11 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 
 public final class IoParameters implements Parameters {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(IoParameters.class);
 
-    private static final String DEFAULT_CONFIG_FILE = "config-general.json";
-
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private static final ODataFesParser ODATA_PARSER = new ODataFesParser();
@@ -92,7 +95,34 @@ public final class IoParameters implements Parameters {
 
     private static final String SPLIT_REGEX = "\\,";
 
-    private final MultiValueMap<String, JsonNode> query;
+    /**
+     * Parameters which only affect the presentation of an output, but not its content.
+     */
+    public static final Set<String> PRESENTATION_PARAMETERS = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(LOCALE.toLowerCase(), BASE_64.toLowerCase())));
+
+    /**
+     * Parameters holding comma separated values where the order is irrelevant.
+     */
+    private static final Set<String> UNORDERED_PARAMETERS = Stream.of(CATEGORIES, CATEGORY, SERVICES, SERVICE,
+            OFFERINGS, OFFERING, FEATURES, FEATURE, PROCEDURES, PROCEDURE, PHENOMENA, PHENOMENON, STATIONS,
+            STATION, PLATFORMS, SERIES, TIMESERIES, DATASETS, SAMPLINGS, MEASURING_PROGRAMS, RESULTTIMES,
+            FILTER_FIELDS, FILTER_PLATFORM_GEOMETRIES, FILTER_OBSERVED_GEOMETRIES, FILTER_DATASET_TYPES,
+            FILTER_OBSERVATION_TYPES, FILTER_VALUE_TYPES, GEOMETRY_TYPES)
+            .map(String::toLowerCase)
+            .collect(toSet());
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Defaults shared by all instances derived from each other.
+     */
+    private final Map<String, List<JsonNode>> defaults;
+
+    /**
+     * Query parameters overriding the {@link #defaults}. Derived instances share unchanged parameters.
+     */
+    private final ParameterOverlay query;
 
     private final FilterResolver filterResolver;
 
@@ -100,12 +130,17 @@ public final class IoParameters implements Parameters {
 
     private BiConsumer<String, IoParseException> parseExceptionHandle;
 
+    /**
+     * Lazily parsed values derived from the (immutable) parameters of this instance.
+     */
+    private final Map<String, Object> memoized = new ConcurrentHashMap<>();
+
     protected IoParameters() {
         this(Collections.<String, JsonNode> emptyMap());
     }
 
     protected IoParameters(IoParameters other) {
-        this(other.query);
+        this(other.defaults, other.query);
     }
 
     protected IoParameters(Map<String, JsonNode> queryParameters) {
@@ -113,8 +148,8 @@ public final class IoParameters implements Parameters {
     }
 
     protected IoParameters(Map<String, JsonNode> queryParameters, File defaults) {
-        this(defaults);
-        query.setAll(mergeToLowerCasedKeys(queryParameters));
+        this(ParameterDefaults.getDefaults(defaults).getSnapshot(),
+             ParameterOverlay.ofSingleValues(mergeToLowerCasedKeys(queryParameters)));
     }
 
     protected IoParameters(MultiValueMap<String, JsonNode> queryParameters) {
@@ -122,50 +157,22 @@ public final class IoParameters implements Parameters {
     }
 
     protected IoParameters(MultiValueMap<String, JsonNode> queryParameters, File defaults) {
-        this(defaults);
-        if (queryParameters != null) {
-            query.putAll(mergeToLowerCasedKeys(queryParameters));
-        }
-    }
-
-    private IoParameters(File defaultConfig) {
-        MultiValueMap<String, JsonNode> config = new LinkedMultiValueMap<>();
-        config.setAll(readDefaultConfig(defaultConfig));
-        query = mergeToLowerCasedKeys(config);
-        filterResolver = new FilterResolver(this);
-    }
-
-    private Map<String, JsonNode> readDefaultConfig(File config) {
-        try (InputStream stream = config == null
-            ? getDefaultConfigFile()
-            : new FileInputStream(config)) {
-            return OBJECT_MAPPER.readValue(stream,
-                                           TypeFactory.defaultInstance()
-                                                      .constructMapLikeType(HashMap.class,
-                                                                            String.class,
-                                                                            JsonNode.class));
-        } catch (IOException e) {
-            LOGGER.trace("Could not load '{}'", DEFAULT_CONFIG_FILE, e);
-            LOGGER.info("Config could not be loaded (switch to TRACE to see details).");
-            return new HashMap<>();
-        }
+        this(ParameterDefaults.getDefaults(defaults).getSnapshot(),
+             queryParameters != null
+                 ? ParameterOverlay.of(mergeToLowerCasedKeys(queryParameters))
+                 : ParameterOverlay.empty());
     }
 
-    private static InputStream getDefaultConfigFile() {
-        try {
-            Path path = Paths.get(IoParameters.class.getResource("/")
-                                                    .toURI());
-            File config = path.resolve(DEFAULT_CONFIG_FILE)
-                              .toFile();
-            final String fallbackPath = "/" + DEFAULT_CONFIG_FILE;
-            return config.exists()
-                ? new FileInputStream(config)
-                : IoParameters.class.getClassLoader()
-                                    .getResourceAsStream(fallbackPath);
-        } catch (URISyntaxException | IOException e) {
-            LOGGER.debug("Could not find default config under '{}'", DEFAULT_CONFIG_FILE, e);
-            return null;
-        }
+    /**
+     * @param defaults
+     *        the (shared) snapshot of default values
+     * @param queryParameters
+     *        the lower cased query parameters overriding the defaults
+     */
+    private IoParameters(Map<String, List<JsonNode>> defaults, ParameterOverlay queryParameters) {
+        this.defaults = defaults;
+        this.query = queryParameters;
+        this.filterResolver = new FilterResolver(this);
     }
 
     public boolean shallBehaveBackwardsCompatible() {
@@ -251,6 +258,45 @@ public final class IoParameters implements Parameters {
         return getAsBoolean(GENERALIZE, DEFAULT_GENERALIZE);
     }
 
+    /**
+     * Gets the tolerance (in degrees) geometries shall be simplified with. An explicit {@value #SIMPLIFY}
+     * tolerance is preferred, otherwise the tolerance is derived from {@value #ZOOM} so that it matches the
+     * size of a pixel of 256 pixel map tiles at that zoom level.
+     *
+     * @return the tolerance to simplify geometries with, or <code>0</code> if geometries shall not be
+     *         simplified.
+     * @throws IoParseException
+     *         if parsing parameter fails.
+     */
+    public double getSimplifyTolerance() {
+        if (containsParameter(SIMPLIFY)) {
+            Double tolerance = handleSimpleValueParseException(SIMPLIFY, this::parseTolerance);
+            return tolerance != null
+                ? tolerance
+                : 0;
+        }
+        if (containsParameter(ZOOM)) {
+            int zoom = getAsInteger(ZOOM);
+            if (zoom < 0 || zoom > MAX_ZOOM) {
+                throw createIoParseException(ZOOM).addHint("Zoom level must be between 0 and " + MAX_ZOOM + "!");
+            }
+            return 360d / (256L << zoom);
+        }
+        return 0;
+    }
+
+    private double parseTolerance(String parameter) {
+        try {
+            double tolerance = Double.parseDouble(getAsString(parameter));
+            if (tolerance >= 0 && !Double.isInfinite(tolerance)) {
+                return tolerance;
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.debug("Invalid tolerance", e);
+        }
+        throw createIoParseException(parameter).addHint("Value must be a non-negative number!");
+    }
+
     /**
      * @return <code>true</code> if a legend shall be included when rendering a chart, <code>false</code>
      *         otherwise.
@@ -330,10 +376,8 @@ public final class IoParameters implements Parameters {
 
     public String getRawFormat() {
         if (isSetRawFormat()) {
-            final JsonNode value = query.getFirst(RAW_FORMAT);
-            return value != null
-                ? value.asText()
-                : null;
+            return getAsNode(RAW_FORMAT).map(JsonNode::asText)
+                                        .orElse(null);
         }
         return null;
     }
@@ -348,9 +392,9 @@ public final class IoParameters implements Parameters {
      *         if timespan could not be parsed.
      */
     public IntervalWithTimeZone getTimespan() {
-        return containsParameter(TIMESPAN)
+        return memoize(TIMESPAN, () -> containsParameter(TIMESPAN)
             ? validateTimespan(getNormalizedTimespan())
-            : createDefaultTimespan();
+            : createDefaultTimespan());
     }
 
     private String getNormalizedTimespan() {
@@ -392,6 +436,10 @@ public final class IoParameters implements Parameters {
         if (!containsParameter(OUTPUT_TIMEZONE)) {
             return DEFAULT_OUTPUT_TIMEZONE;
         }
+        return memoize(OUTPUT_TIMEZONE, this::parseOutputTimezone);
+    }
+
+    private String parseOutputTimezone() {
         String timezone = getAsString(OUTPUT_TIMEZONE);
         Set<String> availableIDs = DateTimeZone.getAvailableIDs();
         DateTimeZone zone = availableIDs.contains(timezone)
@@ -421,9 +469,13 @@ public final class IoParameters implements Parameters {
      * value after removing special value <code>all</code>. Use {@link #isAllResultTimes()} to check if client
      * requests all result times available.
      *
-     * @return a (probably empty) set of result times.
+     * @return a (probably empty) unmodifiable set of result times.
      */
     public Set<String> getResultTimes() {
+        return memoize(RESULTTIMES, () -> Collections.unmodifiableSet(parseResultTimes()));
+    }
+
+    private Set<String> parseResultTimes() {
         Set<String> resultTimes = csvToSet(getAsString(RESULTTIMES));
         if (resultTimes.contains(RESULT_TIMES_VALUE_ALL)) {
             resultTimes.remove(RESULT_TIMES_VALUE_ALL);
@@ -571,10 +623,15 @@ public final class IoParameters implements Parameters {
         return values;
     }
 
+    /**
+     * @return an unmodifiable set of dataset ids (including those given via deprecated parameters).
+     */
     public Set<String> getDatasets() {
-        Set<String> values = getSeries();
-        values.addAll(getValuesOf(DATASETS));
-        return values;
+        return memoize(DATASETS, () -> {
+            Set<String> values = getSeries();
+            values.addAll(getValuesOf(DATASETS));
+            return Collections.unmodifiableSet(values);
+        });
     }
 
     public Set<String> getSamplings() {
@@ -585,8 +642,11 @@ public final class IoParameters implements Parameters {
         return getValuesOf(MEASURING_PROGRAMS);
     }
 
+    /**
+     * @return an unmodifiable set of (lower cased) output fields to serialize.
+     */
     public Set<String> getFields() {
-        return getValuesOf(FILTER_FIELDS);
+        return memoize(FILTER_FIELDS, () -> Collections.unmodifiableSet(getValuesOf(FILTER_FIELDS)));
     }
 
     public Set<String> getPlatformGeometryTypes() {
@@ -664,7 +724,10 @@ public final class IoParameters implements Parameters {
         if (!containsParameter(NEAR) && !containsParameter(BBOX)) {
             return null;
         }
+        return memoize(BBOX, this::createSpatialFilter);
+    }
 
+    private BoundingBox createSpatialFilter() {
         BoundingBox bboxBounds = createBbox();
         BoundingBox bounds = parseBoundsFromVicinity();
         return mergeBounds(bounds, bboxBounds);
@@ -738,6 +801,20 @@ public final class IoParameters implements Parameters {
     }
 
     private BoundingBox parseBoundsFromVicinity() {
+        Vicinity vicinity = getVicinity();
+        if (vicinity == null) {
+            return null;
+        }
+        BoundingBox bounds = vicinity.calculateBounds();
+        LOGGER.debug("Parsed vicinity bounds: {}", bounds.toString());
+        return bounds;
+    }
+
+    /**
+     * @return the vicinity given via {@value Parameters#NEAR} with its center in {@value CRSUtils#DEFAULT_CRS},
+     *         or <code>null</code> if not present.
+     */
+    public Vicinity getVicinity() {
         if (!containsParameter(NEAR)) {
             return null;
         }
@@ -757,9 +834,7 @@ public final class IoParameters implements Parameters {
         if (containsParameter(CRS)) {
             vicinity.setCenter(convertToCrs84(vicinity.getCenter()));
         }
-        BoundingBox bounds = vicinity.calculateBounds();
-        LOGGER.debug("Parsed vicinity bounds: {}", bounds.toString());
-        return bounds;
+        return vicinity;
     }
 
     private boolean bboxMatching(String value, int repeats) {
@@ -905,8 +980,9 @@ public final class IoParameters implements Parameters {
     }
 
     public boolean containsParameter(String parameter) {
-        return query.containsKey(parameter.toLowerCase())
-                || query.containsKey(parameter);
+        String lowerCased = parameter.toLowerCase();
+        return query.containsKey(lowerCased)
+                || defaults.containsKey(lowerCased);
     }
 
     public String getOther(String parameter) {
@@ -932,9 +1008,11 @@ public final class IoParameters implements Parameters {
     }
 
     private List<JsonNode> getAsNodes(String parameter) {
-        return query.get(parameter) == null
-            ? query.get(parameter.toLowerCase())
-            : query.get(parameter);
+        String lowerCased = parameter.toLowerCase();
+        List<JsonNode> values = query.get(lowerCased);
+        return values != null
+            ? values
+            : defaults.get(lowerCased);
     }
 
     private String asCsv(List<JsonNode> list) {
@@ -1051,6 +1129,34 @@ public final class IoParameters implements Parameters {
         }
     }
 
+    /**
+     * Returns a value derived from the parameters of this instance. The value is computed once per instance
+     * on first access. As instances are immutable (any change creates a new instance) there is no need to
+     * invalidate memoized values. <code>null</code> values are not memoized.
+     *
+     * @param key
+     *        the key under which the value is memoized
+     * @param supplier
+     *        computes the value
+     * @return the memoized value
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T memoize(String key, Supplier<T> supplier) {
+        Object value = memoized.get(key);
+        if (value == null) {
+            // compute outside the map as suppliers may memoize other values
+            T computed = supplier.get();
+            if (computed == null) {
+                return null;
+            }
+            Object previous = memoized.putIfAbsent(key, computed);
+            value = previous != null
+                ? previous
+                : computed;
+        }
+        return (T) value;
+    }
+
     public static JsonNode getJsonNodeFrom(Object object) {
         if (object == null) {
             return null;
@@ -1072,9 +1178,7 @@ public final class IoParameters implements Parameters {
      * @return a new instance with extended key/values
      */
     public IoParameters removeAllOf(String key) {
-        MultiValueMap<String, JsonNode> newValues = new LinkedMultiValueMap<>(query);
-        newValues.remove(key.toLowerCase());
-        return new IoParameters(newValues).setParseExceptionHandle(parseExceptionHandle);
+        return derive(query.without(key.toLowerCase()));
     }
 
     /**
@@ -1094,20 +1198,35 @@ public final class IoParameters implements Parameters {
     }
 
     public IoParameters extendWith(String key, List<String> values) {
-        MultiValueMap<String, String> newValues = new LinkedMultiValueMap<>();
-        newValues.put(key.toLowerCase(), values);
-
-        MultiValueMap<String, JsonNode> mergedValues = new LinkedMultiValueMap<>(query);
-        mergedValues.putAll(convertToJsonNodes(newValues));
-        return new IoParameters(mergedValues).setParseExceptionHandle(parseExceptionHandle);
+        List<JsonNode> newValues = convertToJsonNodes(values);
+        return newValues.isEmpty()
+            ? derive(query)
+            : derive(query.with(key.toLowerCase(), newValues));
     }
 
     public IoParameters replaceWith(String key, String... values) {
-        return removeAllOf(key).extendWith(key, values);
+        return values == null
+            ? replaceWith(key, Collections.emptyList())
+            : replaceWith(key, Arrays.asList(values));
     }
 
     public IoParameters replaceWith(String key, List<String> values) {
-        return removeAllOf(key).extendWith(key, values);
+        List<JsonNode> newValues = convertToJsonNodes(values);
+        return newValues.isEmpty()
+            ? removeAllOf(key)
+            : derive(query.with(key.toLowerCase(), newValues));
+    }
+
+    private IoParameters derive(ParameterOverlay newQuery) {
+        return new IoParameters(defaults, newQuery).setParseExceptionHandle(parseExceptionHandle);
+    }
+
+    private static List<JsonNode> convertToJsonNodes(List<String> values) {
+        List<JsonNode> nodes = new ArrayList<>(values.size());
+        for (String value : values) {
+            nodes.add(getJsonNodeFrom(value));
+        }
+        return nodes;
     }
 
     protected static Map<String, JsonNode> convertValuesToJsonNodes(Map<String, String> queryParameters) {
@@ -1131,12 +1250,121 @@ public final class IoParameters implements Parameters {
         return parameters;
     }
 
+    /**
+     * Creates a canonical fingerprint of all parameters (query and defaults) which can be used as cache key.
+     * Parameter names are lowercased and values of parameters where order is irrelevant (e.g.
+     * {@value #DATASETS}) are sorted. Relative timespans (e.g. <code>PT6H/now</code>) are resolved to the
+     * {@value #FINGERPRINT_TIME_GRANULARITY} (default is {@value #DEFAULT_FINGERPRINT_TIME_GRANULARITY}), so
+     * that the fingerprint stays stable within that period. The fingerprint is computed once per instance.
+     *
+     * @return a fingerprint of all parameters
+     * @see #getFingerprint(Set)
+     */
+    public String getFingerprint() {
+        return getFingerprint(Collections.emptySet());
+    }
+
+    /**
+     * Creates a canonical fingerprint like {@link #getFingerprint()} but excludes the given parameters. Pass
+     * {@link #PRESENTATION_PARAMETERS} to get a fingerprint which ignores parameters like {@value #LOCALE}.
+     *
+     * @param excludedParameters
+     *        the (case insensitive) names of parameters to exclude
+     * @return a fingerprint of all parameters but the excluded ones
+     */
+    public String getFingerprint(Set<String> excludedParameters) {
+        Set<String> excluded = new TreeSet<>();
+        if (excludedParameters != null) {
+            excludedParameters.forEach(parameter -> excluded.add(parameter.toLowerCase()));
+        }
+        return memoize("fingerprint" + excluded, () -> hash(getCanonicalForm(excluded)));
+    }
+
+    String getCanonicalForm(Set<String> excluded) {
+        Map<String, List<JsonNode>> parameters = new TreeMap<>(defaults);
+        parameters.putAll(query.toMap());
+        StringBuilder sb = new StringBuilder();
+        for (Entry<String, List<JsonNode>> entry : parameters.entrySet()) {
+            String parameter = entry.getKey();
+            if (!excluded.contains(parameter)) {
+                String value = canonicalizeValue(parameter, entry.getValue());
+                sb.append(parameter)
+                  .append('=')
+                  .append(value)
+                  .append('&');
+            }
+        }
+        return sb.toString();
+    }
+
+    private String canonicalizeValue(String parameter, List<JsonNode> nodes) {
+        List<String> values = new ArrayList<>(nodes.size());
+        for (JsonNode node : nodes) {
+            values.add(node == null || node.isContainerNode()
+                ? String.valueOf(node)
+                : node.asText());
+        }
+        if (UNORDERED_PARAMETERS.contains(parameter)) {
+            Set<String> sorted = new TreeSet<>();
+            values.forEach(value -> sorted.addAll(Arrays.asList(value.split(SPLIT_REGEX))));
+            return String.join(",", sorted);
+        }
+        String value = String.join(",", values);
+        return TIMESPAN.equalsIgnoreCase(parameter)
+            ? value.replaceAll("(?i)now", getTruncatedNow().toString())
+            : value;
+    }
+
+    private DateTime getTruncatedNow() {
+        long granularity = getFingerprintTimeGranularity();
+        long now = DateTimeUtils.currentTimeMillis();
+        return new DateTime(now - now % granularity, DateTimeZone.UTC);
+    }
+
+    private long getFingerprintTimeGranularity() {
+        String granularity = getAsString(FINGERPRINT_TIME_GRANULARITY, DEFAULT_FINGERPRINT_TIME_GRANULARITY);
+        try {
+            long millis = Period.parse(granularity)
+                                .toStandardDuration()
+                                .getMillis();
+            if (millis > 0) {
+                return millis;
+            }
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            LOGGER.debug("Invalid fingerprint time granularity '{}'", granularity, e);
+        }
+        LOGGER.warn("Invalid parameter '{}': {}. Fall back to {}",
+                    FINGERPRINT_TIME_GRANULARITY,
+                    granularity,
+                    DEFAULT_FINGERPRINT_TIME_GRANULARITY);
+        return Period.parse(DEFAULT_FINGERPRINT_TIME_GRANULARITY)
+                     .toStandardDuration()
+                     .getMillis();
+    }
+
+    private static String hash(String canonicalForm) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(canonicalForm.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported by the platform", e);
+        }
+    }
+
     @Override
     public String toString() {
-        return "IoParameters{ behaveBackwardsCompatible: " + behaveBackwardsCompatible + ", query=" + query + '}';
+        return "IoParameters{ behaveBackwardsCompatible: " + behaveBackwardsCompatible
+                + ", query=" + query
+                + ", defaults=" + defaults + '}';
     }
 
-    protected Map<String, JsonNode> mergeToLowerCasedKeys(Map<String, JsonNode> parameters) {
+    protected static Map<String, JsonNode> mergeToLowerCasedKeys(Map<String, JsonNode> parameters) {
         Map<String, JsonNode> queryParameters = new HashMap<>();
         for (Entry<String, JsonNode> entry : parameters.entrySet()) {
             String parameter = entry.getKey();
@@ -1146,7 +1374,7 @@ public final class IoParameters implements Parameters {
         return queryParameters;
     }
 
-    protected MultiValueMap<String, JsonNode> mergeToLowerCasedKeys(MultiValueMap<String, JsonNode> parameters) {
+    protected static MultiValueMap<String, JsonNode> mergeToLowerCasedKeys(MultiValueMap<String, JsonNode> parameters) {
         MultiValueMap<String, JsonNode> queryParameters = new LinkedMultiValueMap<>();
         for (Entry<String, List<JsonNode>> entry : parameters.entrySet()) {
             String parameter = entry.getKey();
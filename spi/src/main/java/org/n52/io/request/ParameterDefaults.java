@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.request;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * Holds the parameter defaults read from a config file (by default {@value #DEFAULT_CONFIG_FILE} from
+ * the classpath). The config is parsed once per file and kept as an immutable snapshot which all
+ * {@link IoParameters} instances share. A snapshot gets replaced (never modified) on {@link #reload()},
+ * so instances created before a reload keep the values they were created with.
+ */
+public final class ParameterDefaults {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParameterDefaults.class);
+
+    static final String DEFAULT_CONFIG_FILE = "config-general.json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Map<File, ParameterDefaults> CUSTOM_DEFAULTS = new ConcurrentHashMap<>();
+
+    private final File configFile;
+
+    private volatile Map<String, List<JsonNode>> snapshot;
+
+    private Thread watcher;
+
+    private ParameterDefaults(File configFile) {
+        this.configFile = configFile;
+        this.snapshot = readConfig();
+    }
+
+    /**
+     * @return the defaults read from {@value #DEFAULT_CONFIG_FILE}.
+     */
+    public static ParameterDefaults getDefaults() {
+        return ClasspathDefaults.INSTANCE;
+    }
+
+    /**
+     * @param configFile
+     *        the config file to read the defaults from. If <code>null</code> the classpath defaults are
+     *        returned.
+     * @return the defaults read from given config file.
+     */
+    public static ParameterDefaults getDefaults(File configFile) {
+        return configFile == null
+            ? getDefaults()
+            : CUSTOM_DEFAULTS.computeIfAbsent(configFile.getAbsoluteFile(), ParameterDefaults::new);
+    }
+
+    /**
+     * @return an unmodifiable snapshot of the current defaults with lower cased parameter names as keys.
+     */
+    public Map<String, List<JsonNode>> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Re-reads the config file and replaces the current snapshot.
+     */
+    public void reload() {
+        snapshot = readConfig();
+        LOGGER.debug("Reloaded parameter defaults from '{}'", getConfigName());
+    }
+
+    /**
+     * Watches the config file and reloads the defaults on each change. Watching is only possible if the
+     * config resides on the file system (e.g. not within a jar). Calling this method multiple times has no
+     * further effect.
+     */
+    public synchronized void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        Path config = getConfigPath();
+        if (config == null || config.getParent() == null) {
+            LOGGER.info("Config '{}' is not located on a file system. Skip watching changes.", getConfigName());
+            return;
+        }
+        try {
+            WatchService watchService = config.getFileSystem()
+                                              .newWatchService();
+            config.getParent()
+                  .register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+            watcher = new Thread(() -> watch(watchService, config.getFileName()), "parameter-defaults-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+            LOGGER.debug("Watching '{}' for changes.", config);
+        } catch (IOException e) {
+            LOGGER.warn("Could not watch '{}' for changes.", config, e);
+        }
+    }
+
+    /**
+     * Stops watching the config file started via {@link #startWatching()}.
+     */
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher = null;
+        }
+    }
+
+    private void watch(WatchService watchService, Path filename) {
+        try (WatchService service = watchService) {
+            boolean valid = true;
+            while (valid && !Thread.currentThread()
+                                   .isInterrupted()) {
+                WatchKey key = service.take();
+                for (WatchEvent< ? > event : key.pollEvents()) {
+                    if (filename.equals(event.context())) {
+                        reload();
+                        break;
+                    }
+                }
+                valid = key.reset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        } catch (ClosedWatchServiceException | IOException e) {
+            LOGGER.debug("Stopped watching '{}'", getConfigName(), e);
+        }
+    }
+
+    private Map<String, List<JsonNode>> readConfig() {
+        try (InputStream stream = configFile == null
+            ? getDefaultConfigFile()
+            : new FileInputStream(configFile)) {
+            if (stream == null) {
+                throw new IOException("No config found.");
+            }
+            Map<String, JsonNode> config = OBJECT_MAPPER.readValue(stream,
+                                                                   TypeFactory.defaultInstance()
+                                                                              .constructMapLikeType(HashMap.class,
+                                                                                                    String.class,
+                                                                                                    JsonNode.class));
+            return toLowerCasedSnapshot(config);
+        } catch (IOException e) {
+            LOGGER.trace("Could not load '{}'", getConfigName(), e);
+            LOGGER.info("Config could not be loaded (switch to TRACE to see details).");
+            return Collections.emptyMap();
+        }
+    }
+
+    private static Map<String, List<JsonNode>> toLowerCasedSnapshot(Map<String, JsonNode> config) {
+        Map<String, List<JsonNode>> values = new HashMap<>();
+        for (Entry<String, JsonNode> entry : config.entrySet()) {
+            String lowerCasedKey = entry.getKey()
+                                        .toLowerCase();
+            values.put(lowerCasedKey, Collections.singletonList(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    private String getConfigName() {
+        return configFile == null
+            ? DEFAULT_CONFIG_FILE
+            : configFile.getAbsolutePath();
+    }
+
+    private Path getConfigPath() {
+        if (configFile != null) {
+            return configFile.toPath()
+                             .toAbsolutePath();
+        }
+        Path config = resolveFromClasspathRoot();
+        return config != null && config.toFile()
+                                       .exists()
+            ? config
+            : null;
+    }
+
+    private static InputStream getDefaultConfigFile() {
+        try {
+            Path path = resolveFromClasspathRoot();
+            File config = path != null
+                ? path.toFile()
+                : null;
+            final String fallbackPath = "/" + DEFAULT_CONFIG_FILE;
+            return config != null && config.exists()
+                ? new FileInputStream(config)
+                : ParameterDefaults.class.getClassLoader()
+                                         .getResourceAsStream(fallbackPath);
+        } catch (IOException e) {
+            LOGGER.debug("Could not find default config under '{}'", DEFAULT_CONFIG_FILE, e);
+            return null;
+        }
+    }
+
+    private static Path resolveFromClasspathRoot() {
+        try {
+            URL root = ParameterDefaults.class.getResource("/");
+            return root != null
+                ? Paths.get(root.toURI())
+                       .resolve(DEFAULT_CONFIG_FILE)
+                : null;
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            LOGGER.debug("Could not resolve classpath root", e);
+            return null;
+        }
+    }
+
+    private static final class ClasspathDefaults {
+        // lazy holder, parsed on first access
+        private static final ParameterDefaults INSTANCE = new ParameterDefaults(null);
+    }
+
+}
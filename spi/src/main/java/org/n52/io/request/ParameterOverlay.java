@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.request;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * An immutable map of (lower cased) query parameters. Deriving a new map via {@link #with(String, List)} or
+ * {@link #without(String)} does not copy all entries, but creates an overlay holding the changed key only
+ * and pointing to the map it was derived from. Once a chain of overlays exceeds {@link #MAX_DEPTH} it gets
+ * flattened, so lookups stay cheap even for long derivation chains.
+ */
+final class ParameterOverlay {
+
+    private static final int MAX_DEPTH = 8;
+
+    private static final ParameterOverlay EMPTY = new ParameterOverlay(null, Collections.emptyMap());
+
+    private final ParameterOverlay parent;
+
+    /**
+     * Changes compared to {@link #parent}. A <code>null</code> value marks a removed parameter.
+     */
+    private final Map<String, List<JsonNode>> changes;
+
+    private final int depth;
+
+    private ParameterOverlay(ParameterOverlay parent, Map<String, List<JsonNode>> changes) {
+        this.parent = parent;
+        this.changes = changes;
+        this.depth = parent == null
+            ? 0
+            : parent.depth + 1;
+    }
+
+    static ParameterOverlay empty() {
+        return EMPTY;
+    }
+
+    static ParameterOverlay of(Map<String, List<JsonNode>> values) {
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, List<JsonNode>> entries = new HashMap<>();
+        for (Entry<String, List<JsonNode>> entry : values.entrySet()) {
+            entries.put(entry.getKey(), unmodifiable(new ArrayList<>(entry.getValue())));
+        }
+        return new ParameterOverlay(null, entries);
+    }
+
+    static ParameterOverlay ofSingleValues(Map<String, JsonNode> values) {
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, List<JsonNode>> entries = new HashMap<>();
+        for (Entry<String, JsonNode> entry : values.entrySet()) {
+            entries.put(entry.getKey(), Collections.singletonList(entry.getValue()));
+        }
+        return new ParameterOverlay(null, entries);
+    }
+
+    /**
+     * @param key
+     *        the lower cased parameter name
+     * @param values
+     *        the values replacing all current values of the given parameter
+     * @return a new map containing the given parameter values
+     */
+    ParameterOverlay with(String key, List<JsonNode> values) {
+        return derive(key, unmodifiable(values));
+    }
+
+    /**
+     * @param key
+     *        the lower cased parameter name
+     * @return a new map without the given parameter
+     */
+    ParameterOverlay without(String key) {
+        return containsKey(key)
+            ? derive(key, null)
+            : this;
+    }
+
+    boolean containsKey(String key) {
+        ParameterOverlay current = this;
+        while (current != null) {
+            if (current.changes.containsKey(key)) {
+                return current.changes.get(key) != null;
+            }
+            current = current.parent;
+        }
+        return false;
+    }
+
+    List<JsonNode> get(String key) {
+        ParameterOverlay current = this;
+        while (current != null) {
+            if (current.changes.containsKey(key)) {
+                return current.changes.get(key);
+            }
+            current = current.parent;
+        }
+        return null;
+    }
+
+    /**
+     * @return an unmodifiable, flattened view of all parameters.
+     */
+    Map<String, List<JsonNode>> toMap() {
+        Map<String, List<JsonNode>> values = new LinkedHashMap<>();
+        collectInto(values);
+        return Collections.unmodifiableMap(values);
+    }
+
+    private void collectInto(Map<String, List<JsonNode>> values) {
+        if (parent != null) {
+            parent.collectInto(values);
+        }
+        for (Entry<String, List<JsonNode>> entry : changes.entrySet()) {
+            if (entry.getValue() == null) {
+                values.remove(entry.getKey());
+            } else {
+                values.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private ParameterOverlay derive(String key, List<JsonNode> values) {
+        if (depth >= MAX_DEPTH) {
+            Map<String, List<JsonNode>> flattened = new HashMap<>(toMap());
+            if (values == null) {
+                flattened.remove(key);
+            } else {
+                flattened.put(key, values);
+            }
+            return new ParameterOverlay(null, flattened);
+        }
+        return new ParameterOverlay(this, Collections.singletonMap(key, values));
+    }
+
+    private static List<JsonNode> unmodifiable(List<JsonNode> values) {
+        return values == null
+            ? Collections.emptyList()
+            : Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+}
@@ -324,6 +324,21 @@ public interface Parameters {
      */
     String BBOX = "bbox";
 
+    /**
+     * Determines the tolerance (in degrees) geometries get simplified with
+     */
+    String SIMPLIFY = "simplify";
+
+    /**
+     * Determines the map zoom level geometries get simplified for (if no explicit tolerance is given)
+     */
+    String ZOOM = "zoom";
+
+    /**
+     * Highest zoom level geometries get simplified for.
+     */
+    int MAX_ZOOM = 30;
+
     /**
      * Determines the fields filter
      */
@@ -395,6 +410,17 @@ public interface Parameters {
 
     String UNIX_TIME = "unixTime";
 
+    /**
+     * Determines the granularity (an ISO8601 period of fixed length) to which relative timespans (e.g.
+     * <code>PT6H/now</code>) are truncated when creating a request fingerprint: {@value}.
+     */
+    String FINGERPRINT_TIME_GRANULARITY = "fingerprintTimeGranularity";
+
+    /**
+     * The default fingerprint time granularity: {@value}.
+     */
+    String DEFAULT_FINGERPRINT_TIME_GRANULARITY = "PT1M";
+
     /*
      *############### DEPRECATED CONSTANTS
      */
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.response;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Encodes times as ISO 8601 characters (e.g. <code>2019-05-06T13:30:00.000+02:00</code>) into a reusable
+ * buffer, which is the same format as Joda's <code>DateTime#toString()</code>. The offset of the last zone is
+ * kept until its next transition. Instances are not thread-safe.
+ */
+public final class IsoDateTimeEncoder {
+
+    private static final int MIN_YEAR = 1;
+
+    private static final int MAX_YEAR = 9999;
+
+    // yyyy-MM-ddTHH:mm:ss.SSS+HH:mm
+    private final char[] buffer = new char[29];
+
+    private final char[] offsetChars = new char[6];
+
+    private int offsetLength;
+
+    private DateTimeZone zone;
+
+    private int offset;
+
+    private long validFrom;
+
+    private long validUntil;
+
+    /**
+     * Encodes the given time to the characters returned by {@link #getChars()}.
+     *
+     * @param millis
+     *        milliseconds since epoch
+     * @param timezone
+     *        the zone to encode the time in
+     * @return the number of encoded characters, or <code>-1</code> if the time cannot be encoded (offsets not
+     *         being full minutes, years beyond <code>1..9999</code>)
+     */
+    public int encode(long millis, DateTimeZone timezone) {
+        if (!updateOffset(timezone, millis)) {
+            return -1;
+        }
+
+        long localMillis = millis + offset;
+        long days = Math.floorDiv(localMillis, DateTimeConstants.MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(localMillis, DateTimeConstants.MILLIS_PER_DAY);
+
+        // civil date from days since epoch, see http://howardhinnant.github.io/date_algorithms.html
+        long shifted = days + 719_468;
+        long era = Math.floorDiv(shifted, 146_097);
+        int dayOfEra = (int) (shifted - era * 146_097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10
+                ? shiftedMonth + 3
+                : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2
+                ? 1
+                : 0);
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            return -1;
+        }
+
+        write4(0, (int) year);
+        buffer[4] = '-';
+        write2(5, month);
+        buffer[7] = '-';
+        write2(8, day);
+        buffer[10] = 'T';
+        write2(11, millisOfDay / DateTimeConstants.MILLIS_PER_HOUR);
+        buffer[13] = ':';
+        write2(14, millisOfDay / DateTimeConstants.MILLIS_PER_MINUTE % 60);
+        buffer[16] = ':';
+        write2(17, millisOfDay / DateTimeConstants.MILLIS_PER_SECOND % 60);
+        buffer[19] = '.';
+        write3(20, millisOfDay % DateTimeConstants.MILLIS_PER_SECOND);
+        System.arraycopy(offsetChars, 0, buffer, 23, offsetLength);
+        return 23 + offsetLength;
+    }
+
+    /**
+     * @return the buffer holding the characters of the last {@link #encode(long, DateTimeZone)} call
+     */
+    public char[] getChars() {
+        return buffer;
+    }
+
+    private boolean updateOffset(DateTimeZone dateTimeZone, long millis) {
+        if (dateTimeZone.equals(zone) && validFrom <= millis && millis < validUntil) {
+            return true;
+        }
+        int newOffset = dateTimeZone.getOffset(millis);
+        if (newOffset % DateTimeConstants.MILLIS_PER_MINUTE != 0) {
+            return false;
+        }
+        zone = dateTimeZone;
+        offset = newOffset;
+        if (dateTimeZone.isFixed()) {
+            validFrom = Long.MIN_VALUE;
+            validUntil = Long.MAX_VALUE;
+        } else {
+            long nextTransition = dateTimeZone.nextTransition(millis);
+            validFrom = millis;
+            validUntil = nextTransition > millis
+                    ? nextTransition
+                    : Long.MAX_VALUE;
+        }
+        writeOffset();
+        return true;
+    }
+
+    private void writeOffset() {
+        if (offset == 0) {
+            offsetChars[0] = 'Z';
+            offsetLength = 1;
+            return;
+        }
+        int minutes = Math.abs(offset) / DateTimeConstants.MILLIS_PER_MINUTE;
+        offsetChars[0] = offset < 0
+                ? '-'
+                : '+';
+        toDigits(offsetChars, 1, minutes / 60, 2);
+        offsetChars[3] = ':';
+        toDigits(offsetChars, 4, minutes % 60, 2);
+        offsetLength = 6;
+    }
+
+    private void write2(int position, int value) {
+        toDigits(buffer, position, value, 2);
+    }
+
+    private void write3(int position, int value) {
+        toDigits(buffer, position, value, 3);
+    }
+
+    private void write4(int position, int value) {
+        toDigits(buffer, position, value, 4);
+    }
+
+    private static void toDigits(char[] chars, int position, int value, int digits) {
+        int remaining = value;
+        for (int i = position + digits - 1; i >= position; i--) {
+            chars[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+    }
+}
@@ -32,6 +32,10 @@ import org.n52.shetland.util.DateTimeHelper;
 
 import com.fasterxml.jackson.databind.util.StdConverter;
 
+/**
+ * @deprecated use {@link TimeOutputSerializer} which writes ISO strings without intermediate objects
+ */
+@Deprecated
 public class TimeOutputConverter extends StdConverter<TimeOutput, Object> {
 
     @Override
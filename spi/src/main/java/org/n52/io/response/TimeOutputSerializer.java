@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.response;
+
+import java.io.IOException;
+
+import org.joda.time.DateTime;
+import org.joda.time.chrono.ISOChronology;
+import org.n52.shetland.util.DateTimeHelper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Serializes a {@link TimeOutput} either as milliseconds since epoch (in case of unix time) or as ISO 8601
+ * string (e.g. <code>2019-05-06T13:30:00.000+02:00</code>). The ISO characters are written from a per-thread
+ * {@link IsoDateTimeEncoder} directly to the generator, so no formatter or intermediate string is created per
+ * timestamp.
+ * <p>
+ * The output equals {@link DateTimeHelper#formatDateTime2IsoString(DateTime)} which is used as fallback for
+ * non ISO chronologies, years beyond <code>1..9999</code> or offsets not being full minutes.
+ */
+public class TimeOutputSerializer extends JsonSerializer<TimeOutput> {
+
+    private static final ThreadLocal<IsoDateTimeEncoder> ENCODERS = ThreadLocal.withInitial(IsoDateTimeEncoder::new);
+
+    @Override
+    public void serialize(TimeOutput value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        DateTime dateTime = value.getDateTime();
+        if (dateTime == null) {
+            gen.writeNull();
+        } else if (value.isUnixTime()) {
+            gen.writeNumber(dateTime.getMillis());
+        } else {
+            writeIsoString(dateTime, gen);
+        }
+    }
+
+    private void writeIsoString(DateTime dateTime, JsonGenerator gen) throws IOException {
+        IsoDateTimeEncoder encoder = ENCODERS.get();
+        int length = dateTime.getChronology() instanceof ISOChronology
+                ? encoder.encode(dateTime.getMillis(), dateTime.getZone())
+                : -1;
+        if (length < 0) {
+            gen.writeString(DateTimeHelper.formatDateTime2IsoString(dateTime));
+        } else {
+            gen.writeString(encoder.getChars(), 0, length);
+        }
+    }
+
+}
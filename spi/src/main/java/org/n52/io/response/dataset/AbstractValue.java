@@ -39,7 +39,7 @@ import org.joda.time.DateTime;
 import org.locationtech.jts.geom.Geometry;
 import org.n52.io.geojson.GeoJSONGeometrySerializer;
 import org.n52.io.response.TimeOutput;
-import org.n52.io.response.TimeOutputConverter;
+import org.n52.io.response.TimeOutputSerializer;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -83,7 +83,7 @@ public abstract class AbstractValue<T> implements Comparable<AbstractValue<T>>,
     /**
      * @return the timestamp/timeend when {@link #value} has been observed.
      */
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getTimestamp() {
         return this.timestamp;
     }
@@ -101,7 +101,7 @@ public abstract class AbstractValue<T> implements Comparable<AbstractValue<T>>,
         return !isSetTimestart() || (isSetTimestart() && timestart.equals(timestamp));
     }
 
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getTimeend() {
         return isSetTimestart()
                 ? this.timestamp
@@ -118,7 +118,7 @@ public abstract class AbstractValue<T> implements Comparable<AbstractValue<T>>,
      *
      * @return the timestart when {@link #value} has been observed.
      */
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getTimestart() {
         return timestart;
     }
@@ -157,6 +157,11 @@ public abstract class AbstractValue<T> implements Comparable<AbstractValue<T>>,
         this.valueFormatter = valueFormatter;
     }
 
+    @JsonIgnore
+    public ValueFormatter<T> getValueFormatter() {
+        return valueFormatter;
+    }
+
     /**
      * Formats value as string by using {@link #valueFormatter}. If no formatter has been set
      * {@link Object#toString()} is being used. Otherwise {@code null} is returned.
@@ -256,7 +261,7 @@ public abstract class AbstractValue<T> implements Comparable<AbstractValue<T>>,
             this.end = end;
         }
 
-        @JsonSerialize(converter = TimeOutputConverter.class)
+        @JsonSerialize(using = TimeOutputSerializer.class)
         public TimeOutput getStart() {
             return start;
         }
@@ -265,7 +270,7 @@ public abstract class AbstractValue<T> implements Comparable<AbstractValue<T>>,
             this.start = start;
         }
 
-        @JsonSerialize(converter = TimeOutputConverter.class)
+        @JsonSerialize(using = TimeOutputSerializer.class)
         public TimeOutput getEnd() {
             return end;
         }
@@ -35,7 +35,7 @@ import org.n52.io.response.FeatureOutput;
 import org.n52.io.response.OptionalOutput;
 import org.n52.io.response.ParameterOutput;
 import org.n52.io.response.TimeOutput;
-import org.n52.io.response.TimeOutputConverter;
+import org.n52.io.response.TimeOutputSerializer;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -137,7 +137,7 @@ public class DatasetOutput<V extends AbstractValue< ? >> extends ParameterOutput
         this.originTimezone = originTimezone;
     }
 
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getSamplingTmeStart() {
         return getIfSerialized(samplingTimeStart);
     }
@@ -146,7 +146,7 @@ public class DatasetOutput<V extends AbstractValue< ? >> extends ParameterOutput
         this.samplingTimeStart = samplingTimeStart;
     }
 
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getSamplingTimeEnd() {
         return getIfSerialized(samplingTimeEnd);
     }
@@ -0,0 +1,497 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.response.dataset.quantity;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.n52.io.response.TimeOutput;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.io.response.dataset.ValueFormatter;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Columnar {@link Data} of quantity values. Timestamps and values are held in primitive arrays, no data
+ * values and optional timestarts are tracked by bitsets. Timezone, unix time flag and value formatter are
+ * held once per series.
+ * <p>
+ * {@link QuantityValue} objects are created on demand only (e.g. via {@link #getValues()} when a
+ * serializer needs them). As those are views, changing them has no effect on this instance. Values which
+ * can not be represented by columns (e.g. values having a geometry, parameters, a different timezone, or
+ * a decimal which does not survive a round trip as <code>double</code>) are kept as is, while their
+ * timestamp and value are still available from the columns. Decimals keep their scale, so
+ * <code>10</code> or <code>12.50</code> are not turned into <code>10.0</code> or <code>12.5</code>.
+ * </p>
+ */
+public class QuantityData extends Data<QuantityValue> {
+
+    private static final long serialVersionUID = -5027582493862214582L;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] timestamps;
+
+    private long[] timestarts;
+
+    private double[] values;
+
+    private final BitSet noDataValues = new BitSet();
+
+    private final BitSet timestartValues = new BitSet();
+
+    private int[] scales;
+
+    private final BitSet scaledValues = new BitSet();
+
+    private Map<Integer, QuantityValue> objectValues;
+
+    private int size;
+
+    private DateTimeZone timezone;
+
+    private boolean unixTime;
+
+    private ValueFormatter<BigDecimal> valueFormatter;
+
+    private transient List<QuantityValue> valuesView;
+
+    public QuantityData() {
+        this(null);
+    }
+
+    public QuantityData(DatasetMetadata<QuantityValue> metadata) {
+        this(metadata, DEFAULT_CAPACITY);
+    }
+
+    public QuantityData(DatasetMetadata<QuantityValue> metadata, int expectedSize) {
+        super(metadata);
+        int capacity = Math.max(expectedSize, 1);
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Returns the given data as columnar data. If the data already is columnar, it is returned as is.
+     *
+     * @param data
+     *        the data to convert
+     * @return columnar data
+     */
+    public static QuantityData of(Data<QuantityValue> data) {
+        if (data == null || data instanceof QuantityData) {
+            return (QuantityData) data;
+        }
+        List<QuantityValue> toConvert = data.getValues();
+        QuantityData columnar = new QuantityData(data.getMetadata(), toConvert.size());
+        for (QuantityValue value : toConvert) {
+            columnar.addNewValue(value);
+        }
+        return columnar;
+    }
+
+    /**
+     * Creates an empty instance sharing metadata, timezone, unix time flag and value formatter with this
+     * instance.
+     *
+     * @param expectedSize
+     *        the expected amount of values
+     * @return an empty instance with same settings
+     */
+    public QuantityData copyEmpty(int expectedSize) {
+        QuantityData copy = new QuantityData(getMetadata(), expectedSize);
+        copy.timezone = timezone;
+        copy.unixTime = unixTime;
+        copy.valueFormatter = valueFormatter;
+        return copy;
+    }
+
+    public QuantityData addValue(long timestamp, double value) {
+        addColumns(timestamp, value, false);
+        return this;
+    }
+
+    public QuantityData addValue(long timestart, long timestamp, double value) {
+        setTimestart(addColumns(timestamp, value, false), timestart);
+        return this;
+    }
+
+    public QuantityData addNoDataValue(long timestamp) {
+        addColumns(timestamp, Double.NaN, true);
+        return this;
+    }
+
+    /**
+     * Adds the value at the given index of another instance without creating an object view.
+     *
+     * @param other
+     *        the data to take the value from
+     * @param index
+     *        the index of the value
+     * @return this instance
+     */
+    public QuantityData addValueOf(QuantityData other, int index) {
+        if (!hasSameSettings(other)) {
+            return addNewValue(other.getValueAt(index));
+        }
+        int added = addColumns(other.timestamps[index], other.values[index], other.isNoDataValue(index));
+        if (other.hasTimestart(index)) {
+            setTimestart(added, other.timestarts[index]);
+        }
+        if (other.isScaledValue(index)) {
+            setScale(added, other.scales[index]);
+        }
+        if (other.isObjectValue(index)) {
+            getObjectValues().put(added, other.objectValues.get(index));
+        }
+        return this;
+    }
+
+    @Override
+    public void addValues(QuantityValue[] toAdd) {
+        if (toAdd != null) {
+            for (QuantityValue value : toAdd) {
+                addNewValue(value);
+            }
+        }
+    }
+
+    @Override
+    public QuantityData addNewValue(QuantityValue value) {
+        if (value == null || value.getTimestamp() == null) {
+            int index = addColumns(0L, Double.NaN, true);
+            getObjectValues().put(index, value);
+            return this;
+        }
+        if (size == 0 && objectValues == null) {
+            DateTime timestamp = value.getTimestamp().getDateTime();
+            timezone = timestamp != null
+                    ? timestamp.getZone()
+                    : null;
+            unixTime = value.getTimestamp().isUnixTime();
+            valueFormatter = value.getValueFormatter();
+        }
+        BigDecimal decimal = value.getValue();
+        int index = decimal == null
+                ? addColumns(value.getTimestamp().getMillis(), Double.NaN, true)
+                : addColumns(value.getTimestamp().getMillis(), decimal.doubleValue(), false);
+        if (value.isSetTimestart()) {
+            setTimestart(index, value.getTimestart().getMillis());
+        }
+        if (!isColumnar(value)) {
+            getObjectValues().put(index, value);
+        } else if (decimal != null && !BigDecimal.valueOf(values[index])
+                                                 .equals(decimal)) {
+            setScale(index, decimal.scale());
+        }
+        return this;
+    }
+
+    @Override
+    public QuantityData addData(Data<QuantityValue> toAdd) {
+        QuantityData data = copyEmpty(size + (int) toAdd.size());
+        for (int i = 0; i < size; i++) {
+            data.addValueOf(this, i);
+        }
+        if (toAdd instanceof QuantityData) {
+            QuantityData other = (QuantityData) toAdd;
+            for (int i = 0; i < other.size; i++) {
+                data.addValueOf(other, i);
+            }
+        } else {
+            data.addValues(toAdd.getValues()
+                                .toArray(new QuantityValue[0]));
+        }
+        return data;
+    }
+
+    /**
+     * @return an unmodifiable view on the values, creating a {@link QuantityValue} per access.
+     */
+    @Override
+    @JsonSerialize(typing = JsonSerialize.Typing.STATIC)
+    public List<QuantityValue> getValues() {
+        if (valuesView == null) {
+            valuesView = Collections.unmodifiableList(new AbstractList<QuantityValue>() {
+                @Override
+                public QuantityValue get(int index) {
+                    return getValueAt(index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            });
+        }
+        return valuesView;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    public QuantityValue getValueAt(int index) {
+        checkIndex(index);
+        if (isObjectValue(index)) {
+            return objectValues.get(index);
+        }
+        QuantityValue value = new QuantityValue();
+        TimeOutput timestamp = createTimeOutput(timestamps[index]);
+        if (hasTimestart(index)) {
+            value.setTimestart(createTimeOutput(timestarts[index]));
+        }
+        value.setTimestamp(timestamp);
+        value.setValue(getDecimalValue(index));
+        value.setValueFormatter(valueFormatter);
+        return value;
+    }
+
+    @JsonIgnore
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    public boolean hasTimestart(int index) {
+        checkIndex(index);
+        return timestartValues.get(index);
+    }
+
+    /**
+     * @param index
+     *        the value's index
+     * @return the value's timestart or its timestamp if no timestart is set
+     */
+    @JsonIgnore
+    public long getTimestart(int index) {
+        return hasTimestart(index)
+                ? timestarts[index]
+                : timestamps[index];
+    }
+
+    /**
+     * @param index
+     *        the value's index
+     * @return the value, or {@link Double#NaN} in case of a no data value
+     */
+    @JsonIgnore
+    public double getValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * @param index
+     *        the value's index
+     * @return the value as decimal, or <code>null</code> in case of a no data value
+     */
+    @JsonIgnore
+    public BigDecimal getDecimalValue(int index) {
+        if (isNoDataValue(index)) {
+            return null;
+        }
+        if (isObjectValue(index)) {
+            return objectValues.get(index).getValue();
+        }
+        BigDecimal value = BigDecimal.valueOf(values[index]);
+        return isScaledValue(index)
+                // exact, as the value has been checked to survive the round trip
+                ? value.setScale(scales[index])
+                : value;
+    }
+
+    /**
+     * Formats the value like {@link QuantityValue#getFormattedValue()} does.
+     *
+     * @param index
+     *        the value's index
+     * @return the formatted value, or <code>null</code> in case of a no data value
+     */
+    @JsonIgnore
+    public String getFormattedValue(int index) {
+        if (isObjectValue(index)) {
+            QuantityValue value = objectValues.get(index);
+            return value != null
+                    ? value.getFormattedValue()
+                    : null;
+        }
+        BigDecimal value = getDecimalValue(index);
+        if (value == null) {
+            return null;
+        }
+        return valueFormatter != null
+                ? valueFormatter.format(value)
+                : value.toString();
+    }
+
+    public boolean isNoDataValue(int index) {
+        checkIndex(index);
+        return noDataValues.get(index);
+    }
+
+    /**
+     * @param index
+     *        the value's index
+     * @return <code>true</code> if the decimal value has another scale than {@link BigDecimal#valueOf(double)}
+     *         gives for {@link #getValue(int)}, i.e. {@link #getDecimalValue(int)} has to be used to keep the
+     *         value's representation
+     */
+    public boolean isScaledValue(int index) {
+        checkIndex(index);
+        return scaledValues.get(index);
+    }
+
+    /**
+     * @param index
+     *        the value's index
+     * @return <code>true</code> if the value could not be represented by columns only
+     */
+    public boolean isObjectValue(int index) {
+        checkIndex(index);
+        return objectValues != null && objectValues.containsKey(index);
+    }
+
+    @JsonIgnore
+    public DateTimeZone getTimezone() {
+        return timezone;
+    }
+
+    @JsonIgnore
+    public boolean isUnixTime() {
+        return unixTime;
+    }
+
+    /**
+     * @return the formatter of columnar values, or <code>null</code> if values are formatted as plain decimals
+     */
+    @JsonIgnore
+    public ValueFormatter<BigDecimal> getValueFormatter() {
+        return valueFormatter;
+    }
+
+    private TimeOutput createTimeOutput(long millis) {
+        return new TimeOutput(new DateTime(millis, timezone), unixTime);
+    }
+
+    private boolean isColumnar(QuantityValue value) {
+        return value.getGeometry() == null
+                && value.getParameters() == null
+                && value.getValidTime() == null
+                && value.getResultTime() == null
+                && value.getValueFormatter() == valueFormatter
+                && value.getTimestamp().isUnixTime() == unixTime
+                && hasSeriesTimezone(value.getTimestamp())
+                && (!value.isSetTimestart() || hasSeriesTimezone(value.getTimestart()))
+                && isRepresentableAsDouble(value.getValue());
+    }
+
+    private boolean hasSeriesTimezone(TimeOutput time) {
+        DateTime dateTime = time.getDateTime();
+        return dateTime != null && Objects.equals(dateTime.getZone(), timezone);
+    }
+
+    private static boolean isRepresentableAsDouble(BigDecimal value) {
+        return value == null || BigDecimal.valueOf(value.doubleValue())
+                                          .compareTo(value) == 0;
+    }
+
+    private boolean hasSameSettings(QuantityData other) {
+        return Objects.equals(timezone, other.timezone)
+                && unixTime == other.unixTime
+                && valueFormatter == other.valueFormatter;
+    }
+
+    private int addColumns(long timestamp, double value, boolean noData) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        timestamps[index] = timestamp;
+        values[index] = value;
+        if (noData) {
+            noDataValues.set(index);
+        }
+        return index;
+    }
+
+    private void setTimestart(int index, long timestart) {
+        if (timestarts == null) {
+            timestarts = new long[timestamps.length];
+        }
+        timestarts[index] = timestart;
+        timestartValues.set(index);
+    }
+
+    private void setScale(int index, int scale) {
+        if (scales == null) {
+            scales = new int[timestamps.length];
+        }
+        scales[index] = scale;
+        scaledValues.set(index);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > timestamps.length) {
+            int newCapacity = Math.max(capacity, timestamps.length + (timestamps.length >> 1));
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            if (timestarts != null) {
+                timestarts = Arrays.copyOf(timestarts, newCapacity);
+            }
+            if (scales != null) {
+                scales = Arrays.copyOf(scales, newCapacity);
+            }
+        }
+    }
+
+    private Map<Integer, QuantityValue> getObjectValues() {
+        if (objectValues == null) {
+            objectValues = new HashMap<>();
+        }
+        return objectValues;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+}
@@ -38,7 +38,7 @@ import org.n52.io.response.OptionalOutput;
 import org.n52.io.response.ParameterOutput;
 import org.n52.io.response.PhenomenonOutput;
 import org.n52.io.response.TimeOutput;
-import org.n52.io.response.TimeOutputConverter;
+import org.n52.io.response.TimeOutputSerializer;
 import org.n52.io.response.dataset.DatasetOutput;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -92,7 +92,7 @@ public class MeasuringProgramOutput extends ParameterOutput {
     /**
      * @return the measuringProgramTimeStart
      */
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getMeasuringProgramTimeStart() {
         return getIfSerialized(measuringProgramTimeStart);
     }
@@ -107,7 +107,7 @@ public class MeasuringProgramOutput extends ParameterOutput {
     /**
      * @return the measuringProgramTimeEnd
      */
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getMeasuringProgramTimeEnd() {
         return getIfSerialized(measuringProgramTimeEnd);
     }
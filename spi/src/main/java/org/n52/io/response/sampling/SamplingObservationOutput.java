@@ -36,7 +36,7 @@ import org.n52.io.response.PhenomenonOutput;
 import org.n52.io.response.PlatformOutput;
 import org.n52.io.response.ProcedureOutput;
 import org.n52.io.response.TimeOutput;
-import org.n52.io.response.TimeOutputConverter;
+import org.n52.io.response.TimeOutputSerializer;
 import org.n52.io.response.dataset.AbstractValue;
 import org.n52.io.response.dataset.DatasetOutput;
 
@@ -60,17 +60,17 @@ public class SamplingObservationOutput {
         return value;
     }
 
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getTimestamp() {
         return getAbstractValue().getTimestamp();
     }
 
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getTimeend() {
         return getAbstractValue().getTimeend();
     }
 
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getTimestart() {
         return getAbstractValue().getTimestart();
     }
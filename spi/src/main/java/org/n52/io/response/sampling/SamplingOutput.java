@@ -34,7 +34,7 @@ import org.n52.io.response.FeatureOutput;
 import org.n52.io.response.OptionalOutput;
 import org.n52.io.response.ParameterOutput;
 import org.n52.io.response.TimeOutput;
-import org.n52.io.response.TimeOutputConverter;
+import org.n52.io.response.TimeOutputSerializer;
 
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
@@ -140,7 +140,7 @@ public class SamplingOutput extends ParameterOutput {
     /**
      * @return the samplingTimeStart
      */
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getSamplingTimeStart() {
         return getIfSerialized(samplingTimeStart);
     }
@@ -155,7 +155,7 @@ public class SamplingOutput extends ParameterOutput {
     /**
      * @return the samplingTimeEnd
      */
-    @JsonSerialize(converter = TimeOutputConverter.class)
+    @JsonSerialize(using = TimeOutputSerializer.class)
     public TimeOutput getSamplingTimeEnd() {
         return getIfSerialized(samplingTimeEnd);
     }
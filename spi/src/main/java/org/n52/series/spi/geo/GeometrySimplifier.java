@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.geo;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+
+/**
+ * Simplifies geometries while preserving their topology. Results are cached per geometry id and tolerance, so
+ * repeatedly requested geometries (e.g. by map overviews) have to be simplified only once. A cached result is
+ * used only as long as the geometry of an id does not change.
+ */
+public class GeometrySimplifier {
+
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+
+    private final Map<CacheKey, CacheEntry> cache;
+
+    public GeometrySimplifier() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize
+     *        the maximum amount of cached geometries, least recently used ones get evicted first
+     */
+    public GeometrySimplifier(int cacheSize) {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * @param id
+     *        the id of the geometry, or <code>null</code> if the result shall not be cached
+     * @param geometry
+     *        the geometry to simplify
+     * @param tolerance
+     *        the distance tolerance (in units of the geometry's reference system)
+     * @return the simplified geometry, or the given one in case there is nothing to simplify
+     */
+    public Geometry simplify(String id, Geometry geometry, double tolerance) {
+        if (!isSimplifiable(geometry, tolerance)) {
+            return geometry;
+        }
+        if (id == null) {
+            return simplify(geometry, tolerance);
+        }
+        CacheKey key = new CacheKey(id, tolerance);
+        CacheEntry entry = cache.get(key);
+        if (entry != null && entry.isFor(geometry)) {
+            return entry.simplified;
+        }
+        Geometry simplified = simplify(geometry, tolerance);
+        cache.put(key, new CacheEntry(geometry, simplified));
+        return simplified;
+    }
+
+    private static boolean isSimplifiable(Geometry geometry, double tolerance) {
+        // points have nothing to simplify
+        return tolerance > 0
+                && geometry != null
+                && !geometry.isEmpty()
+                && geometry.getDimension() > 0;
+    }
+
+    private static Geometry simplify(Geometry geometry, double tolerance) {
+        Geometry simplified = TopologyPreservingSimplifier.simplify(geometry, tolerance);
+        simplified.setSRID(geometry.getSRID());
+        return simplified;
+    }
+
+    private static final class CacheKey {
+
+        private final String id;
+
+        private final double tolerance;
+
+        CacheKey(String id, double tolerance) {
+            this.id = id;
+            this.tolerance = tolerance;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, tolerance);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return id.equals(other.id)
+                    && Double.compare(tolerance, other.tolerance) == 0;
+        }
+    }
+
+    private static final class CacheEntry {
+
+        private final Geometry source;
+
+        private final Geometry simplified;
+
+        CacheEntry(Geometry source, Geometry simplified) {
+            this.source = source;
+            this.simplified = simplified;
+        }
+
+        boolean isFor(Geometry geometry) {
+            return source == geometry
+                    || (source.getSRID() == geometry.getSRID() && source.equalsExact(geometry));
+        }
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.geo;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.series.spi.srv.DataCursor;
+import org.n52.series.spi.srv.DataService;
+import org.n52.series.spi.srv.RawDataService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Composes a {@link DataService} to thin out values of trajectories in case the query asks for simplification
+ * (see {@link IoParameters#getSimplifyTolerance()}). The value locations of a series are simplified as a line
+ * while preserving its topology. Values not being part of the simplified line are dropped, values without a
+ * point location are always kept. Columnar {@link QuantityData} is thinned without creating value objects.
+ * <p>
+ * As simplification needs the complete line of a series, a data cursor reads all data at once in case
+ * simplification is requested, i.e. windowed reading is not applied then.
+ * </p>
+ *
+ * @param <T>
+ *        the data type
+ */
+public class SimplifyingDataService<T extends Data< ? extends AbstractValue< ? >>> implements DataService<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimplifyingDataService.class);
+
+    private final DataService<T> composedService;
+
+    public SimplifyingDataService(DataService<T> toCompose) {
+        this.composedService = Objects.requireNonNull(toCompose, "toCompose must not be null");
+    }
+
+    @Override
+    public DataCollection<T> getData(IoParameters parameters) {
+        DataCollection<T> data = composedService.getData(parameters);
+        double tolerance = parameters.getSimplifyTolerance();
+        if (data == null || tolerance <= 0) {
+            return data;
+        }
+        for (Map.Entry<String, T> series : data.getAllSeries()
+                                               .entrySet()) {
+            series.setValue(simplify(series.getValue(), tolerance));
+        }
+        return data;
+    }
+
+    @Override
+    public DataCursor<T> getDataCursor(IoParameters parameters) {
+        if (parameters.getSimplifyTolerance() <= 0) {
+            return composedService.getDataCursor(parameters);
+        }
+        // simplification needs the complete line of a series
+        LOGGER.info("Simplification requested: data is read at once instead of via the data cursor.");
+        return DataCursor.of(getData(parameters));
+    }
+
+    @Override
+    public boolean supportsRawData() {
+        return composedService.supportsRawData();
+    }
+
+    @Override
+    public RawDataService getRawDataService() {
+        return composedService.getRawDataService();
+    }
+
+    @SuppressWarnings({
+        "unchecked",
+        "rawtypes"
+    })
+    private T simplify(T data, double tolerance) {
+        if (data instanceof QuantityData) {
+            return (T) simplify((QuantityData) data, tolerance);
+        }
+        if (data == null || data.getClass() != Data.class) {
+            // other specialized data types do not carry value locations
+            return data;
+        }
+        List< ? extends AbstractValue< ? >> values = data.getValues();
+        List<Point> locations = new ArrayList<>(values.size());
+        for (AbstractValue< ? > value : values) {
+            locations.add(getLocation(value));
+        }
+        BitSet kept = getKeptIndices(locations, tolerance);
+        if (kept == null) {
+            return data;
+        }
+        Data thinned = new Data(data.getMetadata());
+        for (int i = kept.nextSetBit(0); i >= 0; i = kept.nextSetBit(i + 1)) {
+            thinned.addNewValue(values.get(i));
+        }
+        return (T) thinned;
+    }
+
+    private QuantityData simplify(QuantityData data, double tolerance) {
+        // values having a geometry are never columnar
+        int size = (int) data.size();
+        List<Point> locations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            locations.add(data.isObjectValue(i)
+                    ? getLocation(data.getValueAt(i))
+                    : null);
+        }
+        BitSet kept = getKeptIndices(locations, tolerance);
+        if (kept == null) {
+            return data;
+        }
+        QuantityData thinned = data.copyEmpty(kept.cardinality());
+        for (int i = kept.nextSetBit(0); i >= 0; i = kept.nextSetBit(i + 1)) {
+            thinned.addValueOf(data, i);
+        }
+        return thinned;
+    }
+
+    /**
+     * @param locations
+     *        the value locations, <code>null</code> for values without point location
+     * @param tolerance
+     *        the simplification tolerance
+     * @return the indices of values to keep, or <code>null</code> if all values are kept
+     */
+    private static BitSet getKeptIndices(List<Point> locations, double tolerance) {
+        List<Coordinate> coordinates = new ArrayList<>(locations.size());
+        GeometryFactory factory = null;
+        for (Point location : locations) {
+            if (location != null) {
+                coordinates.add(location.getCoordinate());
+                factory = location.getFactory();
+            }
+        }
+        if (coordinates.size() < 3) {
+            return null;
+        }
+        Geometry line = factory.createLineString(coordinates.toArray(new Coordinate[0]));
+        Coordinate[] simplified = TopologyPreservingSimplifier.simplify(line, tolerance)
+                                                              .getCoordinates();
+        if (simplified.length == coordinates.size()) {
+            return null;
+        }
+
+        int next = 0;
+        BitSet kept = new BitSet(locations.size());
+        for (int i = 0; i < locations.size(); i++) {
+            Point location = locations.get(i);
+            if (location == null) {
+                kept.set(i);
+            } else if (next < simplified.length && simplified[next].equals2D(location.getCoordinate())) {
+                kept.set(i);
+                next++;
+            }
+        }
+        return kept;
+    }
+
+    private static Point getLocation(AbstractValue< ? > value) {
+        Geometry geometry = value != null
+                ? value.getGeometry()
+                : null;
+        return geometry instanceof Point && !geometry.isEmpty()
+                ? (Point) geometry
+                : null;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.geo;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.locationtech.jts.geom.Geometry;
+import org.n52.io.request.IoParameters;
+import org.n52.io.response.FeatureOutput;
+import org.n52.io.response.GeometryOutput;
+import org.n52.io.response.OptionalOutput;
+import org.n52.io.response.OutputCollection;
+import org.n52.io.response.ParameterOutput;
+import org.n52.series.spi.srv.ParameterService;
+import org.n52.series.spi.srv.RawDataService;
+
+/**
+ * Composes a {@link ParameterService} to simplify geometries in case the query asks for it (see
+ * {@link IoParameters#getSimplifyTolerance()}). As the tolerance is given in degrees, compose this service
+ * before geometries get transformed to the requested CRS.
+ *
+ * @param <T>
+ *        the parameter type
+ */
+public class SimplifyingParameterService<T extends ParameterOutput> extends ParameterService<T> {
+
+    private final ParameterService<T> composedService;
+
+    private final Function<T, Geometry> geometryOf;
+
+    private final BiConsumer<T, OptionalOutput<Geometry>> geometrySetter;
+
+    private final String geometryField;
+
+    private final GeometrySimplifier simplifier;
+
+    /**
+     * @param toCompose
+     *        the service to compose
+     * @param geometryOf
+     *        gets the geometry of a parameter, may return <code>null</code>
+     * @param geometrySetter
+     *        sets the simplified geometry of a parameter
+     * @param geometryField
+     *        the field name of the geometry, e.g. to respect fields filters
+     */
+    public SimplifyingParameterService(ParameterService<T> toCompose,
+                                       Function<T, Geometry> geometryOf,
+                                       BiConsumer<T, OptionalOutput<Geometry>> geometrySetter,
+                                       String geometryField) {
+        this.composedService = Objects.requireNonNull(toCompose, "toCompose must not be null");
+        this.geometryOf = Objects.requireNonNull(geometryOf, "geometryOf must not be null");
+        this.geometrySetter = Objects.requireNonNull(geometrySetter, "geometrySetter must not be null");
+        this.geometryField = Objects.requireNonNull(geometryField, "geometryField must not be null");
+        this.simplifier = new GeometrySimplifier();
+    }
+
+    public static SimplifyingParameterService<GeometryOutput> forGeometries(
+            ParameterService<GeometryOutput> toCompose) {
+        return new SimplifyingParameterService<>(toCompose,
+                                                 GeometryOutput::getGeometry,
+                                                 GeometryOutput::setGeometry,
+                                                 GeometryOutput.GEOMETRY);
+    }
+
+    public static SimplifyingParameterService<FeatureOutput> forFeatures(ParameterService<FeatureOutput> toCompose) {
+        return new SimplifyingParameterService<>(toCompose,
+                                                 FeatureOutput::getGeometry,
+                                                 FeatureOutput::setGeometry,
+                                                 FeatureOutput.GEOMETRY);
+    }
+
+    @Override
+    public OutputCollection<T> getExpandedParameters(IoParameters query) {
+        return simplify(query, composedService.getExpandedParameters(query));
+    }
+
+    @Override
+    public OutputCollection<T> getCondensedParameters(IoParameters query) {
+        return simplify(query, composedService.getCondensedParameters(query));
+    }
+
+    @Override
+    public OutputCollection<T> getParameters(String[] items, IoParameters query) {
+        return simplify(query, composedService.getParameters(items, query));
+    }
+
+    @Override
+    public T getParameter(String item, IoParameters query) {
+        T parameter = composedService.getParameter(item, query);
+        double tolerance = query.getSimplifyTolerance();
+        if (parameter != null && tolerance > 0) {
+            simplifyInline(parameter, tolerance, query);
+        }
+        return parameter;
+    }
+
+    @Override
+    public boolean exists(String id, IoParameters parameters) {
+        return composedService.exists(id, parameters);
+    }
+
+    @Override
+    public RawDataService getRawDataService() {
+        return composedService.getRawDataService();
+    }
+
+    @Override
+    public boolean supportsRawData() {
+        return composedService.supportsRawData();
+    }
+
+    private OutputCollection<T> simplify(IoParameters query, OutputCollection<T> parameters) {
+        double tolerance = query.getSimplifyTolerance();
+        if (parameters != null && tolerance > 0) {
+            for (T parameter : parameters) {
+                simplifyInline(parameter, tolerance, query);
+            }
+        }
+        return parameters;
+    }
+
+    private void simplifyInline(T parameter, double tolerance, IoParameters query) {
+        Geometry geometry = geometryOf.apply(parameter);
+        Geometry simplified = simplifier.simplify(parameter.getId(), geometry, tolerance);
+        if (simplified != geometry) {
+            parameter.setValue(geometryField, simplified, query, value -> geometrySetter.accept(parameter, value));
+        }
+    }
+
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.geo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.n52.io.crs.BoundingBox;
+import org.n52.io.crs.WGS84Util;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.request.Vicinity;
+import org.n52.io.response.FeatureOutput;
+import org.n52.io.response.OutputCollection;
+import org.n52.io.response.ParameterOutput;
+import org.n52.io.response.dataset.StationOutput;
+import org.n52.series.spi.srv.ParameterService;
+import org.n52.series.spi.srv.RawDataService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Composes a {@link ParameterService} to answer <code>bbox</code> and <code>near</code> queries via an in-memory
+ * {@link STRtree} instead of letting the composed service evaluate the spatial filter. The index holds the
+ * geometries (in {@value org.n52.io.crs.CRSUtils#DEFAULT_CRS}) of all parameters and gets refreshed in a fixed
+ * interval. Until it is built for the first time, queries are passed to the composed service as is.
+ * <p>
+ * Matches are determined by an index lookup, followed by an exact check against the bounding box. Points
+ * queried via <code>near</code> only are filtered by their great circle distance to the vicinity's center. The
+ * composed service is queried without spatial filter, but (if not too many and if the query does not restrict
+ * ids already) with the matching ids as filter. Otherwise the composed service is queried without paging, as
+ * matches get filtered afterwards, and the requested page is taken from the filtered parameters.
+ * </p>
+ * <p>
+ * Compose this service before geometries get transformed to the requested CRS, e.g. by a
+ * {@link TransformingStationOutputService}.
+ * </p>
+ *
+ * @param <T>
+ *        the parameter type
+ */
+public class SpatialIndexParameterService<T extends ParameterOutput> extends ParameterService<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpatialIndexParameterService.class);
+
+    /**
+     * Maximum amount of matching ids passed to the composed service as filter. More matches get filtered
+     * after querying the composed service.
+     */
+    private static final int MAX_ID_FILTER_SIZE = 1000;
+
+    // paging as documented for the Web API: offset is the page number
+    private static final int DEFAULT_PAGE_LIMIT = 10000;
+
+    private static final int MAX_PAGE_LIMIT = 1000000;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final ParameterService<T> composedService;
+
+    private final Function<T, Geometry> geometryOf;
+
+    private final String idFilter;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile STRtree index;
+
+    /**
+     * @param toCompose
+     *        the service to compose
+     * @param geometryOf
+     *        gets the geometry of a parameter, may return <code>null</code>
+     * @param idFilter
+     *        the query parameter the composed service filters ids by, e.g. {@value Parameters#FEATURES}
+     * @param refreshInterval
+     *        the interval in seconds in which the index gets rebuilt. If not positive, the index is not
+     *        scheduled at all but has to be built via {@link #refresh()}.
+     */
+    public SpatialIndexParameterService(ParameterService<T> toCompose,
+                                        Function<T, Geometry> geometryOf,
+                                        String idFilter,
+                                        long refreshInterval) {
+        this.composedService = Objects.requireNonNull(toCompose, "toCompose must not be null");
+        this.geometryOf = Objects.requireNonNull(geometryOf, "geometryOf must not be null");
+        this.idFilter = Objects.requireNonNull(idFilter, "idFilter must not be null");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(this::createThread);
+        if (refreshInterval > 0) {
+            scheduler.scheduleWithFixedDelay(this::refreshSafely, 0, refreshInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Creates an index for stations, filtered via {@value Parameters#STATIONS}.
+     *
+     * @param toCompose
+     *        the service to compose
+     * @param refreshInterval
+     *        the interval in seconds in which the index gets rebuilt
+     * @return a spatially indexed station service
+     */
+    public static SpatialIndexParameterService<StationOutput> forStations(ParameterService<StationOutput> toCompose,
+                                                                          long refreshInterval) {
+        return new SpatialIndexParameterService<>(toCompose,
+                                                  StationOutput::getGeometry,
+                                                  Parameters.STATIONS,
+                                                  refreshInterval);
+    }
+
+    /**
+     * Creates an index for features, filtered via {@value Parameters#FEATURES}.
+     *
+     * @param toCompose
+     *        the service to compose
+     * @param refreshInterval
+     *        the interval in seconds in which the index gets rebuilt
+     * @return a spatially indexed feature service
+     */
+    public static SpatialIndexParameterService<FeatureOutput> forFeatures(ParameterService<FeatureOutput> toCompose,
+                                                                          long refreshInterval) {
+        return new SpatialIndexParameterService<>(toCompose,
+                                                  FeatureOutput::getGeometry,
+                                                  Parameters.FEATURES,
+                                                  refreshInterval);
+    }
+
+    private Thread createThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "spatial-index-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not refresh spatial index, keep previous one.", e);
+        }
+    }
+
+    /**
+     * Rebuilds the index from all parameters of the composed service.
+     */
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        OutputCollection<T> parameters = composedService.getExpandedParameters(IoParameters.createDefaults());
+        STRtree tree = new STRtree();
+        int size = 0;
+        if (parameters != null) {
+            for (T parameter : parameters) {
+                Geometry geometry = geometryOf.apply(parameter);
+                if (geometry != null && !geometry.isEmpty()) {
+                    tree.insert(geometry.getEnvelopeInternal(), new IndexEntry(parameter.getId(), geometry));
+                    size++;
+                }
+            }
+        }
+        // build before publishing, querying a built tree is thread-safe
+        tree.build();
+        index = tree;
+        LOGGER.debug("Spatial index with {} entries built in {}ms.", size, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Stops refreshing the index.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return <code>true</code> if the index has been built and can be used to answer spatial queries
+     */
+    public boolean isIndexAvailable() {
+        return index != null;
+    }
+
+    @Override
+    public OutputCollection<T> getExpandedParameters(IoParameters query) {
+        Set<String> matches = findMatches(query);
+        if (matches == null) {
+            return composedService.getExpandedParameters(query);
+        }
+        if (matches.isEmpty()) {
+            return new OutputCollection<>(new ArrayList<>());
+        }
+        if (isFilteringIds(query, matches)) {
+            return composedService.getExpandedParameters(withIdFilter(query, matches));
+        }
+        return page(filter(composedService.getExpandedParameters(withoutPaging(query)), matches), query);
+    }
+
+    @Override
+    public OutputCollection<T> getCondensedParameters(IoParameters query) {
+        Set<String> matches = findMatches(query);
+        if (matches == null) {
+            return composedService.getCondensedParameters(query);
+        }
+        if (matches.isEmpty()) {
+            return new OutputCollection<>(new ArrayList<>());
+        }
+        if (isFilteringIds(query, matches)) {
+            return composedService.getCondensedParameters(withIdFilter(query, matches));
+        }
+        return page(filter(composedService.getCondensedParameters(withoutPaging(query)), matches), query);
+    }
+
+    @Override
+    public OutputCollection<T> getParameters(String[] items, IoParameters query) {
+        return composedService.getParameters(items, query);
+    }
+
+    @Override
+    public T getParameter(String item, IoParameters query) {
+        return composedService.getParameter(item, query);
+    }
+
+    @Override
+    public boolean exists(String id, IoParameters parameters) {
+        return composedService.exists(id, parameters);
+    }
+
+    @Override
+    public RawDataService getRawDataService() {
+        return composedService.getRawDataService();
+    }
+
+    @Override
+    public boolean supportsRawData() {
+        return composedService.supportsRawData();
+    }
+
+    /**
+     * @return the ids matching the spatial filter, or <code>null</code> if the query has no spatial filter or
+     *         the index is not available yet.
+     */
+    Set<String> findMatches(IoParameters query) {
+        STRtree current = index;
+        BoundingBox bounds = query.getSpatialFilter();
+        if (current == null || bounds == null) {
+            return null;
+        }
+        Vicinity vicinity = query.containsParameter(Parameters.BBOX)
+                ? null
+                : query.getVicinity();
+        Set<String> matches = new HashSet<>();
+        Envelope envelope = bounds.asEnvelop();
+        current.query(envelope, item -> {
+            IndexEntry entry = (IndexEntry) item;
+            if (bounds.contains(entry.geometry) && isNear(vicinity, entry.geometry)) {
+                matches.add(entry.id);
+            }
+        });
+        return matches;
+    }
+
+    private static boolean isNear(Vicinity vicinity, Geometry geometry) {
+        if (vicinity == null || !(geometry instanceof Point)) {
+            return true;
+        }
+        return WGS84Util.haversineDistanceBetween(vicinity.getCenter(), (Point) geometry) <= vicinity.getRadius();
+    }
+
+    private boolean isFilteringIds(IoParameters query, Set<String> matches) {
+        return matches.size() <= MAX_ID_FILTER_SIZE && !query.containsParameter(idFilter);
+    }
+
+    private IoParameters withIdFilter(IoParameters query, Set<String> matches) {
+        return withoutSpatialFilter(query).extendWith(idFilter, new ArrayList<>(matches));
+    }
+
+    private IoParameters withoutPaging(IoParameters query) {
+        return withoutSpatialFilter(query).removeAllOf(Parameters.LIMIT)
+                                          .removeAllOf(Parameters.OFFSET);
+    }
+
+    private IoParameters withoutSpatialFilter(IoParameters query) {
+        return query.removeAllOf(Parameters.BBOX)
+                    .removeAllOf(Parameters.NEAR);
+    }
+
+    private List<T> filter(OutputCollection<T> parameters, Set<String> matches) {
+        List<T> filtered = new ArrayList<>();
+        if (parameters != null) {
+            for (T parameter : parameters) {
+                if (matches.contains(parameter.getId())) {
+                    filtered.add(parameter);
+                }
+            }
+        }
+        return filtered;
+    }
+
+    private OutputCollection<T> page(List<T> parameters, IoParameters query) {
+        if (!query.containsParameter(Parameters.LIMIT) && !query.containsParameter(Parameters.OFFSET)) {
+            return new OutputCollection<>(parameters);
+        }
+        int limit = query.getLimit() <= 0
+                ? DEFAULT_PAGE_LIMIT
+                : Math.min(query.getLimit(), MAX_PAGE_LIMIT);
+        long start = Math.max(0, query.getOffset()) * (long) limit;
+        int from = (int) Math.min(start, parameters.size());
+        int to = (int) Math.min(start + limit, parameters.size());
+        return new OutputCollection<>(new ArrayList<>(parameters.subList(from, to)));
+    }
+
+    private static final class IndexEntry {
+
+        private final String id;
+
+        private final Geometry geometry;
+
+        IndexEntry(String id, Geometry geometry) {
+            this.id = id;
+            this.geometry = geometry;
+        }
+    }
+
+}
@@ -29,6 +29,9 @@
 
 package org.n52.series.spi.geo;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.locationtech.jts.geom.Geometry;
 import org.n52.io.crs.CRSUtils;
 import org.n52.io.request.IoParameters;
@@ -58,6 +61,60 @@ public class TransformationService {
         station.setValue(StationOutput.GEOMETRY, geometry, parameters, station::setGeometry);
     }
 
+    /**
+     * Transforms the geometries of the given stations at once.
+     *
+     * @param stations
+     *        the stations to transform, may contain <code>null</code> elements
+     * @param parameters
+     *        the query containing CRS and how to handle axes order
+     */
+    protected void transformInline(List<StationOutput> stations, IoParameters parameters) {
+        String crs = parameters.getCrs();
+        if (CRSUtils.DEFAULT_CRS.equals(crs) || stations.isEmpty()) {
+            // no need to transform
+            return;
+        }
+        List<Geometry> geometries = stations.stream()
+                                            .map(station -> station != null
+                                                    ? station.getGeometry()
+                                                    : null)
+                                            .collect(Collectors.toList());
+        List<Geometry> transformed = transform(geometries, parameters);
+        for (int i = 0; i < stations.size(); i++) {
+            StationOutput station = stations.get(i);
+            if (station != null) {
+                station.setValue(StationOutput.GEOMETRY, transformed.get(i), parameters, station::setGeometry);
+            }
+        }
+    }
+
+    /**
+     * Transforms all given geometries at once which is considerably faster than transforming geometry by
+     * geometry.
+     *
+     * @param geometries
+     *        the geometries to transform, may contain <code>null</code> elements
+     * @param query
+     *        the query containing CRS and how to handle axes order
+     * @return the transformed geometries in the same order
+     */
+    public List<Geometry> transform(List<Geometry> geometries, IoParameters query) {
+        String crs = query.getCrs();
+        if (CRSUtils.DEFAULT_CRS.equals(crs)) {
+            // no need to transform
+            return geometries;
+        }
+        try {
+            return getCrsUtils(query).transformInnerToOuter(geometries, crs);
+        } catch (TransformException e) {
+            throwRuntimeException(crs, e);
+        } catch (FactoryException e) {
+            LOGGER.debug("Couldn't create geometry factory", e);
+        }
+        return geometries;
+    }
+
     public Geometry transform(Geometry geometry, IoParameters query) {
         String crs = query.getCrs();
         if (CRSUtils.DEFAULT_CRS.equals(crs)) {
@@ -72,9 +129,7 @@ public class TransformationService {
                                        String crs)
             throws RuntimeException {
         try {
-            CRSUtils crsUtils = query.isForceXY()
-                    ? CRSUtils.createEpsgForcedXYAxisOrder()
-                    : CRSUtils.createEpsgStrictAxisOrder();
+            CRSUtils crsUtils = getCrsUtils(query);
             return geometry != null
                     ? crsUtils.transformInnerToOuter(geometry, crs)
                     : geometry;
@@ -86,6 +141,12 @@ public class TransformationService {
         return geometry;
     }
 
+    private CRSUtils getCrsUtils(IoParameters query) {
+        return query.isForceXY()
+                ? CRSUtils.createEpsgForcedXYAxisOrder()
+                : CRSUtils.createEpsgStrictAxisOrder();
+    }
+
     private void throwRuntimeException(String crs, TransformException e) throws RuntimeException {
         throw new RuntimeException("Could not transform to requested CRS: " + crs, e);
     }
@@ -28,6 +28,9 @@
  */
 package org.n52.series.spi.geo;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.locationtech.jts.geom.Geometry;
 import org.n52.io.request.IoParameters;
 import org.n52.io.response.GeometryOutput;
@@ -76,8 +79,14 @@ public class TransformingGeometryOutputService extends ParameterService<Geometry
 
     private OutputCollection<GeometryOutput> transform(IoParameters query, OutputCollection<GeometryOutput> infos) {
         if (infos != null) {
-            for (GeometryOutput info : infos) {
-                transformInline(info, query);
+            List<GeometryOutput> items = infos.getItems();
+            List<Geometry> geometries = items.stream()
+                                             .map(GeometryOutput::getGeometry)
+                                             .collect(Collectors.toList());
+            List<Geometry> transformed = transformationService.transform(geometries, query);
+            for (int i = 0; i < items.size(); i++) {
+                GeometryOutput info = items.get(i);
+                info.setValue(GeometryOutput.GEOMETRY, transformed.get(i), query, info::setGeometry);
             }
         }
         return infos;
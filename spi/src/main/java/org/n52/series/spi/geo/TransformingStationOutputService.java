@@ -85,9 +85,7 @@ public class TransformingStationOutputService extends ParameterService<StationOu
     private OutputCollection<StationOutput> transformFeatures(IoParameters query,
             OutputCollection<StationOutput> features) {
         if (features != null) {
-            for (StationOutput feature : features) {
-                transformService.transformInline(feature, query);
-            }
+            transformService.transformInline(features.getItems(), query);
         }
         return features;
     }
@@ -28,8 +28,12 @@
  */
 package org.n52.series.spi.geo;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.n52.io.request.IoParameters;
 import org.n52.io.response.OutputCollection;
+import org.n52.io.response.dataset.StationOutput;
 import org.n52.io.response.dataset.TimeseriesMetadataOutput;
 import org.n52.series.spi.srv.ParameterService;
 import org.n52.series.spi.srv.RawDataService;
@@ -84,10 +88,11 @@ public class TransformingTimeseriesService extends ParameterService<TimeseriesMe
     private OutputCollection<TimeseriesMetadataOutput> transformStations(
             IoParameters query,
             OutputCollection<TimeseriesMetadataOutput> metadata) {
+        List<StationOutput> stations = new ArrayList<>();
         for (TimeseriesMetadataOutput timeseriesMetadata : metadata) {
-            transformationService.transformInline(timeseriesMetadata
-                    .getStation(), query);
+            stations.add(timeseriesMetadata.getStation());
         }
+        transformationService.transformInline(stations, query);
         return metadata;
     }
 
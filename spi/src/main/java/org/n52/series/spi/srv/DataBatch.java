@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.srv;
+
+import java.util.Objects;
+
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+
+/**
+ * A chunk of values of a single dataset as delivered by a {@link DataCursor}.
+ *
+ * @param <T>
+ *        the data type
+ */
+public final class DataBatch<T extends Data< ? extends AbstractValue< ? >>> {
+
+    private final String datasetId;
+
+    private final T data;
+
+    public DataBatch(String datasetId, T data) {
+        this.datasetId = Objects.requireNonNull(datasetId, "datasetId must not be null");
+        this.data = Objects.requireNonNull(data, "data must not be null");
+    }
+
+    public String getDatasetId() {
+        return datasetId;
+    }
+
+    /**
+     * @return the values of this batch. Metadata (e.g. reference values) may be present on the first batch
+     *         of a dataset only.
+     */
+    public T getData() {
+        return data;
+    }
+
+}
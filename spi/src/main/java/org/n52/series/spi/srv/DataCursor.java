@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.srv;
+
+import java.util.Iterator;
+
+import org.joda.time.Period;
+import org.n52.io.request.IoParameters;
+
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+
+/**
+ * Delivers data incrementally as {@link DataBatch batches}, so that consumers do not have to hold complete
+ * datasets in memory. All batches of a dataset are delivered consecutively and in temporal order. Each
+ * requested dataset is delivered with at least one (possibly empty) batch.
+ * <p>
+ * Consumers own the batches handed out and shall not keep them longer than needed. Cursors may hold
+ * resources (e.g. a database cursor) and have to be closed after use.
+ * </p>
+ *
+ * @param <T>
+ *        the data type
+ */
+public interface DataCursor<T extends Data< ? extends AbstractValue< ? >>>
+        extends Iterator<DataBatch<T>>, AutoCloseable {
+
+    @Override
+    void close();
+
+    /**
+     * Reads all remaining batches and closes the cursor afterwards.
+     *
+     * @return the remaining data, batches of the same dataset merged
+     */
+    default DataCollection<T> collect() {
+        return DataCursors.collect(this);
+    }
+
+    /**
+     * Adapts already materialized data. Each dataset is delivered as a single batch.
+     *
+     * @param <T>
+     *        the data type
+     * @param data
+     *        the data to deliver
+     * @return a cursor over the given data
+     */
+    static <T extends Data< ? extends AbstractValue< ? >>> DataCursor<T> of(DataCollection<T> data) {
+        return DataCursors.of(data);
+    }
+
+    /**
+     * Reads the requested timespan window by window. Each window is requested separately via
+     * {@link DataService#getData(IoParameters)} so that only a bounded amount of data is kept in memory at a
+     * time. Datasets are read one after the other.
+     *
+     * @param <T>
+     *        the data type
+     * @param dataService
+     *        the service to read each window from
+     * @param parameters
+     *        the request parameters containing datasets and the overall timespan
+     * @param window
+     *        the period of a single window, e.g. one day
+     * @param prefetch
+     *        if the next window shall be read in the background while the current one is consumed
+     * @return a cursor reading data window by window
+     */
+    static <T extends Data< ? extends AbstractValue< ? >>> DataCursor<T> ofWindows(DataService<T> dataService,
+                                                                                IoParameters parameters,
+                                                                                Period window,
+                                                                                boolean prefetch) {
+        return new WindowedDataCursor<>(dataService, parameters, window, prefetch);
+    }
+
+}
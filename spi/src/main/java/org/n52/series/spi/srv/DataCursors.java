@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.srv;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityData;
+
+final class DataCursors {
+
+    private DataCursors() {
+        // utility class
+    }
+
+    static <T extends Data< ? extends AbstractValue< ? >>> DataCursor<T> of(DataCollection<T> data) {
+        Iterator<Entry<String, T>> iterator = data != null
+                ? data.getAllSeries()
+                      .entrySet()
+                      .iterator()
+                : Collections.<Entry<String, T>> emptyIterator();
+        return new DataCursor<T>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public DataBatch<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more batches available.");
+                }
+                Entry<String, T> entry = iterator.next();
+                return new DataBatch<>(entry.getKey(), entry.getValue());
+            }
+
+            @Override
+            public void close() {
+                // nothing to release
+            }
+        };
+    }
+
+    static <T extends Data< ? extends AbstractValue< ? >>> DataCollection<T> collect(DataCursor<T> cursor) {
+        DataCollection<T> collection = new DataCollection<>();
+        try (DataCursor<T> toCollect = cursor) {
+            while (toCollect.hasNext()) {
+                DataBatch<T> batch = toCollect.next();
+                String datasetId = batch.getDatasetId();
+                T present = collection.getSeries(datasetId);
+                if (present == null) {
+                    collection.addNewSeries(datasetId, batch.getData());
+                } else {
+                    append(present, batch.getData());
+                }
+            }
+        }
+        return collection;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void append(Data< ? > present, Data< ? > toAppend) {
+        if (present instanceof QuantityData && toAppend instanceof QuantityData) {
+            QuantityData data = (QuantityData) present;
+            QuantityData other = (QuantityData) toAppend;
+            for (int i = 0; i < other.size(); i++) {
+                data.addValueOf(other, i);
+            }
+        } else {
+            ((Data) present).addValues(toAppend.getValues()
+                                               .toArray(new AbstractValue< ? >[0]));
+        }
+    }
+
+}
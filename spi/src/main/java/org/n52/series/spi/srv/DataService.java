@@ -41,4 +41,16 @@ public interface DataService<T extends Data<? extends AbstractValue< ? >>> exten
 
     DataCollection<T> getData(IoParameters parameters);
 
+    /**
+     * Delivers data incrementally. Implementations able to read data in chunks should override this method,
+     * the default materializes all data via {@link #getData(IoParameters)}.
+     *
+     * @param parameters
+     *        the request parameters
+     * @return a cursor over the requested data which has to be closed after use
+     */
+    default DataCursor<T> getDataCursor(IoParameters parameters) {
+        return DataCursor.of(getData(parameters));
+    }
+
 }
@@ -0,0 +1,414 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.srv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+import org.joda.time.Period;
+import org.n52.io.IntervalWithTimeZone;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.io.response.dataset.quantity.QuantityData;
+
+/**
+ * Reads data of long timespans window by window. Datasets are read one after the other, each by splitting the
+ * requested timespan into consecutive windows of a fixed period. Windows are created while the cursor advances.
+ * Every window is requested separately via {@link DataService#getData(IoParameters)} and delivered as a single
+ * batch, so only one window (or two, in case the next window is prefetched in the background) has to be kept in
+ * memory.
+ * <p>
+ * As timespans are inclusive on both ends, values on a window boundary may be contained in two windows. Those
+ * values are delivered once. Metadata is kept on the first batch of a dataset only. The value after the
+ * timespan is merged into that metadata once the last window has been read, i.e. it is available to consumers
+ * reading the metadata after all values of a dataset.
+ * </p>
+ *
+ * @param <T>
+ *        the data type
+ */
+final class WindowedDataCursor<T extends Data< ? extends AbstractValue< ? >>> implements DataCursor<T> {
+
+    private final DataService<T> dataService;
+
+    private final List<String> datasetIds;
+
+    private final IoParameters withoutDatasets;
+
+    private final Interval timespan;
+
+    private final Period window;
+
+    private final boolean prefetch;
+
+    private int nextDataset;
+
+    private DateTime nextWindowStart;
+
+    private WindowRequest nextRequest;
+
+    private Future<DataCollection<T>> prefetched;
+
+    private DataBatch<T> upcoming;
+
+    private String currentDatasetId;
+
+    private DatasetMetadata< ? > currentMetadata;
+
+    private long lastTimestamp;
+
+    private boolean delivered;
+
+    private boolean closed;
+
+    WindowedDataCursor(DataService<T> dataService, IoParameters parameters, Period window, boolean prefetch) {
+        Objects.requireNonNull(parameters, "parameters must not be null");
+        this.dataService = Objects.requireNonNull(dataService, "dataService must not be null");
+        this.window = Objects.requireNonNull(window, "window must not be null");
+        this.datasetIds = new ArrayList<>(parameters.getDatasets());
+        this.withoutDatasets = parameters.removeAllOf(Parameters.SERIES)
+                                         .removeAllOf(Parameters.TIMESERIES)
+                                         .removeAllOf(Parameters.DATASETS);
+        this.timespan = toZonedInterval(parameters.getTimespan());
+        this.prefetch = prefetch;
+    }
+
+    private static Interval toZonedInterval(IntervalWithTimeZone timespan) {
+        // step within the requested timezone so that e.g. daily windows respect DST changes
+        Interval interval = timespan.toInterval();
+        return interval.withChronology(interval.getChronology()
+                                               .withZone(timespan.getTimezone()));
+    }
+
+    /**
+     * Creates the request of the window following the last one created. Windows are created one at a time while
+     * the cursor advances, so that the amount of windows does not affect memory.
+     *
+     * @return the next window request or <code>null</code> if all windows of all datasets have been created
+     */
+    private WindowRequest createNextRequest() {
+        if (nextDataset >= datasetIds.size()) {
+            return null;
+        }
+        String datasetId = datasetIds.get(nextDataset);
+        boolean first = nextWindowStart == null;
+        DateTime windowStart = first
+                ? timespan.getStart()
+                : nextWindowStart;
+        DateTime windowEnd = windowStart.plus(window);
+        if (!windowEnd.isAfter(windowStart)) {
+            throw new IllegalArgumentException("Window must be a positive period: " + window);
+        }
+        boolean last = !windowEnd.isBefore(timespan.getEnd());
+        if (last) {
+            windowEnd = timespan.getEnd();
+            nextWindowStart = null;
+            nextDataset++;
+        } else {
+            nextWindowStart = windowEnd;
+        }
+        Interval interval = new Interval(windowStart, windowEnd);
+        IoParameters windowParameters = withoutDatasets.extendWith(Parameters.DATASETS, datasetId)
+                                                       .replaceWith(Parameters.TIMESPAN, interval.toString());
+        return new WindowRequest(datasetId, windowParameters, first, last);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (upcoming == null && !closed) {
+            upcoming = readNextBatch();
+        }
+        return upcoming != null;
+    }
+
+    @Override
+    public DataBatch<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more batches available.");
+        }
+        DataBatch<T> batch = upcoming;
+        upcoming = null;
+        return batch;
+    }
+
+    private DataBatch<T> readNextBatch() {
+        DataBatch<T> batch = null;
+        WindowRequest request = takeNextRequest();
+        while (batch == null && request != null) {
+            DataCollection<T> collection = fetchCurrent(request);
+            if (prefetch) {
+                nextRequest = createNextRequest();
+                if (nextRequest != null) {
+                    prefetched = fetchAsync(nextRequest);
+                }
+            }
+            batch = toBatch(request, collection.getSeries(request.datasetId));
+            if (batch == null) {
+                request = takeNextRequest();
+            }
+        }
+        return batch;
+    }
+
+    private WindowRequest takeNextRequest() {
+        WindowRequest request = nextRequest != null
+                ? nextRequest
+                : createNextRequest();
+        nextRequest = null;
+        return request;
+    }
+
+    private DataCollection<T> fetchCurrent(WindowRequest request) {
+        if (prefetched == null) {
+            return fetch(request);
+        }
+        try {
+            return prefetched.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new IllegalStateException("Interrupted while reading data of " + request.datasetId, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Could not read data of " + request.datasetId, cause);
+        } finally {
+            prefetched = null;
+        }
+    }
+
+    private Future<DataCollection<T>> fetchAsync(WindowRequest request) {
+        return CompletableFuture.supplyAsync(() -> fetch(request), PrefetchPool.EXECUTOR);
+    }
+
+    private DataCollection<T> fetch(WindowRequest request) {
+        DataCollection<T> collection = dataService.getData(request.parameters);
+        return collection != null
+                ? collection
+                : new DataCollection<>();
+    }
+
+    private DataBatch<T> toBatch(WindowRequest request, T data) {
+        if (!request.datasetId.equals(currentDatasetId)) {
+            currentDatasetId = request.datasetId;
+            currentMetadata = null;
+            lastTimestamp = Long.MIN_VALUE;
+            delivered = false;
+        }
+        adjustMetadata(request, data);
+        T windowData = data != null
+                ? skipDelivered(data)
+                : null;
+        if (windowData == null || windowData.size() == 0) {
+            // skip empty windows but keep the guarantee of at least one batch per dataset
+            return request.last && !delivered
+                    ? deliver(request, windowData != null
+                            ? windowData
+                            : createEmpty())
+                    : null;
+        }
+        lastTimestamp = getLastTimestamp(windowData, lastTimestamp);
+        return deliver(request, windowData);
+    }
+
+    @SuppressWarnings({
+        "unchecked",
+        "rawtypes"
+    })
+    private DataBatch<T> deliver(WindowRequest request, T data) {
+        ((Data) data).setMetadata(delivered
+                ? null
+                : currentMetadata);
+        delivered = true;
+        return new DataBatch<>(request.datasetId, data);
+    }
+
+    @SuppressWarnings({
+        "unchecked",
+        "rawtypes"
+    })
+    private T skipDelivered(T data) {
+        int skip = 0;
+        long size = data.size();
+        while (skip < size && getTimestamp(data, skip) <= lastTimestamp) {
+            skip++;
+        }
+        if (skip == 0) {
+            return data;
+        }
+        if (data instanceof QuantityData) {
+            QuantityData quantityData = (QuantityData) data;
+            QuantityData remaining = quantityData.copyEmpty((int) size - skip);
+            for (int i = skip; i < size; i++) {
+                remaining.addValueOf(quantityData, i);
+            }
+            return (T) remaining;
+        }
+        // values of plain data are not modifiable
+        List< ? extends AbstractValue< ? >> values = data.getValues();
+        Data remaining = new Data(data.getMetadata());
+        for (int i = skip; i < size; i++) {
+            remaining.addNewValue(values.get(i));
+        }
+        return (T) remaining;
+    }
+
+    private static long getTimestamp(Data< ? > data, int index) {
+        return data instanceof QuantityData
+                ? ((QuantityData) data).getTimestamp(index)
+                : data.getValues()
+                      .get(index)
+                      .getTimestamp()
+                      .getMillis();
+    }
+
+    private static long getLastTimestamp(Data< ? > data, long fallback) {
+        return data.size() == 0
+                ? fallback
+                : getTimestamp(data, (int) data.size() - 1);
+    }
+
+    private void adjustMetadata(WindowRequest request, T data) {
+        DatasetMetadata< ? > metadata = data != null
+                ? data.getMetadata()
+                : null;
+        if (request.first) {
+            currentMetadata = metadata;
+            if (metadata != null && !request.last) {
+                // belongs to the end of the first window, not of the requested timespan
+                metadata.setValueAfterTimespan(null);
+            }
+        } else if (request.last && metadata != null) {
+            mergeValueAfterTimespan(metadata);
+        }
+    }
+
+    @SuppressWarnings({
+        "unchecked",
+        "rawtypes"
+    })
+    private void mergeValueAfterTimespan(DatasetMetadata< ? > lastWindowMetadata) {
+        if (currentMetadata == null) {
+            // can only be delivered if no batch of the dataset has been delivered yet
+            currentMetadata = lastWindowMetadata;
+            lastWindowMetadata.setValueBeforeTimespan(null);
+        } else {
+            // the first batch keeps a reference, so writers see the value when writing metadata after the values
+            ((DatasetMetadata) currentMetadata).setValueAfterTimespan(lastWindowMetadata.getValueAfterTimespan());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T createEmpty() {
+        return (T) new Data<>();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        upcoming = null;
+        if (prefetched != null) {
+            prefetched.cancel(true);
+            prefetched = null;
+        }
+    }
+
+    private static final class WindowRequest {
+
+        private final String datasetId;
+
+        private final IoParameters parameters;
+
+        private final boolean first;
+
+        private final boolean last;
+
+        WindowRequest(String datasetId, IoParameters parameters, boolean first, boolean last) {
+            this.datasetId = datasetId;
+            this.parameters = parameters;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    /**
+     * Lazily creates the pool reading windows in advance. Reading data is rather I/O than CPU bound, so the
+     * pool may have twice as many threads as available processors. Threads are created on demand and terminate
+     * when idle; further windows queue up until a thread becomes available.
+     */
+    private static final class PrefetchPool {
+
+        private static final int MAX_THREADS = 2 * Runtime.getRuntime()
+                                                          .availableProcessors();
+
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        private static final ExecutorService EXECUTOR = createExecutor();
+
+        private static ExecutorService createExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS,
+                                                                 MAX_THREADS,
+                                                                 60L,
+                                                                 TimeUnit.SECONDS,
+                                                                 new LinkedBlockingQueue<>(),
+                                                                 PrefetchPool::createThread);
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+
+        private static Thread createThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "data-prefetch-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -29,18 +29,25 @@
 package org.n52.io.crs;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.n52.io.crs.CRSUtils.DEFAULT_CRS;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
 
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.io.ParseException;
@@ -71,6 +78,45 @@ public class CRSUtilsTest {
         assertThat(referenceHelper.isLatLonAxesOrder("EPSG:4326"), is(false));
     }
 
+    @Test
+    public void when_creatingHelperTwice_then_sameInstanceIsReturned() {
+        assertThat(CRSUtils.createEpsgStrictAxisOrder(), is(sameInstance(CRSUtils.createEpsgStrictAxisOrder())));
+        assertThat(CRSUtils.createEpsgForcedXYAxisOrder(),
+                   is(sameInstance(CRSUtils.createEpsgForcedXYAxisOrder())));
+    }
+
+    @Test
+    public void when_gettingTransformTwice_then_cachedTransformIsReturned() throws FactoryException {
+        MathTransform transform = referenceHelper.getTransform(DEFAULT_CRS, "EPSG:3857");
+        assertThat(referenceHelper.getTransform(null, "EPSG:3857"), is(sameInstance(transform)));
+    }
+
+    @Test
+    public void when_transformingGeometriesAtOnce_then_sameAsTransformingEachGeometry() throws Exception {
+        Coordinate[] coordinates = new Coordinate[20000];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = new Coordinate(7.0 + i * 0.0001, 52.0 - i * 0.0001);
+        }
+        List<Geometry> geometries = Arrays.asList(referenceHelper.createPoint(7.0, 52.0, 100.0, DEFAULT_CRS),
+                                                  null,
+                                                  referenceHelper.createLineString(coordinates, DEFAULT_CRS));
+        List<Geometry> transformed = referenceHelper.transformInnerToOuter(geometries, "EPSG:3857");
+        assertThat(transformed.size(), is(3));
+        assertThat(transformed.get(1), is(nullValue()));
+        for (int i : new int[] {0, 2}) {
+            Geometry expected = referenceHelper.transformInnerToOuter(geometries.get(i), "EPSG:3857");
+            assertTrue(expected.equalsExact(transformed.get(i), 1e-6));
+        }
+        // input stays untouched
+        assertThat(geometries.get(0)
+                             .getCoordinate().z,
+                   is(100.0));
+        assertThat(geometries.get(2)
+                             .getCoordinate()
+                             .equals2D(coordinates[0]),
+                   is(true));
+    }
+
     @Test
     public void testIsStationContainedByBBox() throws NoSuchAuthorityCodeException,
             FactoryException,
@@ -37,6 +37,7 @@ import static org.n52.io.crs.WGS84Util.EPSG_4326;
 import static org.n52.io.crs.WGS84Util.getLatitudeDelta;
 import static org.n52.io.crs.WGS84Util.getLatitutesCircleRadius;
 import static org.n52.io.crs.WGS84Util.getLongitudeDelta;
+import static org.n52.io.crs.WGS84Util.haversineDistanceBetween;
 import static org.n52.io.crs.WGS84Util.shortestDistanceBetween;
 
 import org.junit.Before;
@@ -69,6 +70,21 @@ public class WGS84UtilTest {
         assertThat(shortestDistanceBetween(statueOfLiberty, tourDeEiffel), closeTo(5837.0, 0.5));
     }
 
+    @Test
+    public void
+            shouldCalculateHaversineDistanceFromStatueOfLibertyToEiffelTower() throws FactoryException {
+        Point statueOfLiberty = createXYOrderedWgs84Point(-74.0444, 40.6892);
+        Point tourDeEiffel = createXYOrderedWgs84Point(2.2945, 48.8583);
+        assertThat(haversineDistanceBetween(statueOfLiberty, tourDeEiffel), closeTo(5837.0, 0.5));
+    }
+
+    @Test
+    public void
+            shouldCalculateZeroHaversineDistanceForIdenticalPoints() throws FactoryException {
+        Point point = createXYOrderedWgs84Point(7.6279, 51.9607);
+        assertThat(haversineDistanceBetween(point, point), closeTo(0, 0));
+    }
+
     private Point createXYOrderedWgs84Point(double lon, double lat) throws FactoryException {
         return helper.createPoint(lon, lat, EPSG_4326);
     }
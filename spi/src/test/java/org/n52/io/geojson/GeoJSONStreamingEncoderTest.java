@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.geojson;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+public class GeoJSONStreamingEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void when_writingGeometries_then_outputEqualsTreeEncoding() throws Exception {
+        assertSameAsTreeEncoding("POINT (7.5 51.9)");
+        assertSameAsTreeEncoding("POINT (7.5 51.9 12.3)");
+        assertSameAsTreeEncoding("LINESTRING (7.5 51.9, 7.6 52.0, 7.7 52.1)");
+        assertSameAsTreeEncoding("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 2 2))");
+        assertSameAsTreeEncoding("MULTIPOINT ((1 2), (3 4))");
+        assertSameAsTreeEncoding("MULTILINESTRING ((1 2, 3 4), (5 6, 7 8))");
+        assertSameAsTreeEncoding("MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)), ((5 5, 6 5, 6 6, 5 5)))");
+        assertSameAsTreeEncoding("GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (1 2, 3 4), POINT EMPTY)");
+    }
+
+    @Test
+    public void when_sridDiffers_then_crsIsWritten() throws Exception {
+        Geometry geometry = readWkt("POINT (3.5 50.1)");
+        geometry.setSRID(3857);
+        assertThat(write(new GeoJSONStreamingEncoder(), geometry), is(writeTree(geometry)));
+    }
+
+    @Test
+    public void when_writingEmptyGeometry_then_nullIsWritten() throws Exception {
+        assertThat(write(new GeoJSONStreamingEncoder(), readWkt("LINESTRING EMPTY")), is("null"));
+    }
+
+    @Test
+    public void when_precisionIsSet_then_coordinatesAreRounded() throws Exception {
+        Geometry geometry = readWkt("LINESTRING (7.123456789 51.987654321, -0.0000004 1.5)");
+        assertThat(write(new GeoJSONStreamingEncoder(5), geometry),
+                   is("{\"type\":\"LineString\",\"coordinates\":[[7.12346,51.98765],[0.0,1.5]]}"));
+    }
+
+    @Test
+    public void when_serializingWithPrecisionAttribute_then_coordinatesAreRounded() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(Geometry.class, new GeoJSONGeometrySerializer()));
+        String json = mapper.writer()
+                            .withAttribute(GeoJSONStreamingEncoder.COORDINATE_PRECISION, 2)
+                            .writeValueAsString(readWkt("POINT (7.123 51.987)"));
+        assertThat(json, is("{\"type\":\"Point\",\"coordinates\":[7.12,51.99]}"));
+    }
+
+    @Test
+    public void when_precisionIsNegative_then_coordinatesAreNotRounded() {
+        GeoJSONStreamingEncoder encoder = new GeoJSONStreamingEncoder(-3);
+        assertThat(encoder.getPrecision(), is(GeoJSONStreamingEncoder.FULL_PRECISION));
+        assertThat(encoder.round(7.123456789), is(7.123456789));
+    }
+
+    private void assertSameAsTreeEncoding(String wkt) throws Exception {
+        Geometry geometry = readWkt(wkt);
+        assertThat(wkt, write(new GeoJSONStreamingEncoder(), geometry), is(writeTree(geometry)));
+    }
+
+    private String write(GeoJSONStreamingEncoder encoder, Geometry geometry) throws IOException, GeoJSONException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator gen = objectMapper.getFactory()
+                                             .createGenerator(writer)) {
+            encoder.writeGeometry(geometry, gen);
+        }
+        return writer.toString();
+    }
+
+    private String writeTree(Geometry geometry) throws IOException, GeoJSONException {
+        return objectMapper.writeValueAsString(new GeoJSONEncoder().encodeGeometry(geometry));
+    }
+
+    private static Geometry readWkt(String wkt) throws ParseException {
+        Geometry geometry = new WKTReader().read(wkt);
+        geometry.setSRID(GeoJSONEncoder.DEFAULT_SRID);
+        return geometry;
+    }
+
+}
@@ -30,13 +30,17 @@ package org.n52.io.request;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 import static org.n52.io.request.IoParameters.createDefaults;
 import static org.n52.io.request.IoParameters.createFromMultiValueMap;
 import static org.n52.io.request.IoParameters.createFromSingleValueMap;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
@@ -47,6 +51,7 @@ import java.util.Optional;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
@@ -55,10 +60,12 @@ import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 import org.n52.io.IntervalWithTimeZone;
+import org.n52.io.IoParseException;
 import org.n52.io.crs.BoundingBox;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -70,6 +77,9 @@ public class IoParametersTest {
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void when_ioParseExceptionActionIsRuntimeException_then_exeptionIsThrown() {
         IoParameters defaults = IoParameters.createDefaults();
@@ -340,6 +350,137 @@ public class IoParametersTest {
     }
 
 
+    @Test
+    public void when_derivingFromCustomDefaults_then_customDefaultsAreKept() throws URISyntaxException {
+        IoParameters parameters = createDefaults(getAlternativeConfigFile());
+        IoParameters derived = parameters.extendWith("test", "value")
+                                         .removeAllOf("test");
+        assertThat(derived.getWidth(), is(1000));
+    }
+
+    @Test
+    public void when_removingDefaultParameter_then_defaultValueIsStillPresent() {
+        IoParameters parameters = createDefaults().extendWith(Parameters.WIDTH, "300");
+        assertThat(parameters.getWidth(), is(300));
+        assertThat(parameters.removeAllOf(Parameters.WIDTH)
+                             .getWidth(),
+                   is(2000));
+    }
+
+    @Test
+    public void when_reloadingDefaults_then_onlyNewInstancesSeeChanges() throws IOException {
+        File config = temporaryFolder.newFile("reloadable-config.json");
+        Files.write(config.toPath(), "{ \"width\": 100 }".getBytes(StandardCharsets.UTF_8));
+        IoParameters before = createDefaults(config);
+
+        Files.write(config.toPath(), "{ \"width\": 200 }".getBytes(StandardCharsets.UTF_8));
+        ParameterDefaults.getDefaults(config)
+                         .reload();
+        IoParameters after = createDefaults(config);
+
+        assertThat(before.getWidth(), is(100));
+        assertThat(before.extendWith("test", "value")
+                         .getWidth(),
+                   is(100));
+        assertThat(after.getWidth(), is(200));
+    }
+
+    @Test
+    public void when_derivingManyTimes_then_allChangesArePresent() {
+        IoParameters defaults = createDefaults();
+        IoParameters derived = defaults;
+        for (int i = 0; i < 50; i++) {
+            derived = derived.extendWith("param" + i, "value" + i);
+        }
+        derived = derived.removeAllOf("param0")
+                         .replaceWith("param1", "other");
+        Assert.assertFalse(derived.containsParameter("param0"));
+        assertThat(derived.getAsString("param1"), is("other"));
+        assertThat(derived.getAsString("param49"), is("value49"));
+        Assert.assertFalse(defaults.containsParameter("param1"));
+    }
+
+    @Test
+    public void when_replacingWithNoValues_then_parameterIsRemoved() {
+        IoParameters parameters = createDefaults().extendWith("test", "value")
+                                                  .replaceWith("test");
+        Assert.assertFalse(parameters.containsParameter("test"));
+    }
+
+    @Test
+    public void when_gettingFieldsTwice_then_sameInstanceIsReturned() {
+        IoParameters parameters = createDefaults().extendWith(Parameters.FILTER_FIELDS, "id,Label");
+        assertThat(parameters.getFields(), containsInAnyOrder("id", "label"));
+        Assert.assertSame(parameters.getFields(), parameters.getFields());
+    }
+
+    @Test
+    public void when_derivingInstance_then_memoizedValuesAreNotShared() {
+        IoParameters parameters = createDefaults().extendWith(Parameters.DATASETS, "foo");
+        assertThat(parameters.getDatasets(), containsInAnyOrder("foo"));
+        IoParameters derived = parameters.replaceWith(Parameters.DATASETS, "bar");
+        assertThat(derived.getDatasets(), containsInAnyOrder("bar"));
+        assertThat(parameters.getDatasets(), containsInAnyOrder("foo"));
+    }
+
+    @Test
+    public void when_differentOrderAndCase_then_sameFingerprint() {
+        IoParameters first = createDefaults().extendWith("Datasets", "foo,bar")
+                                             .extendWith(Parameters.LOCALE, "de");
+        IoParameters second = createDefaults().extendWith(Parameters.LOCALE, "de")
+                                              .extendWith(Parameters.DATASETS, "bar,foo");
+        assertThat(first.getFingerprint(), is(second.getFingerprint()));
+    }
+
+    @Test
+    public void when_excludingPresentationParameters_then_localeIsIgnored() {
+        IoParameters first = createDefaults().extendWith(Parameters.LOCALE, "de");
+        IoParameters second = createDefaults().extendWith(Parameters.LOCALE, "en");
+        assertThat(first.getFingerprint(), is(not(second.getFingerprint())));
+        assertThat(first.getFingerprint(IoParameters.PRESENTATION_PARAMETERS),
+                   is(second.getFingerprint(IoParameters.PRESENTATION_PARAMETERS)));
+    }
+
+    @Test
+    public void when_relativeTimespan_then_nowIsTruncatedToGranularity() {
+        try {
+            DateTimeUtils.setCurrentMillisFixed(new DateTime("2019-03-01T10:15:20Z").getMillis());
+            IoParameters first = createDefaults().extendWith(Parameters.TIMESPAN, "PT6H/now");
+            DateTimeUtils.setCurrentMillisFixed(new DateTime("2019-03-01T10:15:50Z").getMillis());
+            IoParameters second = createDefaults().extendWith(Parameters.TIMESPAN, "PT6H/now");
+            IoParameters hourly = second.extendWith(Parameters.FINGERPRINT_TIME_GRANULARITY, "PT1H");
+            assertThat(first.getFingerprint(), is(second.getFingerprint()));
+            MatcherAssert.assertThat(hourly.getCanonicalForm(Collections.emptySet()),
+                                     Matchers.containsString("timespan=PT6H/2019-03-01T10:00:00.000Z&"));
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+    }
+
+    @Test
+    public void when_zoomLevelGiven_then_toleranceHalvesPerLevel() {
+        double zoom3 = createDefaults().extendWith(Parameters.ZOOM, "3")
+                                       .getSimplifyTolerance();
+        double zoom4 = createDefaults().extendWith(Parameters.ZOOM, "4")
+                                       .getSimplifyTolerance();
+        assertThat(zoom3, is(2 * zoom4));
+        assertThat(createDefaults().getSimplifyTolerance(), is(0d));
+    }
+
+    @Test
+    public void when_simplifyAndZoomGiven_then_explicitToleranceWins() {
+        IoParameters parameters = createDefaults().extendWith(Parameters.ZOOM, "3")
+                                                  .extendWith(Parameters.SIMPLIFY, "0.5");
+        assertThat(parameters.getSimplifyTolerance(), is(0.5));
+    }
+
+    @Test
+    public void when_negativeTolerance_then_parseException() {
+        thrown.expect(IoParseException.class);
+        createDefaults().extendWith(Parameters.SIMPLIFY, "-1")
+                        .getSimplifyTolerance();
+    }
+
     private File getAlternativeConfigFile() throws URISyntaxException {
         Path root = Paths.get(getClass().getResource("/")
                                         .toURI());
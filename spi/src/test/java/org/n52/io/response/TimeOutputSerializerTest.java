@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.response;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.GJChronology;
+import org.junit.Test;
+import org.n52.shetland.util.DateTimeHelper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+public class TimeOutputSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(
+            new SimpleModule().addSerializer(TimeOutput.class, new TimeOutputSerializer()));
+
+    @Test
+    public void when_unixTime_then_millisAreWritten() throws JsonProcessingException {
+        TimeOutput time = new TimeOutput(new DateTime(1_500_000_000_123L), true);
+        assertThat(objectMapper.writeValueAsString(time), is("1500000000123"));
+    }
+
+    @Test
+    public void when_utc_then_zuluIsWritten() throws JsonProcessingException {
+        TimeOutput time = new TimeOutput(new DateTime(0L, DateTimeZone.UTC));
+        assertThat(objectMapper.writeValueAsString(time), is("\"1970-01-01T00:00:00.000Z\""));
+    }
+
+    @Test
+    public void when_negativeOffset_then_offsetIsWritten() throws JsonProcessingException {
+        DateTime dateTime = new DateTime(1_500_000_000_000L, DateTimeZone.forOffsetHoursMinutes(-3, -30));
+        assertThat(objectMapper.writeValueAsString(new TimeOutput(dateTime)),
+                   is("\"2017-07-13T23:10:00.000-03:30\""));
+    }
+
+    @Test
+    public void when_crossingDaylightSavingTransition_then_offsetChanges() throws JsonProcessingException {
+        DateTimeZone berlin = DateTimeZone.forID("Europe/Berlin");
+        DateTime beforeTransition = new DateTime(2019, 3, 31, 1, 59, berlin);
+        DateTime afterTransition = beforeTransition.plusMinutes(1);
+        assertThat(objectMapper.writeValueAsString(new TimeOutput(beforeTransition)),
+                   is("\"2019-03-31T01:59:00.000+01:00\""));
+        assertThat(objectMapper.writeValueAsString(new TimeOutput(afterTransition)),
+                   is("\"2019-03-31T03:00:00.000+02:00\""));
+        assertThat(objectMapper.writeValueAsString(new TimeOutput(beforeTransition)),
+                   is("\"2019-03-31T01:59:00.000+01:00\""));
+    }
+
+    @Test
+    public void when_unsupportedDateTime_then_fallbackIsWritten() throws JsonProcessingException {
+        DateTime gj = new DateTime(1_500_000_000_000L, GJChronology.getInstance(DateTimeZone.UTC));
+        DateTime farFuture = new DateTime(253_402_300_800_000L, DateTimeZone.UTC);
+        DateTime secondsOffset = new DateTime(0L, DateTimeZone.forOffsetMillis(1_234));
+        for (DateTime dateTime : new DateTime[] { gj, farFuture, secondsOffset }) {
+            assertThat(objectMapper.writeValueAsString(new TimeOutput(dateTime)),
+                       is("\"" + DateTimeHelper.formatDateTime2IsoString(dateTime) + "\""));
+        }
+    }
+
+    @Test
+    public void when_serializingRandomTimes_then_outputEqualsIsoFormat() throws JsonProcessingException {
+        Random random = new Random(42);
+        DateTimeZone[] zones = {
+            DateTimeZone.UTC,
+            DateTimeZone.forID("Europe/Berlin"),
+            DateTimeZone.forID("America/St_Johns"),
+            DateTimeZone.forID("Australia/Lord_Howe"),
+            DateTimeZone.forOffsetHours(14),
+        };
+        for (int i = 0; i < 10_000; i++) {
+            // years 1 to 9000
+            long millis = -62_000_000_000_000L + (long) (random.nextDouble() * 282_000_000_000_000L);
+            DateTime dateTime = new DateTime(millis, zones[i % zones.length]);
+            assertThat(objectMapper.writeValueAsString(new TimeOutput(dateTime)),
+                       is("\"" + DateTimeHelper.formatDateTime2IsoString(dateTime) + "\""));
+        }
+    }
+
+}
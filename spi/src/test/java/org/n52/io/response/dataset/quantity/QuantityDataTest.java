@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.io.response.dataset.quantity;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.math.BigDecimal;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.n52.io.response.TimeOutput;
+import org.n52.io.response.dataset.Data;
+
+public class QuantityDataTest {
+
+    private static final DateTimeZone ZONE = DateTimeZone.forOffsetHours(2);
+
+    @Test
+    public void when_convertingObjectValues_then_viewsAreEqual() {
+        Data<QuantityValue> data = new Data<>();
+        data.addNewValue(createValue(1000L, new BigDecimal("1.5")));
+        data.addNewValue(createValue(2000L, null));
+        data.addNewValue(createValue(3000L, new BigDecimal("-3.25")));
+
+        QuantityData columnar = QuantityData.of(data);
+        assertThat(columnar.size(), is(3L));
+        assertThat(columnar.getTimestamp(2), is(3000L));
+        assertThat(columnar.getValue(2), is(-3.25d));
+        assertThat(columnar.isNoDataValue(1), is(true));
+        assertThat(columnar.isObjectValue(0), is(false));
+
+        QuantityValue view = columnar.getValues()
+                                     .get(0);
+        assertThat(view.getTimestamp()
+                       .getDateTime(),
+                   is(new DateTime(1000L, ZONE)));
+        assertThat(view.getValue(), is(new BigDecimal("1.5")));
+        assertThat(columnar.getValues()
+                           .get(1)
+                           .isNoDataValue(),
+                   is(true));
+    }
+
+    @Test
+    public void when_valueHasGeometry_then_objectIsKept() {
+        QuantityValue value = createValue(1000L, BigDecimal.ONE);
+        value.setGeometry(new GeometryFactory().createPoint(new Coordinate(7.0, 52.0)));
+        QuantityData data = new QuantityData();
+        data.addNewValue(createValue(500L, BigDecimal.ZERO));
+        data.addNewValue(value);
+
+        assertThat(data.isObjectValue(1), is(true));
+        assertThat(data.getValueAt(1), is(sameInstance(value)));
+        assertThat(data.getTimestamp(1), is(1000L));
+    }
+
+    @Test
+    public void when_addingValuesOfOtherData_then_timestartIsCopied() {
+        QuantityData data = new QuantityData().addValue(1000L, 2000L, 42d)
+                                              .addNoDataValue(3000L);
+        QuantityData copy = data.copyEmpty(2);
+        copy.addValueOf(data, 1);
+        copy.addValueOf(data, 0);
+
+        assertThat(copy.getDecimalValue(0), is(nullValue()));
+        assertThat(copy.hasTimestart(1), is(true));
+        assertThat(copy.getTimestart(1), is(1000L));
+        assertThat(copy.getFormattedValue(1), is("42.0"));
+    }
+
+    @Test
+    public void when_decimalsHaveScale_then_representationIsKept() {
+        QuantityData data = new QuantityData();
+        data.addNewValue(createValue(1000L, new BigDecimal("12.50")));
+        data.addNewValue(createValue(2000L, new BigDecimal("10")));
+        data.addNewValue(createValue(3000L, new BigDecimal("10000000")));
+        data.addNewValue(createValue(4000L, new BigDecimal("1.5")));
+
+        assertThat(data.isObjectValue(0), is(false));
+        assertThat(data.getValue(0), is(12.5d));
+        assertThat(data.getValues()
+                       .get(0)
+                       .getValue()
+                       .toString(),
+                   is("12.50"));
+        assertThat(data.getDecimalValue(1)
+                       .toString(),
+                   is("10"));
+        assertThat(data.getFormattedValue(2), is("10000000"));
+        assertThat(data.isScaledValue(3), is(false));
+        assertThat(data.getDecimalValue(3)
+                       .toString(),
+                   is("1.5"));
+    }
+
+    @Test
+    public void when_addingValuesOfOtherData_then_scaleIsCopied() {
+        QuantityData data = new QuantityData();
+        data.addNewValue(createValue(1000L, new BigDecimal("12.50")));
+        QuantityData copy = data.copyEmpty(1);
+        copy.addValueOf(data, 0);
+
+        assertThat(copy.getDecimalValue(0)
+                       .toString(),
+                   is("12.50"));
+    }
+
+    private QuantityValue createValue(long millis, BigDecimal value) {
+        QuantityValue quantityValue = new QuantityValue();
+        quantityValue.setTimestamp(new TimeOutput(new DateTime(millis, ZONE)));
+        quantityValue.setValue(value);
+        return quantityValue;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.geo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+public class GeometrySimplifierTest {
+
+    private static final String ZIGZAG = "LINESTRING (0 0, 1 0.01, 2 0, 3 0.01, 4 0, 5 0.01, 6 0)";
+
+    private GeometrySimplifier simplifier;
+
+    @Before
+    public void setUp() {
+        simplifier = new GeometrySimplifier(2);
+    }
+
+    @Test
+    public void when_simplifyingWithTolerance_then_verticesAreRemoved() throws ParseException {
+        Geometry line = createGeometry(ZIGZAG);
+        Geometry simplified = simplifier.simplify("line", line, 0.1);
+        assertThat(simplified.getNumPoints(), lessThan(line.getNumPoints()));
+        assertThat(simplified.getSRID(), is(4326));
+    }
+
+    @Test
+    public void when_noTolerance_then_geometryIsReturnedAsIs() throws ParseException {
+        Geometry line = createGeometry(ZIGZAG);
+        assertThat(simplifier.simplify("line", line, 0), is(sameInstance(line)));
+    }
+
+    @Test
+    public void when_simplifyingPoint_then_pointIsReturnedAsIs() throws ParseException {
+        Geometry point = createGeometry("POINT (7 52)");
+        assertThat(simplifier.simplify("point", point, 1), is(sameInstance(point)));
+    }
+
+    @Test
+    public void when_simplifyingSameGeometryTwice_then_cachedResultIsReturned() throws ParseException {
+        Geometry first = simplifier.simplify("line", createGeometry(ZIGZAG), 0.1);
+        Geometry second = simplifier.simplify("line", createGeometry(ZIGZAG), 0.1);
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    @Test
+    public void when_simplifyingWithOtherTolerance_then_resultIsNotShared() throws ParseException {
+        Geometry first = simplifier.simplify("line", createGeometry(ZIGZAG), 0.1);
+        Geometry second = simplifier.simplify("line", createGeometry(ZIGZAG), 0.001);
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void when_geometryOfIdChanged_then_cachedResultIsNotUsed() throws ParseException {
+        Geometry first = simplifier.simplify("line", createGeometry(ZIGZAG), 0.1);
+        Geometry changed = createGeometry("LINESTRING (0 0, 1 1, 2 0, 3 1)");
+        Geometry second = simplifier.simplify("line", changed, 0.1);
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.equalsExact(changed), is(true));
+    }
+
+    @Test
+    public void when_simplifyingPolygonWithHole_then_holeIsPreserved() throws ParseException {
+        Geometry polygon = createGeometry("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), "
+                + "(4 4, 6 4, 6 6, 4 6, 4 4))");
+        Geometry simplified = simplifier.simplify("polygon", polygon, 5);
+        assertThat(simplified.isValid(), is(true));
+        assertThat(simplified.getArea(), is(polygon.getArea()));
+    }
+
+    private Geometry createGeometry(String wkt) throws ParseException {
+        Geometry geometry = new WKTReader().read(wkt);
+        geometry.setSRID(4326);
+        return geometry;
+    }
+
+}
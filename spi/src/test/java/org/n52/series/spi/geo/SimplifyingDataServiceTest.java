@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.geo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.TimeOutput;
+import org.n52.io.response.dataset.AbstractValue;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+import org.n52.io.response.dataset.text.TextValue;
+import org.n52.series.spi.srv.DataService;
+import org.n52.series.spi.srv.RawDataService;
+
+public class SimplifyingDataServiceTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    private SimplifyingDataService<Data<AbstractValue< ? >>> dataService;
+
+    @Before
+    public void setUp() {
+        dataService = new SimplifyingDataService<>(new TrajectoryService());
+    }
+
+    @Test
+    public void when_noSimplificationRequested_then_allValuesAreReturned() {
+        List<String> values = getValues(IoParameters.createDefaults());
+        assertThat(values, contains("a", "b", "c", "no-location", "d", "e"));
+    }
+
+    @Test
+    public void when_simplifying_then_valuesOffTheLineAreDropped() {
+        List<String> values = getValues(IoParameters.createDefaults()
+                                                    .extendWith(Parameters.SIMPLIFY, "0.1"));
+        assertThat(values, contains("a", "no-location", "e"));
+    }
+
+    @Test
+    public void when_simplifyingWithSmallTolerance_then_cornersAreKept() {
+        List<String> values = getValues(IoParameters.createDefaults()
+                                                    .extendWith(Parameters.SIMPLIFY, "0.001"));
+        assertThat(values, contains("a", "b", "c", "no-location", "d", "e"));
+    }
+
+    @Test
+    public void when_readingCursorWithSimplification_then_valuesAreThinnedOut() {
+        IoParameters parameters = IoParameters.createDefaults()
+                                              .extendWith(Parameters.SIMPLIFY, "0.1");
+        List<String> values = dataService.getDataCursor(parameters)
+                                         .collect()
+                                         .getSeries("trajectory")
+                                         .getValues()
+                                         .stream()
+                                         .map(v -> (String) v.getValue())
+                                         .collect(Collectors.toList());
+        assertThat(values.size(), is(3));
+    }
+
+    @Test
+    public void when_simplifyingQuantityData_then_columnsAreThinnedOut() {
+        SimplifyingDataService<QuantityData> quantityService = new SimplifyingDataService<>(new QuantityService());
+        QuantityData data = quantityService.getData(IoParameters.createDefaults()
+                                                                .extendWith(Parameters.SIMPLIFY, "0.1"))
+                                           .getSeries("trajectory");
+        assertThat(data.size(), is(3L));
+        assertThat(data.getTimestamp(0), is(0L));
+        assertThat(data.getValue(1), is(3d));
+        assertThat(data.isObjectValue(1), is(false));
+        assertThat(data.getTimestamp(2), is(5L));
+    }
+
+    private List<String> getValues(IoParameters parameters) {
+        return dataService.getData(parameters)
+                          .getSeries("trajectory")
+                          .getValues()
+                          .stream()
+                          .map(v -> (String) v.getValue())
+                          .collect(Collectors.toList());
+    }
+
+    private static TextValue createValue(String value, Double x, Double y) {
+        TextValue textValue = new TextValue();
+        textValue.setValue(value);
+        if (x != null) {
+            textValue.setGeometry(FACTORY.createPoint(new Coordinate(x, y)));
+        }
+        return textValue;
+    }
+
+    private static QuantityValue createQuantity(long timestamp, double x, double y) {
+        QuantityValue value = new QuantityValue();
+        value.setTimestamp(new TimeOutput(timestamp, false));
+        value.setValue(BigDecimal.valueOf(timestamp));
+        value.setGeometry(FACTORY.createPoint(new Coordinate(x, y)));
+        return value;
+    }
+
+    private static final class QuantityService implements DataService<QuantityData> {
+
+        @Override
+        public DataCollection<QuantityData> getData(IoParameters parameters) {
+            QuantityData data = new QuantityData();
+            data.addNewValue(createQuantity(0L, 0d, 0d));
+            data.addNewValue(createQuantity(1L, 1d, 0.01));
+            data.addNewValue(createQuantity(2L, 2d, 0d));
+            data.addValue(3L, 3d);
+            data.addNewValue(createQuantity(4L, 3d, 0.01));
+            data.addNewValue(createQuantity(5L, 4d, 0d));
+            DataCollection<QuantityData> collection = new DataCollection<>();
+            collection.addNewSeries("trajectory", data);
+            return collection;
+        }
+
+        @Override
+        public boolean supportsRawData() {
+            return false;
+        }
+
+        @Override
+        public RawDataService getRawDataService() {
+            return null;
+        }
+    }
+
+    private static final class TrajectoryService implements DataService<Data<AbstractValue< ? >>> {
+
+        @Override
+        public DataCollection<Data<AbstractValue< ? >>> getData(IoParameters parameters) {
+            Data<AbstractValue< ? >> data = new Data<>();
+            data.addNewValue(createValue("a", 0d, 0d));
+            data.addNewValue(createValue("b", 1d, 0.01));
+            data.addNewValue(createValue("c", 2d, 0d));
+            data.addNewValue(createValue("no-location", null, null));
+            data.addNewValue(createValue("d", 3d, 0.01));
+            data.addNewValue(createValue("e", 4d, 0d));
+            DataCollection<Data<AbstractValue< ? >>> collection = new DataCollection<>();
+            collection.addNewSeries("trajectory", data);
+            return collection;
+        }
+
+        @Override
+        public boolean supportsRawData() {
+            return false;
+        }
+
+        @Override
+        public RawDataService getRawDataService() {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.geo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.io.crs.CRSUtils;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.OptionalOutput;
+import org.n52.io.response.OutputCollection;
+import org.n52.io.response.dataset.StationOutput;
+import org.n52.series.spi.srv.ParameterService;
+
+public class SpatialIndexParameterServiceTest {
+
+    private StationService stationService;
+
+    private SpatialIndexParameterService<StationOutput> indexedService;
+
+    @Before
+    public void setUp() {
+        stationService = new StationService(createStation("muenster", 7.63, 51.96),
+                                            createStation("bochum", 7.22, 51.48),
+                                            createStation("berlin", 13.40, 52.52));
+        indexedService = SpatialIndexParameterService.forStations(stationService, 0);
+        indexedService.refresh();
+        stationService.lastQuery = null;
+    }
+
+    @After
+    public void tearDown() {
+        indexedService.shutdown();
+    }
+
+    @Test
+    public void when_queryingWithoutSpatialFilter_then_queryIsPassedAsIs() {
+        IoParameters query = IoParameters.createDefaults();
+        assertThat(getIds(indexedService.getCondensedParameters(query)),
+                   containsInAnyOrder("muenster", "bochum", "berlin"));
+        assertThat(stationService.lastQuery, is(query));
+    }
+
+    @Test
+    public void when_queryingBbox_then_onlyContainedStationsAreReturned() {
+        IoParameters query = createQuery(Parameters.BBOX, "6.7, 51.3, 8.0, 52.1");
+        assertThat(getIds(indexedService.getExpandedParameters(query)), containsInAnyOrder("muenster", "bochum"));
+        assertThat(stationService.lastQuery.containsParameter(Parameters.BBOX), is(false));
+        assertThat(stationService.lastQuery.getStations(),
+                   containsInAnyOrder("muenster", "bochum"));
+    }
+
+    @Test
+    public void when_queryingNear_then_stationsOutsideRadiusAreNotReturned() {
+        // bochum is about 60km away, but within the bounds of the vicinity
+        IoParameters query = createQuery(Parameters.NEAR, "7.63, 51.96, 40");
+        assertThat(getIds(indexedService.getCondensedParameters(query)), containsInAnyOrder("muenster"));
+        query = createQuery(Parameters.NEAR, "7.63, 51.96, 70");
+        assertThat(getIds(indexedService.getCondensedParameters(query)), containsInAnyOrder("muenster", "bochum"));
+    }
+
+    @Test
+    public void when_queryingNearCenteredOnStation_then_stationIsReturned() {
+        // latitude for which the spherical law of cosines rounds to acos(>1)
+        StationService service = new StationService(createStation("hagen", 7.47, 51.34));
+        SpatialIndexParameterService<StationOutput> indexed = SpatialIndexParameterService.forStations(service, 0);
+        try {
+            indexed.refresh();
+            IoParameters query = createQuery(Parameters.NEAR, "7.47, 51.34, 1");
+            assertThat(getIds(indexed.getCondensedParameters(query)), containsInAnyOrder("hagen"));
+        } finally {
+            indexed.shutdown();
+        }
+    }
+
+    @Test
+    public void when_nothingMatches_then_composedServiceIsNotQueried() {
+        IoParameters query = createQuery(Parameters.BBOX, "-10.0, -10.0, -9.0, -9.0");
+        assertThat(indexedService.getCondensedParameters(query)
+                                 .isEmpty(),
+                   is(true));
+        assertThat(stationService.lastQuery, is(nullValue()));
+    }
+
+    @Test
+    public void when_pagingManyMatches_then_pagesAreTakenFromMatches() {
+        List<StationOutput> stations = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            // interleave stations outside the bbox which would fill pages of the unfiltered set
+            stations.add(createStation("outside-" + i, 13.40, 52.52));
+            stations.add(createStation("inside-" + i, 7.63, 51.96));
+        }
+        StationService service = new StationService(stations);
+        SpatialIndexParameterService<StationOutput> indexed = SpatialIndexParameterService.forStations(service, 0);
+        try {
+            indexed.refresh();
+            Map<String, String> parameters = new HashMap<>();
+            parameters.put(Parameters.BBOX, "6.7, 51.3, 8.0, 52.1");
+            parameters.put(Parameters.LIMIT, "400");
+            parameters.put(Parameters.OFFSET, "3");
+            IoParameters query = IoParameters.createFromSingleValueMap(parameters);
+
+            List<String> page = getIds(indexed.getExpandedParameters(query));
+            assertThat(page.size(), is(300));
+            assertThat(page.get(0), is("inside-1200"));
+            assertThat(page.get(299), is("inside-1499"));
+            assertThat(service.lastQuery.containsParameter(Parameters.LIMIT), is(false));
+            assertThat(service.lastQuery.containsParameter(Parameters.OFFSET), is(false));
+
+            parameters.put(Parameters.OFFSET, "4");
+            query = IoParameters.createFromSingleValueMap(parameters);
+            assertThat(getIds(indexed.getCondensedParameters(query)), is(empty()));
+        } finally {
+            indexed.shutdown();
+        }
+    }
+
+    @Test
+    public void when_pagingWithIdFilter_then_pagesAreTakenFromMatches() {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(Parameters.BBOX, "6.7, 51.3, 8.0, 52.1");
+        parameters.put(Parameters.STATIONS, "berlin,bochum,muenster");
+        parameters.put(Parameters.LIMIT, "1");
+        parameters.put(Parameters.OFFSET, "1");
+        IoParameters query = IoParameters.createFromSingleValueMap(parameters);
+        assertThat(getIds(indexedService.getCondensedParameters(query)), contains("bochum"));
+    }
+
+    private static IoParameters createQuery(String parameter, String value) {
+        return IoParameters.createFromSingleValueMap(Collections.singletonMap(parameter, value));
+    }
+
+    private static List<String> getIds(OutputCollection<StationOutput> stations) {
+        return stations.stream()
+                       .map(StationOutput::getId)
+                       .collect(Collectors.toList());
+    }
+
+    private static StationOutput createStation(String id, double lon, double lat) {
+        StationOutput station = new StationOutput();
+        station.setId(id);
+        station.setGeometry(OptionalOutput.of(CRSUtils.createEpsgForcedXYAxisOrder()
+                                                      .createPoint(lon, lat, CRSUtils.DEFAULT_CRS)));
+        return station;
+    }
+
+    private static final class StationService extends ParameterService<StationOutput> {
+
+        private final List<StationOutput> stations;
+
+        private IoParameters lastQuery;
+
+        StationService(StationOutput... stations) {
+            this(Arrays.asList(stations));
+        }
+
+        StationService(List<StationOutput> stations) {
+            this.stations = stations;
+        }
+
+        @Override
+        public OutputCollection<StationOutput> getExpandedParameters(IoParameters query) {
+            return getCondensedParameters(query);
+        }
+
+        @Override
+        public OutputCollection<StationOutput> getCondensedParameters(IoParameters query) {
+            lastQuery = query;
+            List<StationOutput> filtered = new ArrayList<>();
+            for (StationOutput station : stations) {
+                if (!query.containsParameter(Parameters.STATIONS)
+                        || query.getStations()
+                                .contains(station.getId())) {
+                    filtered.add(station);
+                }
+            }
+            if (query.containsParameter(Parameters.LIMIT) || query.containsParameter(Parameters.OFFSET)) {
+                int limit = query.getLimit();
+                int from = Math.min(Math.max(0, query.getOffset()) * limit, filtered.size());
+                filtered = filtered.subList(from, Math.min(from + limit, filtered.size()));
+            }
+            return new OutputCollection<>(filtered);
+        }
+
+        @Override
+        public OutputCollection<StationOutput> getParameters(String[] items, IoParameters query) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public StationOutput getParameter(String item, IoParameters query) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean exists(String id, IoParameters parameters) {
+            return false;
+        }
+    }
+
+}
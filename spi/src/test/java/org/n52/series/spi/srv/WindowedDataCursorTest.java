@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2013-2019 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public License
+ * version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * for more details.
+ */
+package org.n52.series.spi.srv;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Interval;
+import org.joda.time.Period;
+import org.junit.Test;
+import org.n52.io.IntervalWithTimeZone;
+import org.n52.io.request.IoParameters;
+import org.n52.io.request.Parameters;
+import org.n52.io.response.TimeOutput;
+import org.n52.io.response.dataset.Data;
+import org.n52.io.response.dataset.DataCollection;
+import org.n52.io.response.dataset.DatasetMetadata;
+import org.n52.io.response.dataset.quantity.QuantityData;
+import org.n52.io.response.dataset.quantity.QuantityValue;
+
+public class WindowedDataCursorTest {
+
+    private static final String TIMESPAN = "2019-01-01T00:00:00Z/2019-01-04T00:00:00Z";
+
+    @Test
+    public void when_splittingTimespan_then_windowsCoverTimespan() {
+        IntervalWithTimeZone timespan = new IntervalWithTimeZone("2019-01-01T00:00:00Z/2019-01-03T12:00:00Z");
+        Map<String, String> query = new HashMap<>();
+        query.put(Parameters.DATASETS, "ds1");
+        query.put(Parameters.TIMESPAN, timespan.toString());
+        CountingDataService service = new CountingDataService();
+        readAll(DataCursor.ofWindows(service, IoParameters.createFromSingleValueMap(query), Period.days(1), false));
+        List<Interval> windows = service.windows;
+        assertThat(windows.size(), is(3));
+        assertThat(windows.get(0)
+                          .getStartMillis(),
+                   is(timespan.toInterval()
+                              .getStartMillis()));
+        assertThat(windows.get(1)
+                          .getStart(),
+                   is(windows.get(0)
+                             .getEnd()));
+        assertThat(windows.get(2)
+                          .getEndMillis(),
+                   is(timespan.toInterval()
+                              .getEndMillis()));
+    }
+
+    @Test
+    public void when_readingWindows_then_valuesOnBoundariesAreDeliveredOnce() {
+        CountingDataService service = new CountingDataService();
+        List<Long> timestamps = readTimestamps(service, "ds1", false);
+        assertThat(timestamps.size(), is(3 * 24 + 1));
+        assertThat(service.requestedWindows, is(3));
+        for (int i = 1; i < timestamps.size(); i++) {
+            assertThat(timestamps.get(i) - timestamps.get(i - 1), is((long) DateTimeConstants.MILLIS_PER_HOUR));
+        }
+    }
+
+    @Test
+    public void when_prefetching_then_sameValuesAreDelivered() {
+        List<Long> expected = readTimestamps(new CountingDataService(), "ds1", false);
+        List<Long> prefetched = readTimestamps(new CountingDataService(), "ds1", true);
+        assertThat(prefetched, is(expected));
+    }
+
+    @Test
+    public void when_readingMultipleDatasets_then_batchesOfDatasetAreConsecutive() {
+        IoParameters parameters = createParameters("ds1", "ds2");
+        List<String> datasetIds = new ArrayList<>();
+        try (DataCursor<QuantityData> cursor = DataCursor.ofWindows(new CountingDataService(),
+                                                                    parameters,
+                                                                    Period.days(1),
+                                                                    true)) {
+            while (cursor.hasNext()) {
+                String datasetId = cursor.next()
+                                         .getDatasetId();
+                if (datasetIds.isEmpty() || !datasetIds.get(datasetIds.size() - 1)
+                                                       .equals(datasetId)) {
+                    datasetIds.add(datasetId);
+                }
+            }
+        }
+        assertThat(datasetIds, containsInAnyOrder("ds1", "ds2"));
+    }
+
+    @Test
+    public void when_datasetHasNoValues_then_singleEmptyBatchIsDelivered() {
+        IoParameters parameters = createParameters("empty");
+        try (DataCursor<QuantityData> cursor = DataCursor.ofWindows(new CountingDataService(),
+                                                                    parameters,
+                                                                    Period.days(1),
+                                                                    false)) {
+            assertThat(cursor.hasNext(), is(true));
+            DataBatch<QuantityData> batch = cursor.next();
+            assertThat(batch.getDatasetId(), is("empty"));
+            assertThat(batch.getData()
+                            .size(),
+                       is(0L));
+            assertThat(cursor.hasNext(), is(false));
+        }
+    }
+
+    @Test
+    public void when_readingPlainDataWindows_then_valuesOnBoundariesAreDeliveredOnce() {
+        IoParameters parameters = createParameters("ds1");
+        List<Long> timestamps = new ArrayList<>();
+        try (DataCursor<Data<QuantityValue>> cursor = DataCursor.ofWindows(new PlainDataService(),
+                                                                           parameters,
+                                                                           Period.days(1),
+                                                                           false)) {
+            while (cursor.hasNext()) {
+                for (QuantityValue value : cursor.next()
+                                                 .getData()
+                                                 .getValues()) {
+                    timestamps.add(value.getTimestamp()
+                                        .getMillis());
+                }
+            }
+        }
+        assertThat(timestamps.size(), is(3 * 24 + 1));
+        for (int i = 1; i < timestamps.size(); i++) {
+            assertThat(timestamps.get(i) - timestamps.get(i - 1), is((long) DateTimeConstants.MILLIS_PER_HOUR));
+        }
+    }
+
+    @Test
+    public void when_readingManyWindows_then_windowsAreCreatedWhileAdvancing() {
+        Map<String, String> query = new HashMap<>();
+        query.put(Parameters.DATASETS, "ds1");
+        query.put(Parameters.TIMESPAN, "2000-01-01T00:00:00Z/2100-01-01T00:00:00Z");
+        CountingDataService service = new CountingDataService();
+        try (DataCursor<QuantityData> cursor = DataCursor.ofWindows(service,
+                                                                    IoParameters.createFromSingleValueMap(query),
+                                                                    Period.seconds(1),
+                                                                    false)) {
+            assertThat(cursor.next()
+                             .getData()
+                             .size(),
+                       is(1L));
+            assertThat(service.requestedWindows, is(1));
+        }
+    }
+
+    @Test
+    public void when_readingWindows_then_valuesAroundTimespanAreKept() {
+        CountingDataService service = new CountingDataService();
+        service.withMetadata = true;
+        Interval timespan = new IntervalWithTimeZone(TIMESPAN).toInterval();
+        List<DataBatch<QuantityData>> batches = readAll(DataCursor.ofWindows(service,
+                                                                             createParameters("ds1"),
+                                                                             Period.days(1),
+                                                                             true));
+        assertThat(batches.size(), is(3));
+        DatasetMetadata<QuantityValue> metadata = batches.get(0)
+                                                         .getData()
+                                                         .getMetadata();
+        assertThat(metadata.getValueBeforeTimespan()
+                           .getTimestamp()
+                           .getMillis(),
+                   is(timespan.getStartMillis() - 1));
+        assertThat(metadata.getValueAfterTimespan()
+                           .getTimestamp()
+                           .getMillis(),
+                   is(timespan.getEndMillis() + 1));
+        assertThat(batches.get(2)
+                          .getData()
+                          .getMetadata(),
+                   is(nullValue()));
+    }
+
+    private <T extends Data< ? >> List<DataBatch<T>> readAll(DataCursor<T> cursor) {
+        List<DataBatch<T>> batches = new ArrayList<>();
+        try (DataCursor<T> toRead = cursor) {
+            while (toRead.hasNext()) {
+                batches.add(toRead.next());
+            }
+        }
+        return batches;
+    }
+
+    private static QuantityValue createValue(long timestamp) {
+        QuantityValue value = new QuantityValue();
+        value.setTimestamp(new TimeOutput(timestamp, false));
+        value.setValue(BigDecimal.ONE);
+        return value;
+    }
+
+    private List<Long> readTimestamps(CountingDataService service, String datasetId, boolean prefetch) {
+        List<Long> timestamps = new ArrayList<>();
+        IoParameters parameters = createParameters(datasetId);
+        try (DataCursor<QuantityData> cursor = DataCursor.ofWindows(service, parameters, Period.days(1), prefetch)) {
+            while (cursor.hasNext()) {
+                QuantityData data = cursor.next()
+                                          .getData();
+                for (int i = 0; i < data.size(); i++) {
+                    timestamps.add(data.getTimestamp(i));
+                }
+            }
+        }
+        return timestamps;
+    }
+
+    private IoParameters createParameters(String... datasetIds) {
+        Map<String, String> query = new HashMap<>();
+        query.put(Parameters.DATASETS, String.join(",", datasetIds));
+        query.put(Parameters.TIMESPAN, TIMESPAN);
+        return IoParameters.createFromSingleValueMap(query);
+    }
+
+    /**
+     * Delivers hourly values, including those on start and end of the requested timespan.
+     */
+    private static final class CountingDataService implements DataService<QuantityData> {
+
+        private final List<Interval> windows = new ArrayList<>();
+
+        private int requestedWindows;
+
+        private boolean withMetadata;
+
+        @Override
+        public synchronized DataCollection<QuantityData> getData(IoParameters parameters) {
+            requestedWindows++;
+            Interval interval = parameters.getTimespan()
+                                          .toInterval();
+            windows.add(interval);
+            DataCollection<QuantityData> collection = new DataCollection<>();
+            for (String datasetId : parameters.getDatasets()) {
+                QuantityData data = new QuantityData();
+                if (!"empty".equals(datasetId)) {
+                    DateTime timestamp = interval.getStart()
+                                                 .withZone(DateTimeZone.UTC);
+                    while (!timestamp.isAfter(interval.getEnd())) {
+                        data.addValue(timestamp.getMillis(), 1d);
+                        timestamp = timestamp.plusHours(1);
+                    }
+                }
+                if (withMetadata) {
+                    // values before and after the window
+                    DatasetMetadata<QuantityValue> metadata = new DatasetMetadata<>();
+                    metadata.setValueBeforeTimespan(createValue(interval.getStartMillis() - 1));
+                    metadata.setValueAfterTimespan(createValue(interval.getEndMillis() + 1));
+                    data.setMetadata(metadata);
+                }
+                collection.addNewSeries(datasetId, data);
+            }
+            return collection;
+        }
+
+        @Override
+        public boolean supportsRawData() {
+            return false;
+        }
+
+        @Override
+        public RawDataService getRawDataService() {
+            return null;
+        }
+    }
+
+    /**
+     * Delivers the values of {@link CountingDataService} as plain (unmodifiable) data.
+     */
+    private static final class PlainDataService implements DataService<Data<QuantityValue>> {
+
+        private final CountingDataService delegate = new CountingDataService();
+
+        @Override
+        public DataCollection<Data<QuantityValue>> getData(IoParameters parameters) {
+            DataCollection<Data<QuantityValue>> collection = new DataCollection<>();
+            delegate.getData(parameters)
+                    .getAllSeries()
+                    .forEach((datasetId, quantityData) -> {
+                        Data<QuantityValue> data = new Data<>();
+                        for (int i = 0; i < quantityData.size(); i++) {
+                            QuantityValue value = new QuantityValue();
+                            value.setTimestamp(new TimeOutput(quantityData.getTimestamp(i), false));
+                            value.setValue(BigDecimal.ONE);
+                            data.addNewValue(value);
+                        }
+                        collection.addNewSeries(datasetId, data);
+                    });
+            return collection;
+        }
+
+        @Override
+        public boolean supportsRawData() {
+            return false;
+        }
+
+        @Override
+        public RawDataService getRawDataService() {
+            return null;
+        }
+    }
+
+}